@@ -13,7 +13,7 @@ public class ReactForwardController {
      */
     @GetMapping(value = {
         "/{path:[^\\.]*}", 
-        "/view/**/{path:[^\\.]*}"
+        "/view/{*path}"
     })
     public String forward() {
         return "forward:/index.html";
@@ -3,19 +3,27 @@ package br.com.anestesiaflow.auth.permission;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import br.com.anestesiaflow.auth.security.UsuarioAutenticacao;
 
 @Component("auth")
 public class SecurityService {
 
 	public boolean has(Permissoes permissao) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        
-        if (auth == null || !auth.isAuthenticated()) {
+        return possui(SecurityContextHolder.getContext().getAuthentication(), permissao);
+    }
+	
+	static boolean possui(Authentication auth, Permissoes permissao) {
+		if (auth == null || !auth.isAuthenticated()) {
             return false;
         }
+		
+		// Usuário logado pelo SecurityFilter: teste direto no EnumSet
+		if (auth instanceof UsuarioAutenticacao usuario) {
+			return usuario.has(permissao);
+		}
 
         return auth.getAuthorities().stream()
                    .anyMatch(a -> a.getAuthority().equals(permissao.name()));
-    }
+	}
 	
-}
\ No newline at end of file
+}
@@ -7,9 +7,7 @@ import org.springframework.stereotype.Component;
 public class SecurityUtils {
 
 	public boolean hasAuthority(Permissoes authority) {
-        return SecurityContextHolder.getContext().getAuthentication()
-                .getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals(authority.name()));
+        return SecurityService.possui(SecurityContextHolder.getContext().getAuthentication(), authority);
     }
 	
 }
@@ -0,0 +1,18 @@
+package br.com.anestesiaflow.auth.security;
+
+/**
+ * Identifica as requisições do build do React (bundle em /assets, index.html, manifest, service
+ * worker e ícones na raiz). Nenhuma rota da API tem ponto no caminho, então basta olhar o prefixo
+ * /assets/ ou a extensão no último segmento.
+ */
+public final class RecursosEstaticos {
+
+	public static final String PREFIXO_ASSETS = "/assets/";
+
+	private RecursosEstaticos() {
+	}
+
+	public static boolean ehRecursoEstatico(String caminho) {
+		return caminho.startsWith(PREFIXO_ASSETS) || caminho.indexOf('.', caminho.lastIndexOf('/')) >= 0;
+	}
+}
@@ -10,6 +10,7 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -36,24 +37,8 @@ public class SecurityConfig {
 															 .requestMatchers(HttpMethod.POST, "/auth/logout").permitAll()
 															 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
 															 .requestMatchers(HttpMethod.GET, "/api/public/**").permitAll()
-															 .requestMatchers(
-																	    "/", 
-																	    "/login",
-																	    "/index.html", 
-																	    "/**/*.png",
-																	    "/**/*.jpg",
-																	    "/**/*.jpeg",
-																	    "/**/*.svg",
-																	    "/**/*.css",
-																	    "/**/*.js",
-																	    "/favicon.ico",
-																	    "/manifest.json",
-																	    "/static/**",
-																	    "/assets/**",	
-																	    "/view/**"
-													                ).permitAll()
+															 .requestMatchers("/", "/login", "/view/**").permitAll()
 															 .requestMatchers("/**").authenticated()
-															 .requestMatchers("/{path:[^\\.]*}", "/*/{path:[^\\.]*}", "/**/{path:[^\\.]*}").permitAll()
 															 .anyRequest()
 															 .authenticated()
 						)
@@ -62,6 +47,16 @@ public class SecurityConfig {
 		return security.build();
 	}
 	
+	/**
+	 * Build do React fora da cadeia de segurança: nenhum filtro roda para /assets, index.html,
+	 * manifest e ícones.
+	 */
+	@Bean
+	public WebSecurityCustomizer recursosEstaticosCustomizer() {
+		return web -> web.ignoring().requestMatchers(request ->
+				RecursosEstaticos.ehRecursoEstatico(request.getRequestURI()));
+	}
+	
 	
 	@Bean
 	public CorsConfigurationSource orsConfigurationSource() {
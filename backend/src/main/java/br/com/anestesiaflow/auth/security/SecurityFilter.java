@@ -5,9 +5,6 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -15,19 +12,28 @@ import br.com.anestesiaflow.auth.permission.Permissoes;
 import br.com.anestesiaflow.auth.service.TokenService;
 import br.com.anestesiaflow.entidades.Usuario;
 import br.com.anestesiaflow.usuario.repository.UsuarioRepository;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
+import java.util.EnumSet;
 
 @Component
 public class SecurityFilter extends OncePerRequestFilter {
 
     private final TokenService tokenService;
     private final UsuarioRepository userRepository;
+    private final UsuarioPrincipalCache principalCache;
 
-    public SecurityFilter(TokenService tokenService, UsuarioRepository userRepository) {
+    public SecurityFilter(TokenService tokenService, UsuarioRepository userRepository,
+    		UsuarioPrincipalCache principalCache) {
         this.tokenService = tokenService;
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+    	// Build do React: servido pelo resource handler, sem token
+    	return RecursosEstaticos.ehRecursoEstatico(request.getRequestURI());
     }
 
     @Override
@@ -44,47 +50,27 @@ public class SecurityFilter extends OncePerRequestFilter {
             return;
         }
     	
-    	if (path.startsWith("/static/") ||
-                path.startsWith("/js/") ||
-                path.startsWith("/css/") ||
-                path.startsWith("/assets/") ||
-                path.endsWith(".png") ||
-                path.endsWith(".jpg") ||
-                path.endsWith(".jpeg") ||
-                path.endsWith(".svg") ||
-                path.endsWith(".ico") ||
-                path.endsWith(".html") ||
-                path.endsWith(".json")) {
-
-                filterChain.doFilter(request, response);
-                return;
-            }
-    	
     	String token = this.recoverToken(request);
         if (token != null && !token.isEmpty()) {
-        	String login = tokenService.validateToken(token);
-            if (login != null) {
-	            Usuario user = userRepository.findByLogin(login).orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-	
-	            if (user != null) {
-	            	List<SimpleGrantedAuthority> authorities;
-	            	if (user.getLogin().equalsIgnoreCase("admin")) {
-	            		authorities = Arrays.asList(Permissoes.values()).stream()
-		                        .map(p -> new SimpleGrantedAuthority(p.name()))
-		                        .toList();
-	            	} else {
-		            	authorities = user.getPermissoes().stream()
-		                        .map(p -> new SimpleGrantedAuthority(p.name()))
-		                        .toList();
-	            	}
-	            	Authentication authentication = new UsernamePasswordAuthenticationToken(user, null, authorities);
-	                SecurityContextHolder.getContext().setAuthentication(authentication);
-	            }
+        	DecodedJWT jwt = tokenService.decodeToken(token);
+            if (jwt != null) {
+            	long emitidoEm = jwt.getIssuedAt() != null ? jwt.getIssuedAt().getTime() : 0L;
+            	UsuarioAutenticacao autenticacao = principalCache.buscar(jwt.getSubject(), emitidoEm, this::carregarPrincipal);
+                SecurityContextHolder.getContext().setAuthentication(autenticacao);
             }
         }
         filterChain.doFilter(request, response);
     }
 
+    private UsuarioAutenticacao carregarPrincipal(String login) {
+    	Usuario user = userRepository.findByLogin(login).orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+    	
+    	if (user.getLogin().equalsIgnoreCase("admin")) {
+    		return new UsuarioAutenticacao(user, EnumSet.allOf(Permissoes.class));
+    	}
+    	return new UsuarioAutenticacao(user, user.getPermissoes());
+    }
+
     private String recoverToken(HttpServletRequest request) {
     	if (request.getCookies() != null) {
     		for (Cookie cookie : request.getCookies()) {
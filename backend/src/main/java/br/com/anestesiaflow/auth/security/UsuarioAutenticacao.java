@@ -0,0 +1,78 @@
+package br.com.anestesiaflow.auth.security;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import br.com.anestesiaflow.auth.permission.Permissoes;
+import br.com.anestesiaflow.entidades.Usuario;
+
+/**
+ * Autenticação do usuário logado com as permissões já resolvidas em um {@link EnumSet} (um bit por
+ * permissão), montada uma vez por usuário e reaproveitada entre as requisições pelo
+ * {@link UsuarioPrincipalCache}. Imutável, pode ser compartilhada entre threads.
+ */
+public final class UsuarioAutenticacao implements Authentication {
+
+	private static final long serialVersionUID = 6153402958153047431L;
+
+	private final Usuario usuario;
+	private final EnumSet<Permissoes> permissoes;
+	private final List<GrantedAuthority> authorities;
+
+	public UsuarioAutenticacao(Usuario usuario, Set<Permissoes> permissoes) {
+		this.usuario = usuario;
+		this.permissoes = permissoes.isEmpty() ? EnumSet.noneOf(Permissoes.class) : EnumSet.copyOf(permissoes);
+		this.authorities = this.permissoes.stream()
+				.<GrantedAuthority>map(p -> new SimpleGrantedAuthority(p.name()))
+				.toList();
+	}
+
+	public boolean has(Permissoes permissao) {
+		return permissoes.contains(permissao);
+	}
+
+	public Usuario getUsuario() {
+		return usuario;
+	}
+
+	@Override
+	public Collection<? extends GrantedAuthority> getAuthorities() {
+		return authorities;
+	}
+
+	@Override
+	public Object getCredentials() {
+		return null;
+	}
+
+	@Override
+	public Object getDetails() {
+		return null;
+	}
+
+	@Override
+	public Object getPrincipal() {
+		return usuario;
+	}
+
+	@Override
+	public boolean isAuthenticated() {
+		return true;
+	}
+
+	@Override
+	public void setAuthenticated(boolean isAuthenticated) {
+		if (!isAuthenticated) {
+			throw new IllegalArgumentException("UsuarioAutenticacao é imutável");
+		}
+	}
+
+	@Override
+	public String getName() {
+		return usuario.getLogin();
+	}
+}
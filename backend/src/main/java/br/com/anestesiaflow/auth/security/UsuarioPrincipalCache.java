@@ -0,0 +1,36 @@
+package br.com.anestesiaflow.auth.security;
+
+import java.time.Duration;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import br.com.anestesiaflow.framework.utils.CacheExpiravel;
+
+/**
+ * Cache da autenticação do usuário (com as permissões já montadas) por login + emissão do token,
+ * evitando ir ao banco e remontar as authorities a cada requisição autenticada.
+ */
+@Component
+public class UsuarioPrincipalCache {
+
+	public record ChavePrincipal(String login, long emitidoEm) {}
+
+	private final CacheExpiravel<ChavePrincipal, UsuarioAutenticacao> cache;
+
+	public UsuarioPrincipalCache(@Value("${api.security.principal-cache.maximo:500}") int maximo,
+			@Value("${api.security.principal-cache.ttl-segundos:60}") long ttlSegundos) {
+		this.cache = new CacheExpiravel<>(maximo, Duration.ofSeconds(ttlSegundos));
+	}
+
+	public UsuarioAutenticacao buscar(String login, long emitidoEm, Function<String, UsuarioAutenticacao> carregar) {
+		return cache.get(new ChavePrincipal(login, emitidoEm), chave -> carregar.apply(chave.login()));
+	}
+
+	public void remover(int usuarioId) {
+		cache.removerSe((chave, principal) -> principal.getUsuario().getId().equals(usuarioId));
+	}
+
+	public void limpar() {
+		cache.limpar();
+	}
+}
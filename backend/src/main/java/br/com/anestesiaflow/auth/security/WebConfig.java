@@ -1,19 +1,43 @@
 package br.com.anestesiaflow.auth.security;
 
+import java.time.Duration;
 import br.com.anestesiaflow.publicview.BasePublicController;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.web.method.HandlerTypePredicate;
 import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
     @Override
     public void configurePathMatch(PathMatchConfigurer configurer) {
-        // Adiciona o prefixo /api/public automaticamente para qualquer classe 
+        // Adiciona o prefixo /api/public automaticamente para qualquer classe
         // que implemente BasePublicController
-        configurer.addPathPrefix("/api/public", 
+        configurer.addPathPrefix("/api/public",
         	HandlerTypePredicate.forAssignableType(BasePublicController.class));
     }
-}
\ No newline at end of file
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // Bundle do Vite: o nome leva o hash do conteúdo, então o arquivo nunca muda
+        registry.addResourceHandler(RecursosEstaticos.PREFIXO_ASSETS + "**")
+        		.addResourceLocations("classpath:/static" + RecursosEstaticos.PREFIXO_ASSETS)
+        		.setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+        		.resourceChain(true)
+        		.addResolver(new EncodedResourceResolver())
+        		.addResolver(new PathResourceResolver());
+
+        // index.html, service worker, manifest e ícones mantêm o nome entre versões: sempre revalidados
+        registry.addResourceHandler("/**")
+        		.addResourceLocations("classpath:/static/")
+        		.setCacheControl(CacheControl.noCache())
+        		.resourceChain(true)
+        		.addResolver(new EncodedResourceResolver())
+        		.addResolver(new PathResourceResolver());
+    }
+}
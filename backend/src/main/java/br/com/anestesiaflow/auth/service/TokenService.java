@@ -1,29 +1,47 @@
 package br.com.anestesiaflow.auth.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.Base64;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import br.com.anestesiaflow.framework.utils.CacheExpiravel;
 
 @Service
 public class TokenService {
 
-	@Value("${api.security.token.secrety}")
-	private String secrety;
 	private final String issuer = "anestesiaflow";
-	
+	private final Algorithm algorithm;
+	private final JWTVerifier verifier;
+	// Tokens já verificados, pelo hash do token; cada entrada vence junto com o "exp" do token
+	private final CacheExpiravel<String, DecodedJWT> tokensVerificados;
+
+	public TokenService(@Value("${api.security.token.secrety}") String secrety,
+			@Value("${api.security.token-cache.maximo:1000}") int maximoCache) {
+		this.algorithm = Algorithm.HMAC256(secrety);
+		this.verifier = JWT.require(algorithm)
+				.withIssuer(issuer)
+				.build();
+		this.tokensVerificados = new CacheExpiravel<>(maximoCache, Duration.ofHours(24));
+	}
+
 	public String generateToken(String login) {
 		try {
-			Algorithm algorithm = Algorithm.HMAC256(secrety);
-			
 			String token = JWT.create()
 						.withIssuer(issuer)
 						.withSubject(login)
+						.withIssuedAt(Instant.now())
 						.withExpiresAt(generateExpirationDate())
 						.sign(algorithm);
 			return token;
@@ -31,23 +49,42 @@ public class TokenService {
 			throw new RuntimeException("Eroo na autenticação");
 		}
 	}
-	
+
 	private Instant generateExpirationDate() {
 		return LocalDateTime.now().plusHours(2).toInstant(ZoneOffset.of("-3"));
 	}
-	
+
 	public String validateToken(String token) {
+		DecodedJWT jwt = decodeToken(token);
+		return jwt != null ? jwt.getSubject() : null;
+	}
+
+	public DecodedJWT decodeToken(String token) {
+		String chave = hash(token);
+		DecodedJWT jwt = tokensVerificados.get(chave);
+		if (jwt != null) {
+			return jwt;
+		}
+
 		try {
-			Algorithm algorithm = Algorithm.HMAC256(secrety);
-			
-			return JWT.require(algorithm)
-					.withIssuer(issuer)
-					.build()
-					.verify(token)
-					.getSubject();
+			jwt = verifier.verify(token);
 		} catch (JWTVerificationException e) {
 			return null;
 		}
+
+		if (jwt.getExpiresAt() != null) {
+			tokensVerificados.put(chave, jwt, jwt.getExpiresAt().getTime());
+		}
+		return jwt;
+	}
+
+	private String hash(String token) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+			return Base64.getEncoder().encodeToString(digest);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
 	}
-	
+
 }
@@ -11,6 +11,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -45,6 +46,12 @@ public class EscalaController {
 		return ResponseEntity.ok().build();
 	}
 	
+	@PreAuthorize("@auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).SUDOKU_ACESSAR)")
+	@GetMapping("/listardia/cache")
+	public ResponseEntity<Map<String, Object>> listardiaCache() {
+		return ResponseEntity.ok(escalaService.estatisticasCacheGrade());
+	}
+	
 	@PreAuthorize("@auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).ESCALA_ACESSAR)")
 	@PostMapping("/buscarid")
 	public ResponseEntity<EscalaEdicaoDTO> buscaPorId(@RequestBody Map<String, Integer> payload) {
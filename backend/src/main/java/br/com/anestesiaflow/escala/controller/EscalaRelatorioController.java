@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -39,4 +40,11 @@ public class EscalaRelatorioController {
 	public ResponseEntity<List<EscalaSimetriaEstResponseDTO>> resumoSimetria(@RequestBody(required = false) Map<String, Object> filtros){
 		return ResponseEntity.ok(escalaService.resumoAssimetria(filtros));
 	}
+	
+	// Refaz o resumo mensal dos relatórios a partir de todas as escalas
+	@PreAuthorize("@auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).CONFIG_ALTERAR)")
+	@PostMapping("/resumo-mensal/reconstruir")
+	public ResponseEntity<Map<String, Integer>> reconstruirResumoMensal(){
+		return ResponseEntity.ok(Map.of("linhas", escalaService.reconstruirResumoMensal()));
+	}
 }
@@ -9,7 +9,7 @@ public record EscalaItemResponseDTO(
 	    String estabelecimentoSigla,
 	    LocalTime hora,
 	    String cor,
-	    byte[] icone,
+	    String iconeUrl,
 	    LocalDateTime arquivado,
 	    boolean reagendado,
 	    boolean plantao) {}
\ No newline at end of file
@@ -0,0 +1,230 @@
+package br.com.anestesiaflow.escala.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import br.com.anestesiaflow.escala.entidade.Escala;
+import br.com.anestesiaflow.escala.entidade.EscalaItem;
+import br.com.anestesiaflow.framework.persistence.BaseEntity;
+
+/**
+ * Gravação em lote (JDBC batch) de escalas e itens. Como os ids são IDENTITY o Hibernate
+ * não agrupa os inserts, por isso as escritas em massa passam por aqui.
+ */
+@Repository
+public class EscalaLoteRepository {
+
+	private static final String INSERT_ESCALA = """
+			INSERT INTO escala (medicoid, data, plantao, datacriacao)
+			VALUES (?, ?, ?, ?)
+			""";
+
+	private static final String UPDATE_ESCALA = """
+			UPDATE escala
+			SET data = ?, plantao = ?, dataatualizacao = ?
+			WHERE id = ?
+			""";
+
+	private static final String INSERT_ITEM = """
+			INSERT INTO escalaitem (escalaid, estabelecimentoid, hora, arquivado, reagendado, datacriacao)
+			VALUES (?, ?, ?, ?, ?, ?)
+			""";
+
+	private static final String UPDATE_ITEM = """
+			UPDATE escalaitem
+			SET estabelecimentoid = ?, hora = ?, reagendado = ?, dataatualizacao = ?
+			WHERE id = ?
+			""";
+
+	private static final String SELECT_ESCALAS_PERIODO = """
+			SELECT id, medicoid, data, plantao
+			FROM escala
+			WHERE data BETWEEN ? AND ?
+			""";
+
+	private static final String SELECT_ITENS_PERIODO = """
+			SELECT ei.escalaid, ei.estabelecimentoid, ei.hora
+			FROM escalaitem ei
+			JOIN escala e ON e.id = ei.escalaid
+			WHERE e.data BETWEEN ? AND ?
+			""";
+
+	public record EscalaChave(int medicoId, LocalDate data, boolean plantao) {}
+
+	public record EscalaItemChave(int escalaId, int estabelecimentoId, LocalTime hora) {}
+
+	private final JdbcTemplate jdbcTemplate;
+	private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+	public EscalaLoteRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.namedJdbcTemplate = namedJdbcTemplate;
+	}
+
+	/**
+	 * Ids das escalas do período, pela chave médico/data/plantão, sem carregar entidades.
+	 */
+	public Map<EscalaChave, Integer> buscarIdsEscalas(LocalDate inicio, LocalDate fim) {
+		Map<EscalaChave, Integer> ids = new HashMap<>();
+		jdbcTemplate.query(SELECT_ESCALAS_PERIODO, rs -> {
+			ids.putIfAbsent(new EscalaChave(
+					rs.getInt("medicoid"),
+					rs.getObject("data", LocalDate.class),
+					rs.getBoolean("plantao")), rs.getInt("id"));
+		}, inicio, fim);
+		return ids;
+	}
+
+	public Set<EscalaItemChave> buscarChavesItens(LocalDate inicio, LocalDate fim) {
+		Set<EscalaItemChave> chaves = new HashSet<>();
+		jdbcTemplate.query(SELECT_ITENS_PERIODO, rs -> {
+			chaves.add(new EscalaItemChave(
+					rs.getInt("escalaid"),
+					rs.getInt("estabelecimentoid"),
+					rs.getObject("hora", LocalTime.class)));
+		}, inicio, fim);
+		return chaves;
+	}
+
+	public void inserirEscalas(List<Escala> escalas) {
+		if (escalas.isEmpty()) {
+			return;
+		}
+
+		LocalDateTime agora = LocalDateTime.now();
+		KeyHolder chaves = new GeneratedKeyHolder();
+		jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_ESCALA, new String[] { "id" }),
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						Escala escala = escalas.get(i);
+						ps.setInt(1, escala.getMedico().getId());
+						ps.setObject(2, escala.getData());
+						ps.setBoolean(3, escala.isPlantao());
+						ps.setObject(4, agora);
+					}
+
+					@Override
+					public int getBatchSize() {
+						return escalas.size();
+					}
+				}, chaves);
+		atribuirIds(escalas, chaves);
+	}
+
+	public void atualizarEscalas(List<Escala> escalas) {
+		if (escalas.isEmpty()) {
+			return;
+		}
+
+		LocalDateTime agora = LocalDateTime.now();
+		jdbcTemplate.batchUpdate(UPDATE_ESCALA, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				Escala escala = escalas.get(i);
+				ps.setObject(1, escala.getData());
+				ps.setBoolean(2, escala.isPlantao());
+				ps.setObject(3, agora);
+				ps.setInt(4, escala.getId());
+			}
+
+			@Override
+			public int getBatchSize() {
+				return escalas.size();
+			}
+		});
+	}
+
+	public void inserirItens(List<EscalaItem> itens) {
+		if (itens.isEmpty()) {
+			return;
+		}
+
+		LocalDateTime agora = LocalDateTime.now();
+		KeyHolder chaves = new GeneratedKeyHolder();
+		jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_ITEM, new String[] { "id" }),
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						EscalaItem item = itens.get(i);
+						ps.setInt(1, item.getEscala().getId());
+						ps.setInt(2, item.getEstabelecimento().getId());
+						ps.setObject(3, item.getHora());
+						if (item.getArquivado() != null) {
+							ps.setObject(4, item.getArquivado());
+						} else {
+							ps.setNull(4, Types.TIMESTAMP);
+						}
+						ps.setBoolean(5, item.isReagendado());
+						ps.setObject(6, agora);
+					}
+
+					@Override
+					public int getBatchSize() {
+						return itens.size();
+					}
+				}, chaves);
+		atribuirIds(itens, chaves);
+	}
+
+	public void atualizarItens(List<EscalaItem> itens) {
+		if (itens.isEmpty()) {
+			return;
+		}
+
+		LocalDateTime agora = LocalDateTime.now();
+		jdbcTemplate.batchUpdate(UPDATE_ITEM, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				EscalaItem item = itens.get(i);
+				ps.setInt(1, item.getEstabelecimento().getId());
+				ps.setObject(2, item.getHora());
+				ps.setBoolean(3, item.isReagendado());
+				ps.setObject(4, agora);
+				ps.setInt(5, item.getId());
+			}
+
+			@Override
+			public int getBatchSize() {
+				return itens.size();
+			}
+		});
+	}
+
+	public void excluirItens(Collection<Integer> ids) {
+		if (ids.isEmpty()) {
+			return;
+		}
+		namedJdbcTemplate.update("DELETE FROM escalaitem WHERE id IN (:ids)", Map.of("ids", ids));
+	}
+
+	public void excluirEscalas(Collection<Integer> ids) {
+		if (ids.isEmpty()) {
+			return;
+		}
+		namedJdbcTemplate.update("DELETE FROM escalaitem WHERE escalaid IN (:ids)", Map.of("ids", ids));
+		namedJdbcTemplate.update("DELETE FROM escala WHERE id IN (:ids)", Map.of("ids", ids));
+	}
+
+	private void atribuirIds(List<? extends BaseEntity<Integer>> entidades, KeyHolder chaves) {
+		List<Map<String, Object>> ids = chaves.getKeyList();
+		for (int i = 0; i < entidades.size(); i++) {
+			entidades.get(i).setId(((Number) ids.get(i).get("id")).intValue());
+		}
+	}
+}
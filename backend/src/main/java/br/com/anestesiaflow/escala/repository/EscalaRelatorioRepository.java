@@ -1,46 +1,58 @@
 package br.com.anestesiaflow.escala.repository;
 
-import java.time.LocalDate;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import br.com.anestesiaflow.escala.dto.EscalaResumoAnualClinicaResponseDTO;
 import br.com.anestesiaflow.escala.dto.EscalaResumoAnualMedicoResponseDTO;
-import br.com.anestesiaflow.escala.dto.EscalaSimetriaDTO;
 import br.com.anestesiaflow.escala.entidade.Escala;
 
 public interface EscalaRelatorioRepository extends JpaRepository<Escala, Integer> {
 
-	@Query(value = "SELECT DISTINCT EXTRACT(YEAR FROM e.data) AS ano " +
-            "FROM escala e " +
-            "ORDER BY ano DESC", nativeQuery = true)
+	// Pula de ano em ano pelo índice de escala.data (MIN a partir de 1º de janeiro do ano seguinte),
+	// em vez de ler a tabela inteira para um DISTINCT EXTRACT(YEAR ...)
+	@Query(value = """
+	        WITH RECURSIVE anos AS (
+	            SELECT CAST(EXTRACT(YEAR FROM MIN(e.data)) AS integer) AS ano
+	            FROM escala e
+	            UNION ALL
+	            SELECT (SELECT CAST(EXTRACT(YEAR FROM MIN(e.data)) AS integer)
+	                    FROM escala e
+	                    WHERE e.data >= make_date(a.ano + 1, 1, 1))
+	            FROM anos a
+	            WHERE a.ano IS NOT NULL
+	        )
+	        SELECT ano
+	        FROM anos
+	        WHERE ano IS NOT NULL
+	        ORDER BY ano DESC
+	        """, nativeQuery = true)
 	List<Integer> findAllAnosEscalas();
 	
+	// Os relatórios anuais leem da tabela escalaresumomensal, mantida por EscalaResumoMensal
 	@Query(value = """
 	        SELECT 
 	            coalesce(est.sigla, est.nome) AS estabelecimento,
 	            est.icone,
 	            est.cor,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 1) AS janeiro,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 2) AS fevereiro,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 3) AS marco,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 4) AS abril,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 5) AS maio,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 6) AS junho,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 7) AS julho,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 8) AS agosto,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 9) AS setembro,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 10) AS outubro,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 11) AS novembro,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 12) AS dezembro,
-	            COUNT(ei.id) AS total_ano
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 1), 0) AS integer) AS janeiro,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 2), 0) AS integer) AS fevereiro,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 3), 0) AS integer) AS marco,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 4), 0) AS integer) AS abril,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 5), 0) AS integer) AS maio,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 6), 0) AS integer) AS junho,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 7), 0) AS integer) AS julho,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 8), 0) AS integer) AS agosto,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 9), 0) AS integer) AS setembro,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 10), 0) AS integer) AS outubro,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 11), 0) AS integer) AS novembro,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 12), 0) AS integer) AS dezembro,
+	            CAST(COALESCE(SUM(r.total), 0) AS integer) AS total_ano
 	        FROM 
 	            estabelecimento est
 	        LEFT JOIN 
-	            escala e ON e.medicoid = :medicoId and EXTRACT(YEAR FROM e.data) = :ano
-			LEFT JOIN 
-	            escalaitem ei ON ei.escalaid = e.id and est.id = ei.estabelecimentoid	            
+	            escalaresumomensal r ON r.estabelecimentoid = est.id AND r.medicoid = :medicoId AND r.ano = :ano
 	        GROUP BY 
 	            coalesce(est.sigla, est.nome),  est.icone, est.cor
 	        ORDER BY 
@@ -51,75 +63,28 @@ public interface EscalaRelatorioRepository extends JpaRepository<Escala, Integer
 	@Query(value = """
 	        SELECT 
 	            m.sigla AS sigla,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 1) AS janeiro,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 2) AS fevereiro,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 3) AS marco,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 4) AS abril,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 5) AS maio,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 6) AS junho,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 7) AS julho,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 8) AS agosto,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 9) AS setembro,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 10) AS outubro,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 11) AS novembro,
-	            COUNT(ei.id) FILTER (WHERE EXTRACT(MONTH FROM e.data) = 12) AS dezembro,
-	            COUNT(ei.id) AS total_ano
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 1), 0) AS integer) AS janeiro,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 2), 0) AS integer) AS fevereiro,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 3), 0) AS integer) AS marco,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 4), 0) AS integer) AS abril,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 5), 0) AS integer) AS maio,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 6), 0) AS integer) AS junho,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 7), 0) AS integer) AS julho,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 8), 0) AS integer) AS agosto,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 9), 0) AS integer) AS setembro,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 10), 0) AS integer) AS outubro,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 11), 0) AS integer) AS novembro,
+	            CAST(COALESCE(SUM(r.total) FILTER (WHERE r.mes = 12), 0) AS integer) AS dezembro,
+	            CAST(COALESCE(SUM(r.total), 0) AS integer) AS total_ano
 	        FROM 
 	            medico m
 	        LEFT JOIN 
-	            escala e ON e.medicoid = m.id and EXTRACT(YEAR FROM e.data) = :ano
-	        LEFT JOIN 
-	            escalaitem ei ON ei.escalaid = e.id and ei.estabelecimentoid = :estId
+	            escalaresumomensal r ON r.medicoid = m.id AND r.estabelecimentoid = :estId AND r.ano = :ano
 	        GROUP BY 
 	            m.sigla, m.dataassociacao
 	        ORDER BY 
 	            m.dataassociacao
 	        """, nativeQuery = true)
 	    List<EscalaResumoAnualClinicaResponseDTO> findResumoAnualByClinica(@Param("estId") int medicoId, @Param("ano") int ano);
-		
-	
-	@Query(value = """
-	        SELECT 
-	            base.sigla,
-	            base.cor,
-	            base.icone,
-	            base.estid,
-	            base.datainicio,
-				base.datafim,
-	            jsonb_agg(
-	                jsonb_build_object('sigla', base.sigla_medico, 'medicoid', base.medicoid,'total', base.total)
-	                ORDER BY base.total ASC, base.dataassociacao ASC
-	            ) AS dadosMedicos
-	        FROM (
-	            SELECT 
-	                e.sigla AS sigla,
-	                e.cor,
-	                e.icone,
-	                m.id as medicoid,
-	                e.id as estid,
-	                m.sigla AS sigla_medico,
-	                m.dataassociacao,
-	                COALESCE(cast(:dataBase as date), CURRENT_DATE - INTERVAL '90 days')::date AS datainicio,
-					(CURRENT_DATE + INTERVAL '30 days')::date AS datafim,
-	                COALESCE(contagem.total, 0) AS total
-	            FROM estabelecimento e
-	            CROSS JOIN medico m
-	            LEFT JOIN (
-	                SELECT ei.estabelecimentoid, esc.medicoid, COUNT(ei.id) AS total
-	                FROM escalaitem ei
-	                JOIN escala esc ON ei.escalaid = esc.id
-	                WHERE esc.data >= COALESCE(cast(:dataBase as date), CURRENT_DATE - INTERVAL '90 days')
-			     	  AND esc.data <= (CURRENT_DATE + INTERVAL '30 days')
-			     	  AND ((esc.plantao = false AND ei.arquivado is not null AND :arquivado = 'A') OR
-			     	       (esc.plantao = false AND ei.reagendado = false AND :arquivado = 'E') OR 
-			     	       (esc.plantao = true AND ei.reagendado = false AND :arquivado = 'PE') OR
-			     	       (esc.plantao = true AND ei.arquivado is not null AND :arquivado = 'PA'))
-	                GROUP BY ei.estabelecimentoid, esc.medicoid
-	            ) contagem ON contagem.estabelecimentoid = e.id AND contagem.medicoid = m.id
-	            where m.ativo = true and e.ativo = true 
-	        ) base
-	        GROUP BY base.sigla, base.cor, base.icone, base.estid, base.datainicio, base.datafim
-	        ORDER BY base.sigla
-	        """, nativeQuery = true)
-	    List<EscalaSimetriaDTO> buscarRelatorioAssimetria(@Param("arquivado") String arquivado, @Param("dataBase") LocalDate dataBase );
+
 }
@@ -1,6 +1,7 @@
 package br.com.anestesiaflow.escala.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -13,16 +14,21 @@ import jakarta.transaction.Transactional;
 
 public interface EscalaRepository extends JpaRepository<Escala, Integer> {
 
-	@EntityGraph(attributePaths = {"medico", "itens.estabelecimento"})
+	@EntityGraph(attributePaths = {"medico", "itens"})
 	List<Escala> findByMedico_IdAndDataBetweenOrderByDataAsc(Integer medicoId, LocalDate inicio, LocalDate fim);
 	
-	@EntityGraph(attributePaths = {"medico", "itens.estabelecimento"})
+	@EntityGraph(attributePaths = {"medico", "itens"})
 	List<Escala> findByMedico_IdAndDataGreaterThanEqualOrderByDataAscItensHoraAsc(Integer medicoId, LocalDate inicio);
 	
+	@EntityGraph(attributePaths = {"medico", "itens"})
+	List<Escala> findByMedico_IdInAndDataBetween(Collection<Integer> medicoIds, LocalDate inicio, LocalDate fim);
+	
+	@EntityGraph(attributePaths = {"medico", "itens"})
+	List<Escala> findByIdIn(Collection<Integer> ids);
+	
 	@Query("""
 		    SELECT DISTINCT e FROM Escala e 
 		    LEFT JOIN FETCH e.itens i 
-		    LEFT JOIN FETCH i.estabelecimento 
 		    JOIN FETCH e.medico 
 		    WHERE e.data = :data
 		      AND (e.plantao = :plantao OR :plantao is null) 
@@ -34,7 +40,6 @@ public interface EscalaRepository extends JpaRepository<Escala, Integer> {
 	@Query("""
 		    SELECT DISTINCT e FROM Escala e 
 		    LEFT JOIN FETCH e.itens i 
-		    LEFT JOIN FETCH i.estabelecimento 
 		    JOIN FETCH e.medico 
 		    WHERE e.data = :data
 		      AND e.plantao = true 
@@ -45,10 +50,10 @@ public interface EscalaRepository extends JpaRepository<Escala, Integer> {
 		    """)
 	List<Escala> findByDataNoturno(LocalDate data);
 	
-	@EntityGraph(attributePaths = {"itens.estabelecimento", "medico"})
+	@EntityGraph(attributePaths = {"itens", "medico"})
 	List<Escala> findByDataAndPlantaoOrderByMedicoDataAssociacaoAscItensHoraAsc(LocalDate data, boolean plantao);
 	
-	@EntityGraph(attributePaths = {"itens.estabelecimento", "medico"})
+	@EntityGraph(attributePaths = {"itens", "medico"})
 	Escala findByMedico_IdAndDataAndPlantao(Integer medicoId, LocalDate data, boolean plantao);
 	
 	@Query(value = """
@@ -108,6 +113,23 @@ public interface EscalaRepository extends JpaRepository<Escala, Integer> {
 		       " AND i.hora >= CAST('07:00:00' AS LocalTime) " +
 		       " AND i.hora <= CAST('18:00:00' AS LocalTime)")
 	boolean existsPlantaoDiaSemana(LocalDate data);
+	
+	@Query("SELECT DISTINCT e.data FROM Escala e " +
+			   "JOIN e.itens i 	" +
+		       "WHERE e.data BETWEEN :inicio AND :fim " +
+		       " AND e.plantao = true " +
+		       " AND i.hora >= CAST('07:00:00' AS LocalTime) " +
+		       " AND i.hora <= CAST('18:00:00' AS LocalTime)")
+	List<LocalDate> findDiasPlantaoDiaSemana(LocalDate inicio, LocalDate fim);
+	
+	@Query("SELECT DISTINCT e.data FROM Escala e " +
+			   "JOIN e.itens i 	" +
+		       "WHERE e.data BETWEEN :inicio AND :fim " +
+		       " AND e.plantao = true " +
+		       " AND e.id NOT IN :ignorar " +
+		       " AND i.hora >= CAST('07:00:00' AS LocalTime) " +
+		       " AND i.hora <= CAST('18:00:00' AS LocalTime)")
+	List<LocalDate> findDiasPlantaoDiaSemanaIgnorando(LocalDate inicio, LocalDate fim, Collection<Integer> ignorar);
 
 	@Query("SELECT DISTINCT e.data FROM Escala e " +
 			"JOIN e.itens i " +
@@ -0,0 +1,221 @@
+package br.com.anestesiaflow.escala.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import br.com.anestesiaflow.exception.BusinessException;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Avisos de alteração da escala por SSE. A tela (sudoku, plantão) assina a data exibida e só
+ * consulta de novo quando recebe um aviso, em vez de ficar consultando em intervalos. Cada
+ * assinante tem uma fila limitada e uma virtual thread que envia os avisos e o heartbeat; os
+ * avisos são publicados depois do commit da gravação. O endereço é público, então além do total
+ * há um limite de conexões abertas por cliente (IP).
+ */
+@Component
+public class EscalaEventos {
+
+	private static final Logger log = LoggerFactory.getLogger(EscalaEventos.class);
+
+	public record Alteracao(LocalDate data, long versao) {}
+
+	private static final class Assinante {
+		private final LocalDate data;
+		private final String cliente;
+		private final SseEmitter emitter;
+		private final BlockingQueue<Alteracao> fila;
+		private final AtomicBoolean ativo = new AtomicBoolean(true);
+		private volatile Future<?> envio;
+
+		private Assinante(LocalDate data, String cliente, SseEmitter emitter, int tamanhoFila) {
+			this.data = data;
+			this.cliente = cliente;
+			this.emitter = emitter;
+			this.fila = new ArrayBlockingQueue<>(tamanhoFila);
+		}
+	}
+
+	private final EscalaVersoes versoes;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final ConcurrentHashMap<LocalDate, Set<Assinante>> porData = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, Integer> porCliente = new ConcurrentHashMap<>();
+	private final AtomicInteger assinantes = new AtomicInteger();
+	private final int maximoAssinantes;
+	private final int maximoPorCliente;
+	private final int tamanhoFila;
+	private final long heartbeatSegundos;
+	private final long timeoutMillis;
+
+	public EscalaEventos(EscalaVersoes versoes,
+			@Value("${app.escala.eventos.maximo-assinantes:500}") int maximoAssinantes,
+			@Value("${app.escala.eventos.maximo-por-cliente:10}") int maximoPorCliente,
+			@Value("${app.escala.eventos.fila:8}") int tamanhoFila,
+			@Value("${app.escala.eventos.heartbeat-segundos:25}") long heartbeatSegundos,
+			@Value("${app.escala.eventos.timeout-minutos:30}") long timeoutMinutos) {
+		this.versoes = versoes;
+		this.maximoAssinantes = maximoAssinantes;
+		this.maximoPorCliente = maximoPorCliente;
+		this.tamanhoFila = Math.max(1, tamanhoFila);
+		this.heartbeatSegundos = heartbeatSegundos;
+		this.timeoutMillis = Duration.ofMinutes(timeoutMinutos).toMillis();
+	}
+
+	@PreDestroy
+	public void destroy() {
+		executor.shutdownNow();
+		porData.values().forEach(doDia -> doDia.forEach(assinante -> assinante.emitter.complete()));
+		porData.clear();
+	}
+
+	/**
+	 * Abre a conexão SSE da data para o cliente (IP de origem). O navegador reconecta sozinho
+	 * (EventSource) quando ela expira.
+	 */
+	public SseEmitter assinar(LocalDate data, String cliente) {
+		if (porCliente.merge(cliente, 1, Integer::sum) > maximoPorCliente) {
+			liberarCliente(cliente);
+			throw new BusinessException("Muitas conexões abertas por este endereço, feche outras telas da escala.");
+		}
+		if (assinantes.incrementAndGet() > maximoAssinantes) {
+			assinantes.decrementAndGet();
+			liberarCliente(cliente);
+			throw new BusinessException("Muitas conexões abertas no momento, tente novamente em instantes.");
+		}
+
+		Assinante assinante = new Assinante(data, cliente, new SseEmitter(timeoutMillis), tamanhoFila);
+		porData.compute(data, (dia, doDia) -> {
+			Set<Assinante> assinantesDia = doDia != null ? doDia : ConcurrentHashMap.newKeySet();
+			assinantesDia.add(assinante);
+			return assinantesDia;
+		});
+		assinante.emitter.onCompletion(() -> encerrar(assinante));
+		assinante.emitter.onTimeout(() -> {
+			encerrar(assinante);
+			assinante.emitter.complete();
+		});
+		assinante.emitter.onError(erro -> encerrar(assinante));
+		try {
+			assinante.envio = executor.submit(() -> enviar(assinante));
+		} catch (RuntimeException e) {
+			encerrar(assinante);
+			throw e;
+		}
+		return assinante.emitter;
+	}
+
+	/**
+	 * Avisa os assinantes das datas depois do commit da transação atual (ou na hora, sem transação).
+	 */
+	public void publicar(LocalDate data) {
+		publicar(data == null ? Set.of() : Set.of(data));
+	}
+
+	public void publicar(Collection<LocalDate> datas) {
+		Set<LocalDate> dias = datas.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+		if (!dias.isEmpty()) {
+			executarAposCommit(() -> dias.forEach(this::notificar));
+		}
+	}
+
+	/**
+	 * Médicos ou estabelecimentos mudaram: todas as datas assinadas são avisadas.
+	 */
+	public void publicarTodas() {
+		executarAposCommit(() -> porData.keySet().forEach(this::notificar));
+	}
+
+	private void notificar(LocalDate data) {
+		Set<Assinante> doDia = porData.get(data);
+		if (doDia == null) {
+			return;
+		}
+		Alteracao alteracao = new Alteracao(data, versoes.versao(data, data));
+		for (Assinante assinante : doDia) {
+			// Fila cheia (cliente lento): descarta o aviso mais antigo, o novo já cobre a alteração
+			while (!assinante.fila.offer(alteracao)) {
+				assinante.fila.poll();
+			}
+		}
+	}
+
+	private void enviar(Assinante assinante) {
+		try {
+			assinante.emitter.send(SseEmitter.event().comment("conectado"));
+			while (assinante.ativo.get()) {
+				Alteracao alteracao = assinante.fila.poll(heartbeatSegundos, TimeUnit.SECONDS);
+				if (alteracao == null) {
+					assinante.emitter.send(SseEmitter.event().comment("heartbeat"));
+				} else {
+					assinante.emitter.send(SseEmitter.event()
+							.name("alteracao")
+							.data(alteracao, MediaType.APPLICATION_JSON));
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException | IllegalStateException e) {
+			// Cliente desconectou
+			log.debug("Assinante da escala de {} desconectado: {}", assinante.data, e.getMessage());
+		} finally {
+			if (encerrar(assinante)) {
+				assinante.emitter.complete();
+			}
+		}
+	}
+
+	private boolean encerrar(Assinante assinante) {
+		if (!assinante.ativo.compareAndSet(true, false)) {
+			return false;
+		}
+		assinantes.decrementAndGet();
+		liberarCliente(assinante.cliente);
+		porData.computeIfPresent(assinante.data, (dia, doDia) -> {
+			doDia.remove(assinante);
+			return doDia.isEmpty() ? null : doDia;
+		});
+		Future<?> envio = assinante.envio;
+		if (envio != null) {
+			envio.cancel(true);
+		}
+		return true;
+	}
+
+	private void liberarCliente(String cliente) {
+		porCliente.computeIfPresent(cliente, (chave, abertas) -> abertas > 1 ? abertas - 1 : null);
+	}
+
+	private void executarAposCommit(Runnable acao) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					acao.run();
+				}
+			});
+		} else {
+			acao.run();
+		}
+	}
+}
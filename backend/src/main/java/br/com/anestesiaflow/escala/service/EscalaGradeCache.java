@@ -0,0 +1,109 @@
+package br.com.anestesiaflow.escala.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import br.com.anestesiaflow.escala.dto.EscalaResponseDTO;
+import br.com.anestesiaflow.framework.utils.CacheExpiravel;
+
+/**
+ * Cache da grade do dia (sudoku e listagem da escala), por data e filtro de plantão.
+ * Toda gravação que mexe em escalas deve invalidar as datas afetadas; alterações de médico
+ * ou estabelecimento limpam tudo, pois aparecem em todas as grades. As mesmas chamadas avançam
+ * as {@link EscalaVersoes} usadas nos ETags das telas públicas.
+ */
+@Component
+public class EscalaGradeCache {
+
+	private record ChaveGrade(LocalDate data, Boolean plantao, boolean mesclarPlantao) {}
+
+	private final CacheExpiravel<ChaveGrade, List<EscalaResponseDTO>> grades;
+	private final EscalaVersoes versoes;
+
+	public EscalaGradeCache(@Value("${api.escala.grade-cache.maximo:120}") int maximo,
+			@Value("${api.escala.grade-cache.ttl-segundos:300}") long ttlSegundos, EscalaVersoes versoes) {
+		this.grades = new CacheExpiravel<>(maximo, Duration.ofSeconds(ttlSegundos));
+		this.versoes = versoes;
+	}
+
+	/**
+	 * A grade em cache ou montada na hora. Uma grade montada enquanto a data era alterada (a versão
+	 * mudou durante a consulta) não vai para o cache: ela pode ter lido as linhas antigas.
+	 */
+	public List<EscalaResponseDTO> buscar(LocalDate data, Boolean plantao, boolean mesclarPlantao,
+			Supplier<List<EscalaResponseDTO>> montar) {
+		ChaveGrade chave = new ChaveGrade(data, plantao, mesclarPlantao);
+		List<EscalaResponseDTO> grade = grades.get(chave);
+		if (grade != null) {
+			return grade;
+		}
+		long versao = versoes.versao(data, data);
+		List<EscalaResponseDTO> montada = montar.get();
+		if (montada != null && versoes.versao(data, data) == versao) {
+			grades.put(chave, montada);
+			// Uma invalidação entre a conferência e o put não vê a grade; ela sai aqui
+			if (versoes.versao(data, data) != versao) {
+				grades.removerSe((outra, gravada) -> outra.equals(chave) && gravada == montada);
+			}
+		}
+		return montada;
+	}
+
+	public void invalidar(LocalDate data) {
+		invalidar(Set.of(data));
+	}
+
+	public void invalidar(Collection<LocalDate> datas) {
+		if (datas.isEmpty()) {
+			return;
+		}
+		Set<LocalDate> copia = Set.copyOf(datas);
+		remover(copia);
+		// Depois do commit a versão avança de novo: uma leitura que começou antes dele não grava
+		// a grade antiga no cache (ver buscar)
+		executarAposCommit(() -> remover(copia));
+	}
+
+	public void limpar() {
+		limparTudo();
+		executarAposCommit(this::limparTudo);
+	}
+
+	public Map<String, Object> estatisticas() {
+		return Map.of(
+				"acertos", grades.acertos(),
+				"falhas", grades.falhas(),
+				"entradas", grades.tamanho());
+	}
+
+	// A versão avança antes de remover: um put feito no meio é removido aqui ou pela conferência
+	// que buscar faz depois do put
+	private void remover(Set<LocalDate> datas) {
+		versoes.avancar(datas);
+		grades.removerSe((chave, grade) -> datas.contains(chave.data()));
+	}
+
+	private void limparTudo() {
+		versoes.avancarTodas();
+		grades.limpar();
+	}
+
+	private void executarAposCommit(Runnable acao) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					acao.run();
+				}
+			});
+		}
+	}
+}
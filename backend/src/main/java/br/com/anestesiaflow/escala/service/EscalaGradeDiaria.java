@@ -0,0 +1,122 @@
+package br.com.anestesiaflow.escala.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+import br.com.anestesiaflow.escala.dto.EscalaItemResponseDTO;
+import br.com.anestesiaflow.escala.dto.EscalaResponseDTO;
+import br.com.anestesiaflow.escala.entidade.Escala;
+import br.com.anestesiaflow.escala.entidade.EscalaItem;
+import br.com.anestesiaflow.estabelecimento.dto.EstabelecimentoResponseDTO;
+import br.com.anestesiaflow.estabelecimento.service.EstabelecimentoCatalogo;
+import br.com.anestesiaflow.medico.dto.MedicoResponseDTO;
+
+/**
+ * Monta a grade do dia (uma linha por médico) a partir das escalas do dia. As escalas são
+ * indexadas por médico e plantão uma única vez, evitando varrer a lista inteira para cada médico.
+ */
+@Component
+public class EscalaGradeDiaria {
+
+	private static final int NORMAL = 0;
+	private static final int PLANTAO = 1;
+	private static final LocalTime INICIO_DIA = LocalTime.of(7, 0);
+	private static final LocalTime FIM_DIA = LocalTime.of(19, 0);
+
+	private final EstabelecimentoCatalogo estabelecimentoCatalogo;
+
+	public EscalaGradeDiaria(EstabelecimentoCatalogo estabelecimentoCatalogo) {
+		this.estabelecimentoCatalogo = estabelecimentoCatalogo;
+	}
+
+	/**
+	 * @param mesclarPlantao quando true, os itens diurnos do plantão são somados aos da escala normal
+	 *                       (visão do sudoku); quando false, retorna apenas uma das escalas do médico,
+	 *                       dando preferência à escala normal.
+	 */
+	public List<EscalaResponseDTO> montar(LocalDate data, List<Escala> escalas, List<MedicoResponseDTO> medicos,
+			boolean mesclarPlantao) {
+		Map<Integer, Escala[]> porMedico = new HashMap<>(escalas.size() * 2);
+		for (Escala escala : escalas) {
+			Escala[] doMedico = porMedico.computeIfAbsent(escala.getMedico().getId(), id -> new Escala[2]);
+			int posicao = escala.isPlantao() ? PLANTAO : NORMAL;
+			if (doMedico[posicao] == null) {
+				doMedico[posicao] = escala;
+			}
+		}
+
+		List<EscalaResponseDTO> grade = new ArrayList<>(medicos.size());
+		for (MedicoResponseDTO medico : medicos) {
+			Escala[] doMedico = porMedico.get(medico.id());
+			Escala normal = doMedico != null ? doMedico[NORMAL] : null;
+			Escala plantao = doMedico != null ? doMedico[PLANTAO] : null;
+
+			if (normal != null && plantao != null && mesclarPlantao) {
+				grade.add(mapperToDtoMerge(normal, plantao));
+			} else if (normal != null) {
+				grade.add(mapperToDto(normal));
+			} else if (plantao != null) {
+				grade.add(mapperToDto(plantao));
+			} else {
+				grade.add(new EscalaResponseDTO(
+						null,
+						medico.id(),
+						medico.sigla(),
+						data,
+						false,
+						new ArrayList<>()));
+			}
+		}
+		return grade;
+	}
+
+	private EscalaResponseDTO mapperToDto(Escala escala) {
+		return new EscalaResponseDTO(
+					escala.getId(),
+					escala.getMedico().getId(),
+					escala.getMedico().getSigla(),
+					escala.getData(),
+					escala.isPlantao(),
+					escala.getItens().stream()
+						.filter(item -> !item.isReagendado())
+						.map(this::mapperToDto).toList());
+	}
+
+	private EscalaResponseDTO mapperToDtoMerge(Escala escala, Escala escalaPlantao) {
+		List<EscalaItem> itensMerge = new ArrayList<>();
+		escala.getItens().stream()
+				.filter(item -> !item.isReagendado())
+				.forEach(itensMerge::add);
+		escalaPlantao.getItens().stream()
+			.filter(item -> !item.isReagendado()
+					&& !item.getHora().isBefore(INICIO_DIA)
+					&& !item.getHora().isAfter(FIM_DIA))
+			.forEach(itensMerge::add);
+		return new EscalaResponseDTO(
+					escala.getId(),
+					escala.getMedico().getId(),
+					escala.getMedico().getSigla(),
+					escala.getData(),
+					escala.isPlantao(),
+					itensMerge.stream().map(this::mapperToDto).toList());
+	}
+
+	private EscalaItemResponseDTO mapperToDto(EscalaItem escalaItem) {
+		EstabelecimentoResponseDTO estabelecimento = estabelecimentoCatalogo.obter(escalaItem.getEstabelecimento().getId());
+		return new EscalaItemResponseDTO(
+				escalaItem.getId(),
+				estabelecimento.id(),
+				estabelecimento.sigla(),
+				escalaItem.getHora(),
+				estabelecimento.cor(),
+				estabelecimentoCatalogo.urlIcone(estabelecimento.id()),
+				escalaItem.getArquivado(),
+				escalaItem.isReagendado(),
+				escalaItem.getEscala().isPlantao()
+			);
+	}
+}
@@ -0,0 +1,30 @@
+package br.com.anestesiaflow.escala.service;
+
+import java.time.LocalDate;
+import br.com.anestesiaflow.escala.entidade.Escala;
+import br.com.anestesiaflow.estabelecimento.model.Estabelecimento;
+import br.com.anestesiaflow.medico.model.Medico;
+
+/**
+ * Abstrai as leituras e gravações usadas pelo salvar da escala, permitindo que a mesma
+ * regra rode direto no repositório (sudoku/simetria) ou em lote (edição de várias semanas).
+ */
+interface EscalaGravacao {
+
+	Escala buscarPorId(Integer id);
+
+	Escala buscarPorMedicoData(int medicoId, LocalDate data, boolean plantao);
+
+	boolean existePlantaoDiaSemana(LocalDate data);
+
+	Estabelecimento buscarEstabelecimento(Integer id);
+
+	Medico buscarMedico(int id);
+
+	Escala gravar(Escala escala);
+
+	void excluir(Escala escala);
+
+	default void concluir() {
+	}
+}
@@ -0,0 +1,63 @@
+package br.com.anestesiaflow.escala.service;
+
+import java.time.LocalDate;
+import br.com.anestesiaflow.escala.entidade.Escala;
+import br.com.anestesiaflow.escala.repository.EscalaRepository;
+import br.com.anestesiaflow.estabelecimento.model.Estabelecimento;
+import br.com.anestesiaflow.estabelecimento.service.EstabelecimentoCatalogo;
+import br.com.anestesiaflow.medico.model.Medico;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Gravação item a item, cada operação vai direto ao repositório.
+ */
+class EscalaGravacaoDireta implements EscalaGravacao {
+
+	private final EscalaRepository escalaRepository;
+	private final EstabelecimentoCatalogo estabelecimentoCatalogo;
+	private final EntityManager entityManager;
+
+	EscalaGravacaoDireta(EscalaRepository escalaRepository, EstabelecimentoCatalogo estabelecimentoCatalogo,
+			EntityManager entityManager) {
+		this.escalaRepository = escalaRepository;
+		this.estabelecimentoCatalogo = estabelecimentoCatalogo;
+		this.entityManager = entityManager;
+	}
+
+	@Override
+	public Escala buscarPorId(Integer id) {
+		return escalaRepository.findById(id).orElse(null);
+	}
+
+	@Override
+	public Escala buscarPorMedicoData(int medicoId, LocalDate data, boolean plantao) {
+		return escalaRepository.findByMedico_IdAndDataAndPlantao(medicoId, data, plantao);
+	}
+
+	@Override
+	public boolean existePlantaoDiaSemana(LocalDate data) {
+		return escalaRepository.existsPlantaoDiaSemana(data);
+	}
+
+	@Override
+	public Estabelecimento buscarEstabelecimento(Integer id) {
+		return estabelecimentoCatalogo.buscar(id)
+				.map(est -> entityManager.getReference(Estabelecimento.class, est.id()))
+				.orElse(null);
+	}
+
+	@Override
+	public Medico buscarMedico(int id) {
+		return entityManager.getReference(Medico.class, id);
+	}
+
+	@Override
+	public Escala gravar(Escala escala) {
+		return escalaRepository.save(escala);
+	}
+
+	@Override
+	public void excluir(Escala escala) {
+		escalaRepository.delete(escala);
+	}
+}
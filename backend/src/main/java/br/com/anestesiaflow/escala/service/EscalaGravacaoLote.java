@@ -0,0 +1,190 @@
+package br.com.anestesiaflow.escala.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import br.com.anestesiaflow.escala.dto.EscalaResponseDTO;
+import br.com.anestesiaflow.escala.entidade.Escala;
+import br.com.anestesiaflow.escala.entidade.EscalaItem;
+import br.com.anestesiaflow.escala.repository.EscalaLoteRepository;
+import br.com.anestesiaflow.escala.repository.EscalaRepository;
+import br.com.anestesiaflow.estabelecimento.model.Estabelecimento;
+import br.com.anestesiaflow.estabelecimento.service.EstabelecimentoCatalogo;
+import br.com.anestesiaflow.medico.model.Medico;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Gravação em lote: carrega de uma vez as escalas do(s) médico(s) no período e os dias com plantão
+ * diurno das demais escalas, aplica as regras em memória e grava tudo em {@link #concluir()} com JDBC batch. Os
+ * estabelecimentos são conferidos no {@link EstabelecimentoCatalogo}.
+ */
+class EscalaGravacaoLote implements EscalaGravacao {
+
+	// Mesmos limites de EscalaRepository.findDiasPlantaoDiaSemana
+	private static final LocalTime INICIO_DIURNO = LocalTime.of(7, 0);
+	private static final LocalTime FIM_DIURNO = LocalTime.of(18, 0);
+
+	private final EscalaLoteRepository escalaLoteRepository;
+	private final EstabelecimentoCatalogo estabelecimentoCatalogo;
+	private final EntityManager entityManager;
+	private final Set<Escala> escalas = new LinkedHashSet<>();
+	private final Map<Escala, Set<Integer>> itensOriginais = new IdentityHashMap<>();
+	private final Set<Escala> alteradas = new LinkedHashSet<>();
+	private final Set<Integer> excluidas = new LinkedHashSet<>();
+	private final Set<LocalDate> diasPlantaoOutrasEscalas = new HashSet<>();
+	private final Map<Integer, Estabelecimento> estabelecimentos = new HashMap<>();
+	private final Map<Integer, Medico> medicos = new HashMap<>();
+
+	EscalaGravacaoLote(EscalaRepository escalaRepository, EstabelecimentoCatalogo estabelecimentoCatalogo,
+			EscalaLoteRepository escalaLoteRepository, EntityManager entityManager, List<EscalaResponseDTO> dtos) {
+		this.escalaLoteRepository = escalaLoteRepository;
+		this.estabelecimentoCatalogo = estabelecimentoCatalogo;
+		this.entityManager = entityManager;
+
+		if (dtos.isEmpty()) {
+			return;
+		}
+
+		Set<Integer> medicoIds = dtos.stream().map(EscalaResponseDTO::medicoId).collect(Collectors.toSet());
+		LocalDate inicio = dtos.stream().map(EscalaResponseDTO::data).min(Comparator.naturalOrder()).get();
+		LocalDate fim = dtos.stream().map(EscalaResponseDTO::data).max(Comparator.naturalOrder()).get();
+
+		escalas.addAll(escalaRepository.findByMedico_IdInAndDataBetween(medicoIds, inicio, fim));
+
+		Set<Integer> carregadas = escalas.stream().map(Escala::getId).collect(Collectors.toSet());
+		Set<Integer> faltantes = dtos.stream()
+				.map(EscalaResponseDTO::id)
+				.filter(id -> id != null && !carregadas.contains(id))
+				.collect(Collectors.toSet());
+		if (!faltantes.isEmpty()) {
+			escalas.addAll(escalaRepository.findByIdIn(faltantes));
+		}
+
+		// O plantão das escalas carregadas é conferido em memória, já com as alterações do lote
+		Set<Integer> ids = escalas.stream().map(Escala::getId).collect(Collectors.toSet());
+		diasPlantaoOutrasEscalas.addAll(ids.isEmpty()
+				? escalaRepository.findDiasPlantaoDiaSemana(inicio, fim)
+				: escalaRepository.findDiasPlantaoDiaSemanaIgnorando(inicio, fim, ids));
+
+		for (Escala escala : escalas) {
+			medicos.putIfAbsent(escala.getMedico().getId(), escala.getMedico());
+			escala.getItens().forEach(item ->
+				estabelecimentos.putIfAbsent(item.getEstabelecimento().getId(), item.getEstabelecimento()));
+			itensOriginais.put(escala, escala.getItens().stream()
+					.map(EscalaItem::getId)
+					.collect(Collectors.toSet()));
+			// As alterações são gravadas via JDBC, o Hibernate não pode fazer o flush delas no commit
+			entityManager.detach(escala);
+		}
+
+		medicoIds.stream()
+				.filter(id -> !medicos.containsKey(id))
+				.forEach(id -> medicos.put(id, entityManager.find(Medico.class, id)));
+	}
+
+	@Override
+	public Escala buscarPorId(Integer id) {
+		return escalas.stream()
+				.filter(escala -> id.equals(escala.getId()))
+				.findFirst()
+				.orElse(null);
+	}
+
+	@Override
+	public Escala buscarPorMedicoData(int medicoId, LocalDate data, boolean plantao) {
+		return escalas.stream()
+				.filter(escala -> escala.getMedico().getId() == medicoId
+						&& escala.getData().equals(data)
+						&& escala.isPlantao() == plantao)
+				.findFirst()
+				.orElse(null);
+	}
+
+	@Override
+	public boolean existePlantaoDiaSemana(LocalDate data) {
+		return diasPlantaoOutrasEscalas.contains(data)
+				|| escalas.stream().anyMatch(escala -> escala.getData().equals(data) && plantaoDiurno(escala));
+	}
+
+	private static boolean plantaoDiurno(Escala escala) {
+		return escala.isPlantao() && escala.getItens().stream().anyMatch(item ->
+				!item.getHora().isBefore(INICIO_DIURNO) && !item.getHora().isAfter(FIM_DIURNO));
+	}
+
+	@Override
+	public Estabelecimento buscarEstabelecimento(Integer id) {
+		if (estabelecimentoCatalogo.buscar(id).isEmpty()) {
+			return null;
+		}
+		return estabelecimentos.computeIfAbsent(id, chave -> entityManager.getReference(Estabelecimento.class, chave));
+	}
+
+	@Override
+	public Medico buscarMedico(int id) {
+		return medicos.get(id);
+	}
+
+	@Override
+	public Escala gravar(Escala escala) {
+		escalas.add(escala);
+		alteradas.add(escala);
+		return escala;
+	}
+
+	@Override
+	public void excluir(Escala escala) {
+		escalas.remove(escala);
+		alteradas.remove(escala);
+		if (escala.getId() != null) {
+			excluidas.add(escala.getId());
+		}
+	}
+
+	@Override
+	public void concluir() {
+		List<Escala> novas = new ArrayList<>();
+		List<Escala> existentes = new ArrayList<>();
+		for (Escala escala : alteradas) {
+			if (escala.getId() == null) {
+				novas.add(escala);
+			} else {
+				existentes.add(escala);
+			}
+		}
+
+		List<EscalaItem> itensNovos = new ArrayList<>();
+		List<EscalaItem> itensAlterados = new ArrayList<>();
+		Set<Integer> itensExcluidos = new HashSet<>();
+		for (Escala escala : alteradas) {
+			Set<Integer> originais = new HashSet<>(itensOriginais.getOrDefault(escala, Set.of()));
+			for (EscalaItem item : escala.getItens()) {
+				if (item.getId() == null) {
+					itensNovos.add(item);
+				} else {
+					itensAlterados.add(item);
+					originais.remove(item.getId());
+				}
+			}
+			originais.stream().filter(Objects::nonNull).forEach(itensExcluidos::add);
+		}
+
+		// Exclusões primeiro: uma escala esvaziada pode ser recriada no mesmo lote com o mesmo
+		// (medico, data, plantao), e o índice único não aceita as duas ao mesmo tempo
+		escalaLoteRepository.excluirItens(itensExcluidos);
+		escalaLoteRepository.excluirEscalas(excluidas);
+		escalaLoteRepository.inserirEscalas(novas);
+		escalaLoteRepository.atualizarEscalas(existentes);
+		escalaLoteRepository.inserirItens(itensNovos);
+		escalaLoteRepository.atualizarItens(itensAlterados);
+	}
+}
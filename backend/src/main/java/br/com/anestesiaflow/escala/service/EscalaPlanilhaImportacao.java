@@ -0,0 +1,368 @@
+package br.com.anestesiaflow.escala.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.xml.parsers.ParserConfigurationException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import br.com.anestesiaflow.escala.entidade.Escala;
+import br.com.anestesiaflow.escala.entidade.EscalaItem;
+import br.com.anestesiaflow.escala.repository.EscalaLoteRepository;
+import br.com.anestesiaflow.escala.repository.EscalaLoteRepository.EscalaChave;
+import br.com.anestesiaflow.escala.repository.EscalaLoteRepository.EscalaItemChave;
+import br.com.anestesiaflow.estabelecimento.dto.EstabelecimentoResponseDTO;
+import br.com.anestesiaflow.estabelecimento.model.Estabelecimento;
+import br.com.anestesiaflow.estabelecimento.service.EstabelecimentoCatalogo;
+import br.com.anestesiaflow.medico.model.Medico;
+import br.com.anestesiaflow.medico.repository.MedicoRepository;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Importação da planilha de escala lendo o XLSX em streaming (SAX), uma linha por vez.
+ *
+ * Layout esperado em cada aba (uma semana por aba):
+ * <ul>
+ * <li>linha 3: as datas dos dias, a partir da coluna C (segunda-feira);</li>
+ * <li>demais linhas: coluna A com a hora (vazia repete a hora anterior), coluna B com a sigla do
+ * estabelecimento e, nas colunas de cada dia, a(s) sigla(s) do(s) médico(s) separadas por "/", ",",
+ * ";" ou espaço.</li>
+ * </ul>
+ * Os itens de final de semana, fora do horário 07h-19h ou em estabelecimento de plantão vão para a
+ * escala de plantão do médico. Itens já existentes (mesma escala, estabelecimento e hora) são
+ * ignorados, então reimportar a mesma planilha não duplica nada. As gravações são feitas em JDBC
+ * batch ao final de cada aba.
+ */
+@Component
+class EscalaPlanilhaImportacao {
+
+	private static final int LINHA_DATAS = 2;
+	private static final int COLUNA_HORA = 0;
+	private static final int COLUNA_ESTABELECIMENTO = 1;
+	private static final int PRIMEIRA_COLUNA_DIA = 2;
+	private static final Pattern SEPARADOR_SIGLAS = Pattern.compile("[/,;\\s]+");
+	private static final Pattern HORA = Pattern.compile("(\\d{1,2})\\s*[:hH]\\s*(\\d{2})?.*");
+	private static final Pattern DATA_BR = Pattern.compile(".*?(\\d{1,2}/\\d{1,2}/\\d{4}).*");
+	private static final DateTimeFormatter FORMATO_DATA_BR = DateTimeFormatter.ofPattern("d/M/yyyy");
+
+	private final EscalaLoteRepository escalaLoteRepository;
+	private final MedicoRepository medicoRepository;
+	private final EstabelecimentoCatalogo estabelecimentoCatalogo;
+	private final EntityManager entityManager;
+
+	EscalaPlanilhaImportacao(EscalaLoteRepository escalaLoteRepository, MedicoRepository medicoRepository,
+			EstabelecimentoCatalogo estabelecimentoCatalogo, EntityManager entityManager) {
+		this.escalaLoteRepository = escalaLoteRepository;
+		this.medicoRepository = medicoRepository;
+		this.estabelecimentoCatalogo = estabelecimentoCatalogo;
+		this.entityManager = entityManager;
+	}
+
+	/**
+	 * Importa o arquivo e devolve os logs por linha. As datas gravadas são acumuladas em
+	 * {@code datasImportadas}.
+	 */
+	List<String> importar(Path arquivo, Set<LocalDate> datasImportadas) throws IOException {
+		List<String> logs = new ArrayList<>();
+		Map<String, Integer> medicos = new HashMap<>();
+		medicoRepository.filtrarMedicos(null, true, null)
+				.forEach(medico -> medicos.putIfAbsent(normalizar(medico.getSigla()), medico.getId()));
+		Map<String, EstabelecimentoResponseDTO> estabelecimentos = new HashMap<>();
+		estabelecimentoCatalogo.ativos(null)
+				.forEach(est -> estabelecimentos.putIfAbsent(normalizar(est.sigla()), est));
+
+		OPCPackage pacote = null;
+		try {
+			pacote = OPCPackage.open(arquivo.toFile(), PackageAccess.READ);
+			XSSFReader reader = new XSSFReader(pacote);
+			ReadOnlySharedStringsTable textos = new ReadOnlySharedStringsTable(pacote);
+			StylesTable estilos = reader.getStylesTable();
+			DataFormatter formatador = new FormatadorIso();
+
+			XSSFReader.SheetIterator abas = (XSSFReader.SheetIterator) reader.getSheetsData();
+			while (abas.hasNext()) {
+				try (InputStream conteudo = abas.next()) {
+					LeitorAba leitor = new LeitorAba(abas.getSheetName(), medicos, estabelecimentos, logs);
+					XMLReader parser = XMLHelper.newXMLReader();
+					parser.setContentHandler(new XSSFSheetXMLHandler(estilos, null, textos, leitor, formatador, false));
+					parser.parse(new InputSource(conteudo));
+					datasImportadas.addAll(leitor.gravar());
+				}
+			}
+		} catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+			throw new IOException("Planilha inválida: " + e.getMessage(), e);
+		} finally {
+			if (pacote != null) {
+				// Aberto só para leitura: revert fecha sem tentar salvar o pacote
+				pacote.revert();
+			}
+		}
+		return logs;
+	}
+
+	private static String normalizar(String sigla) {
+		return sigla == null ? "" : sigla.trim().toUpperCase();
+	}
+
+	/**
+	 * Lê uma aba, linha a linha, acumulando só as escalas daquela semana até o {@link #gravar()}.
+	 */
+	private class LeitorAba implements SheetContentsHandler {
+
+		private final String aba;
+		private final Map<String, Integer> medicos;
+		private final Map<String, EstabelecimentoResponseDTO> estabelecimentos;
+		private final List<String> logs;
+		private final Map<Integer, LocalDate> datasPorColuna = new HashMap<>();
+		private final Map<EscalaChave, Escala> pendentes = new LinkedHashMap<>();
+		private final Map<Integer, String> celulas = new TreeMap<>();
+		private LocalTime ultimaHora;
+		private int linhaAtual;
+		private int colunaAtual;
+
+		LeitorAba(String aba, Map<String, Integer> medicos, Map<String, EstabelecimentoResponseDTO> estabelecimentos,
+				List<String> logs) {
+			this.aba = aba;
+			this.medicos = medicos;
+			this.estabelecimentos = estabelecimentos;
+			this.logs = logs;
+		}
+
+		@Override
+		public void startRow(int linha) {
+			linhaAtual = linha;
+			colunaAtual = -1;
+			celulas.clear();
+		}
+
+		@Override
+		public void cell(String referencia, String valor, XSSFComment comentario) {
+			colunaAtual = referencia != null ? new CellReference(referencia).getCol() : colunaAtual + 1;
+			if (valor != null && !valor.isBlank()) {
+				celulas.put(colunaAtual, valor.trim());
+			}
+		}
+
+		@Override
+		public void endRow(int linha) {
+			if (linha == LINHA_DATAS) {
+				lerDatas();
+			} else if (linha > LINHA_DATAS && !celulas.isEmpty()) {
+				lerLinha();
+			}
+		}
+
+		private void lerDatas() {
+			celulas.forEach((coluna, valor) -> {
+				if (coluna >= PRIMEIRA_COLUNA_DIA) {
+					LocalDate data = converterData(valor);
+					if (data != null) {
+						datasPorColuna.put(coluna, data);
+					} else {
+						log("coluna " + CellReference.convertNumToColString(coluna) + " sem data válida (" + valor + ")");
+					}
+				}
+			});
+		}
+
+		private void lerLinha() {
+			String valorHora = celulas.get(COLUNA_HORA);
+			if (valorHora != null) {
+				ultimaHora = converterHora(valorHora);
+				if (ultimaHora == null) {
+					log("hora inválida (" + valorHora + ")");
+					return;
+				}
+			}
+			if (ultimaHora == null) {
+				log("linha sem hora");
+				return;
+			}
+
+			String siglaEstabelecimento = celulas.get(COLUNA_ESTABELECIMENTO);
+			if (siglaEstabelecimento == null) {
+				log("linha sem estabelecimento");
+				return;
+			}
+			EstabelecimentoResponseDTO estabelecimento = estabelecimentos.get(normalizar(siglaEstabelecimento));
+			if (estabelecimento == null) {
+				log("estabelecimento " + siglaEstabelecimento + " não encontrado");
+				return;
+			}
+
+			int lidos = 0;
+			for (Map.Entry<Integer, String> celula : celulas.entrySet()) {
+				if (celula.getKey() < PRIMEIRA_COLUNA_DIA) {
+					continue;
+				}
+				LocalDate data = datasPorColuna.get(celula.getKey());
+				if (data == null) {
+					log("coluna " + CellReference.convertNumToColString(celula.getKey()) + " sem data, ignorada");
+					continue;
+				}
+				for (String sigla : SEPARADOR_SIGLAS.split(celula.getValue())) {
+					if (sigla.isBlank()) {
+						continue;
+					}
+					Integer medicoId = medicos.get(normalizar(sigla));
+					if (medicoId == null) {
+						log("médico " + sigla + " não encontrado (" + data + ")");
+						continue;
+					}
+					adicionar(medicoId, data, estabelecimento);
+					lidos++;
+				}
+			}
+			log(lidos + " item(ns) lido(s) - " + estabelecimento.sigla() + " " + ultimaHora);
+		}
+
+		private void adicionar(int medicoId, LocalDate data, EstabelecimentoResponseDTO estabelecimento) {
+			DayOfWeek dia = data.getDayOfWeek();
+			boolean plantao = dia == DayOfWeek.SATURDAY || dia == DayOfWeek.SUNDAY
+					|| ultimaHora.getHour() < 7 || ultimaHora.getHour() >= 19
+					|| estabelecimento.plantao();
+
+			Escala escala = pendentes.computeIfAbsent(new EscalaChave(medicoId, data, plantao), chave -> {
+				Escala nova = new Escala();
+				nova.setMedico(entityManager.getReference(Medico.class, medicoId));
+				nova.setData(data);
+				nova.setPlantao(plantao);
+				return nova;
+			});
+			boolean repetido = escala.getItens().stream().anyMatch(item ->
+					item.getEstabelecimento().getId() == estabelecimento.id()
+					&& item.getHora().equals(ultimaHora));
+			if (!repetido) {
+				EscalaItem item = new EscalaItem();
+				item.setEscala(escala);
+				item.setEstabelecimento(entityManager.getReference(Estabelecimento.class, estabelecimento.id()));
+				item.setHora(ultimaHora);
+				escala.getItens().add(item);
+			}
+		}
+
+		/**
+		 * Grava as escalas lidas na aba e devolve as datas alteradas.
+		 */
+		Set<LocalDate> gravar() {
+			Set<LocalDate> datas = new HashSet<>();
+			if (pendentes.isEmpty()) {
+				return datas;
+			}
+
+			LocalDate inicio = pendentes.keySet().stream().map(EscalaChave::data).min(LocalDate::compareTo).get();
+			LocalDate fim = pendentes.keySet().stream().map(EscalaChave::data).max(LocalDate::compareTo).get();
+			Map<EscalaChave, Integer> existentes = escalaLoteRepository.buscarIdsEscalas(inicio, fim);
+			Set<EscalaItemChave> itensExistentes = escalaLoteRepository.buscarChavesItens(inicio, fim);
+
+			List<Escala> novas = new ArrayList<>();
+			List<EscalaItem> itens = new ArrayList<>();
+			int ignorados = 0;
+			for (Map.Entry<EscalaChave, Escala> pendente : pendentes.entrySet()) {
+				Escala escala = pendente.getValue();
+				Integer id = existentes.get(pendente.getKey());
+				if (id == null) {
+					novas.add(escala);
+					itens.addAll(escala.getItens());
+				} else {
+					escala.setId(id);
+					for (EscalaItem item : escala.getItens()) {
+						if (itensExistentes.contains(new EscalaItemChave(id, item.getEstabelecimento().getId(), item.getHora()))) {
+							ignorados++;
+						} else {
+							itens.add(item);
+						}
+					}
+				}
+			}
+
+			escalaLoteRepository.inserirEscalas(novas);
+			escalaLoteRepository.inserirItens(itens);
+			itens.forEach(item -> datas.add(item.getEscala().getData()));
+
+			logs.add("Aba " + aba + ": " + novas.size() + " escala(s) nova(s), " + itens.size()
+					+ " item(ns) gravado(s), " + ignorados + " já existente(s)");
+			pendentes.clear();
+			return datas;
+		}
+
+		private void log(String mensagem) {
+			logs.add("Aba " + aba + ", linha " + (linhaAtual + 1) + ": " + mensagem);
+		}
+	}
+
+	private static LocalDate converterData(String valor) {
+		try {
+			return LocalDate.parse(valor);
+		} catch (DateTimeParseException e) {
+			Matcher matcher = DATA_BR.matcher(valor);
+			if (matcher.matches()) {
+				try {
+					return LocalDate.parse(matcher.group(1), FORMATO_DATA_BR);
+				} catch (DateTimeParseException ignorada) {
+					return null;
+				}
+			}
+			return null;
+		}
+	}
+
+	private static LocalTime converterHora(String valor) {
+		Matcher matcher = HORA.matcher(valor);
+		if (!matcher.matches()) {
+			return null;
+		}
+		int hora = Integer.parseInt(matcher.group(1));
+		int minuto = matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) : 0;
+		if (hora > 23 || minuto > 59) {
+			return null;
+		}
+		return LocalTime.of(hora, minuto);
+	}
+
+	/**
+	 * Formata células de data/hora em ISO (yyyy-MM-dd ou HH:mm), independente do formato usado na planilha.
+	 */
+	private static class FormatadorIso extends DataFormatter {
+
+		@Override
+		public String formatRawCellContents(double valor, int indiceFormato, String formato, boolean use1904Windowing) {
+			if (DateUtil.isADateFormat(indiceFormato, formato) && DateUtil.isValidExcelDate(valor)) {
+				LocalDateTime dataHora = DateUtil.getLocalDateTime(valor, use1904Windowing);
+				return valor < 1 ? dataHora.toLocalTime().toString() : dataHora.toLocalDate().toString();
+			}
+			return super.formatRawCellContents(valor, indiceFormato, formato, use1904Windowing);
+		}
+	}
+}
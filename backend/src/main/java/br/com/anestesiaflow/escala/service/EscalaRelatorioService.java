@@ -5,30 +5,27 @@ import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 import org.springframework.stereotype.Service;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import br.com.anestesiaflow.auth.config.util.ConfigManager;
 import br.com.anestesiaflow.configs.entidade.ConfigUI;
 import br.com.anestesiaflow.escala.dto.EscalaResumoAnualClinicaResponseDTO;
 import br.com.anestesiaflow.escala.dto.EscalaResumoAnualMedicoResponseDTO;
-import br.com.anestesiaflow.escala.dto.EscalaSimetriaDTO;
 import br.com.anestesiaflow.escala.dto.EscalaSimetriaEstResponseDTO;
-import br.com.anestesiaflow.escala.dto.EscalaSimetriaMedicoResponseDTO;
 import br.com.anestesiaflow.escala.repository.EscalaRelatorioRepository;
 
 @Service
 public class EscalaRelatorioService {
 
 	private final EscalaRelatorioRepository escalaRepository;
-	private final ObjectMapper objectMapper;
 	private final ConfigManager configManager;
+	private final EscalaResumoMensal resumoMensal;
+	private final EscalaSimetriaContadores simetria;
 	
-	public EscalaRelatorioService(EscalaRelatorioRepository escalaRepository, ObjectMapper objectMapper,
-				ConfigManager configManager) {
+	public EscalaRelatorioService(EscalaRelatorioRepository escalaRepository, ConfigManager configManager,
+				EscalaResumoMensal resumoMensal, EscalaSimetriaContadores simetria) {
 		this.escalaRepository = escalaRepository;
-		this.objectMapper = objectMapper;
 		this.configManager = configManager;
+		this.resumoMensal = resumoMensal;
+		this.simetria = simetria;
 	}
 	
 	public List<Integer> anosEscala(){
@@ -47,6 +44,10 @@ public class EscalaRelatorioService {
 		return escalaRepository.findResumoAnualByClinica(estId, ano);
 	}
 	
+	public int reconstruirResumoMensal() {
+		return resumoMensal.reconstruir();
+	}
+	
 	public List<EscalaSimetriaEstResponseDTO> resumoAssimetria(Map<String, Object> filtros){
 		String arquivado = (String) filtros.get("tipo");
 		LocalDate dataBase = configManager.getLocalDate(ConfigUI.DATA_CORTE_SIMETRIA);
@@ -55,23 +56,8 @@ public class EscalaRelatorioService {
 				dataBase = null;
 			}
 		}
-		return escalaRepository.buscarRelatorioAssimetria(arquivado, dataBase).stream()
-	            .map(this::convert)
-	            .toList();
-		
+		LocalDate hoje = LocalDate.now();
+		LocalDate dataInicio = dataBase != null ? dataBase : hoje.minusDays(90);
+		return simetria.relatorio(arquivado, dataInicio, hoje.plusDays(30));
 	}
-	
-	private EscalaSimetriaEstResponseDTO convert(EscalaSimetriaDTO raw) {
-        try {
-            List<EscalaSimetriaMedicoResponseDTO> medicos = objectMapper.readValue(
-                raw.getDadosMedicos(), 
-                new TypeReference<List<EscalaSimetriaMedicoResponseDTO>>() {}
-            );
-            return new EscalaSimetriaEstResponseDTO(raw.getEstId(), raw.getSigla(), raw.getCor(), 
-            		raw.getIcone(), raw.getDataInicio(), raw.getDataFim(), medicos);
-        } catch (JsonProcessingException e) {
-            return new EscalaSimetriaEstResponseDTO(raw.getEstId(), raw.getSigla(), raw.getCor(), 
-            		raw.getIcone(), raw.getDataInicio(), raw.getDataFim(), List.of());
-        }
-    }
 }
@@ -0,0 +1,113 @@
+package br.com.anestesiaflow.escala.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Mantém a tabela escalaresumomensal (itens por mês, médico, estabelecimento e plantão), usada
+ * pelos relatórios anuais. Cada gravação de escala registra as datas alteradas e os meses
+ * correspondentes são recalculados uma vez só, no fim da transação.
+ */
+@Component
+public class EscalaResumoMensal {
+
+	private static final String INSERT_RESUMO = """
+			INSERT INTO escalaresumomensal (ano, mes, medicoid, estabelecimentoid, plantao, total)
+			SELECT EXTRACT(YEAR FROM e.data), EXTRACT(MONTH FROM e.data), e.medicoid, ei.estabelecimentoid,
+			       e.plantao, COUNT(*)
+			FROM escala e
+			JOIN escalaitem ei ON ei.escalaid = e.id
+			""";
+
+	private static final String GROUP_BY_RESUMO = """
+			GROUP BY 1, 2, e.medicoid, ei.estabelecimentoid, e.plantao
+			""";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final EntityManager entityManager;
+	private final TransactionTemplate transactionTemplate;
+
+	public EscalaResumoMensal(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+			PlatformTransactionManager transactionManager) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.entityManager = entityManager;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	public void registrar(LocalDate data) {
+		registrar(data == null ? List.of() : List.of(data));
+	}
+
+	public void registrar(Collection<LocalDate> datas) {
+		SortedSet<YearMonth> meses = datas.stream()
+				.filter(Objects::nonNull)
+				.map(YearMonth::from)
+				.collect(Collectors.toCollection(TreeSet::new));
+		if (meses.isEmpty()) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			transactionTemplate.executeWithoutResult(status -> recalcular(meses));
+			return;
+		}
+
+		@SuppressWarnings("unchecked")
+		SortedSet<YearMonth> pendentes = (SortedSet<YearMonth>) TransactionSynchronizationManager.getResource(this);
+		if (pendentes == null) {
+			SortedSet<YearMonth> novos = new TreeSet<>();
+			TransactionSynchronizationManager.bindResource(this, novos);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void beforeCommit(boolean readOnly) {
+					// As alterações feitas pelo JPA ainda não foram para o banco
+					entityManager.flush();
+					recalcular(novos);
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(EscalaResumoMensal.this);
+				}
+			});
+			pendentes = novos;
+		}
+		pendentes.addAll(meses);
+	}
+
+	/**
+	 * Refaz a tabela inteira a partir das escalas; para carga inicial ou correção.
+	 */
+	public int reconstruir() {
+		Integer linhas = transactionTemplate.execute(status -> {
+			jdbcTemplate.execute("LOCK TABLE escalaresumomensal IN EXCLUSIVE MODE");
+			jdbcTemplate.update("DELETE FROM escalaresumomensal");
+			return jdbcTemplate.update(INSERT_RESUMO + GROUP_BY_RESUMO);
+		});
+		return linhas == null ? 0 : linhas;
+	}
+
+	private void recalcular(SortedSet<YearMonth> meses) {
+		for (YearMonth mes : meses) {
+			// Em ordem de mês, para duas transações não travarem uma à outra
+			jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext('escalaresumomensal'), ?)",
+					rs -> {}, mes.getYear() * 100 + mes.getMonthValue());
+			jdbcTemplate.update("DELETE FROM escalaresumomensal WHERE ano = ? AND mes = ?",
+					mes.getYear(), mes.getMonthValue());
+			jdbcTemplate.update(INSERT_RESUMO + "WHERE e.data >= ? AND e.data < ?\n" + GROUP_BY_RESUMO,
+					mes.atDay(1), mes.plusMonths(1).atDay(1));
+		}
+	}
+}
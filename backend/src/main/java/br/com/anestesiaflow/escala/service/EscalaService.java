@@ -1,7 +1,8 @@
 package br.com.anestesiaflow.escala.service;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -9,18 +10,13 @@ import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.stream.Collectors;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import br.com.anestesiaflow.auth.permission.Permissoes;
@@ -31,11 +27,12 @@ import br.com.anestesiaflow.escala.dto.EscalaSemanaDTO;
 import br.com.anestesiaflow.escala.dto.EscalaSemanaSummaryDTO;
 import br.com.anestesiaflow.escala.entidade.Escala;
 import br.com.anestesiaflow.escala.entidade.EscalaItem;
+import br.com.anestesiaflow.escala.repository.EscalaLoteRepository;
 import br.com.anestesiaflow.escala.repository.EscalaRepository;
 import br.com.anestesiaflow.estabelecimento.model.Estabelecimento;
-import br.com.anestesiaflow.estabelecimento.repository.EstabelecimentoRepository;
+import br.com.anestesiaflow.estabelecimento.service.EstabelecimentoCatalogo;
+import br.com.anestesiaflow.estabelecimento.dto.EstabelecimentoResponseDTO;
 import br.com.anestesiaflow.exception.BusinessException;
-import br.com.anestesiaflow.medico.model.Medico;
 import br.com.anestesiaflow.medico.service.MedicoService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
@@ -45,17 +42,36 @@ import jakarta.transaction.Transactional;
 public class EscalaService {
 
 	private final EscalaRepository escalaRepository;
-	private final EstabelecimentoRepository estabelecimentoRepository;
+	private final EstabelecimentoCatalogo estabelecimentoCatalogo;
+	private final EscalaLoteRepository escalaLoteRepository;
 	private final MedicoService medicoService;
 	private final EntityManager entityManager;
+	private final EscalaGravacao gravacaoDireta;
+	private final EscalaGradeDiaria gradeDiaria;
+	private final EscalaGradeCache gradeCache;
+	private final EscalaPlanilhaImportacao planilhaImportacao;
+	private final EscalaResumoMensal resumoMensal;
+	private final EscalaSimetriaContadores simetria;
+	private final EscalaEventos eventos;
 	private final Map<String, Object> filtrosMedico = new HashMap<>();
 	
-	public EscalaService(EscalaRepository escalaRepository,EstabelecimentoRepository estabelecimentoRepository,
-					MedicoService medicoService, EntityManager entityManager) {
+	public EscalaService(EscalaRepository escalaRepository,EstabelecimentoCatalogo estabelecimentoCatalogo,
+					EscalaLoteRepository escalaLoteRepository, MedicoService medicoService, EntityManager entityManager,
+					EscalaGradeDiaria gradeDiaria, EscalaGradeCache gradeCache,
+					EscalaPlanilhaImportacao planilhaImportacao, EscalaResumoMensal resumoMensal,
+					EscalaSimetriaContadores simetria, EscalaEventos eventos) {
 		this.escalaRepository = escalaRepository;
-		this.estabelecimentoRepository = estabelecimentoRepository;
+		this.estabelecimentoCatalogo = estabelecimentoCatalogo;
+		this.escalaLoteRepository = escalaLoteRepository;
 		this.medicoService = medicoService;
 		this.entityManager = entityManager;
+		this.gradeDiaria = gradeDiaria;
+		this.gradeCache = gradeCache;
+		this.planilhaImportacao = planilhaImportacao;
+		this.resumoMensal = resumoMensal;
+		this.simetria = simetria;
+		this.eventos = eventos;
+		this.gravacaoDireta = new EscalaGravacaoDireta(escalaRepository, estabelecimentoCatalogo, entityManager);
 		filtrosMedico.put("ativo", true);
 		filtrosMedico.put("especialidades", Arrays.asList(1));
 	}
@@ -70,26 +86,13 @@ public class EscalaService {
 	}
 	
 	public List<EscalaResponseDTO> listarPorData(LocalDate data, Boolean plantao){
-		List<Escala> escalas = escalaRepository.findByData(data, plantao);
-		
-		return medicoService.listar(filtrosMedico).stream().map(medico -> {
-			
-			Optional<Escala> escalaEncontrada = escalas.stream().
-					filter(escala -> escala.getMedico().getId().equals(medico.id())).
-					findFirst();
-			
-			if (escalaEncontrada.isPresent()) {
-				return mapperToDto(escalaEncontrada.get(), false);
-			} 
-				
-			return new EscalaResponseDTO(
-						null,
-						medico.id(),
-						medico.sigla(),
-						data,
-						false,
-						new ArrayList<>());
-		}).toList();
+		return gradeCache.buscar(data, plantao, false, () ->
+				gradeDiaria.montar(data, escalaRepository.findByData(data, plantao),
+						medicoService.listar(filtrosMedico), false));
+	}
+	
+	public Map<String, Object> estatisticasCacheGrade() {
+		return gradeCache.estatisticas();
 	}
 	
 	public EscalaEdicaoDTO buscarId(int id) {
@@ -137,18 +140,41 @@ public class EscalaService {
 		        .collect(Collectors.toList());
 	}
 	
+	@Transactional
 	public List<EscalaResponseDTO> salvar(EscalaEdicaoDTO dto) {
-		List<EscalaResponseDTO> resultados = new ArrayList<>();
+		EscalaGravacaoLote lote = new EscalaGravacaoLote(escalaRepository, estabelecimentoCatalogo,
+				escalaLoteRepository, entityManager, dto.semana().stream()
+						.flatMap(semana -> semana.escala().stream())
+						.toList());
+		
+		List<Escala> salvas = new ArrayList<>();
+		Set<LocalDate> datasAlteradas = new HashSet<>();
 		for(EscalaSemanaDTO edicao : dto.semana()) {
-			resultados.addAll(salvar(edicao, Permissoes.ESCALA_EXCLUIR));
+			salvas.addAll(salvar(edicao, Permissoes.ESCALA_EXCLUIR, lote, datasAlteradas));
 		}
+		lote.concluir();
+		gradeCache.invalidar(datasAlteradas);
+		resumoMensal.registrar(datasAlteradas);
+		simetria.atualizar(datasAlteradas);
+		eventos.publicar(datasAlteradas);
 		
-		return resultados;
+		return salvas.stream().map(escala -> mapperToDto(escala, false)).toList();
 	}
 	
 	public List<EscalaResponseDTO> salvar(EscalaSemanaDTO dto) {
 		//para o sudoku nao da para unificar, entao vamos usar a alteracao e excluir unificada
-		return salvar(dto, Permissoes.SUDOKU_ALTERAR);
+		Set<LocalDate> datasAlteradas = new HashSet<>();
+		try {
+			return salvar(dto, Permissoes.SUDOKU_ALTERAR, gravacaoDireta, datasAlteradas).stream()
+					.map(escala -> mapperToDto(escala, false))
+					.toList();
+		} finally {
+			// Sem transação, o que já foi gravado antes de um erro também precisa sair do cache
+			gradeCache.invalidar(datasAlteradas);
+			resumoMensal.registrar(datasAlteradas);
+			simetria.atualizar(datasAlteradas);
+			eventos.publicar(datasAlteradas);
+		}
 	}
 	
 	public EscalaResponseDTO salvar(EscalaResponseDTO dto) {
@@ -160,13 +186,22 @@ public class EscalaService {
 				null,
 				Arrays.asList(dto),
 				null);
-		return salvar(semana, null).get(0);
+		Set<LocalDate> datasAlteradas = new HashSet<>();
+		try {
+			return mapperToDto(salvar(semana, null, gravacaoDireta, datasAlteradas).get(0), false);
+		} finally {
+			gradeCache.invalidar(datasAlteradas);
+			resumoMensal.registrar(datasAlteradas);
+			simetria.atualizar(datasAlteradas);
+			eventos.publicar(datasAlteradas);
+		}
 	}
 	
-	@Transactional
-	private List<EscalaResponseDTO> salvar(EscalaSemanaDTO dto, Permissoes permissoes) {
-		List<EscalaResponseDTO> resultados = new ArrayList<>();
+	private List<Escala> salvar(EscalaSemanaDTO dto, Permissoes permissoes, EscalaGravacao gravacao,
+			Set<LocalDate> datasAlteradas) {
+		List<Escala> resultados = new ArrayList<>();
 		for (EscalaResponseDTO escalaDto : dto.escala()) {
+			datasAlteradas.add(escalaDto.data());
 			DayOfWeek diaDaSemana = escalaDto.data().getDayOfWeek();
 			
 			boolean finalDeSemana = (diaDaSemana == DayOfWeek.SATURDAY || diaDaSemana == DayOfWeek.SUNDAY);
@@ -176,7 +211,7 @@ public class EscalaService {
 	        			"no final de semana.");
 	        }
 			
-	        boolean plantaoLancado = escalaRepository.existsPlantaoDiaSemana(escalaDto.data());
+	        boolean plantaoLancado = gravacao.existePlantaoDiaSemana(escalaDto.data());
 	        
 	        if (plantaoLancado && !escalaDto.plantao() && !finalDeSemana) {
 	        	throw new BusinessException("Não é possível agendar um escala, pois já existe um plantão " +
@@ -193,22 +228,25 @@ public class EscalaService {
 	        
 	        if (itensDto.size() > 0 || (escalaDto.plantao() && itensDtoNoturno.size() == 0)) {
 	        	if (escalaDto.id() != null) {
-		            entidadeEscala = escalaRepository.findById(escalaDto.id())
-		            		.orElseThrow(() -> new BusinessException("Escala não encontrada"));
+		            entidadeEscala = gravacao.buscarPorId(escalaDto.id());
+		            if (entidadeEscala == null) {
+		            	throw new BusinessException("Escala não encontrada");
+		            }
+		            datasAlteradas.add(entidadeEscala.getData());
 		            
 		            if (entidadeEscala.isPlantao() == escalaDto.plantao()) {
 		            	entidadeEscala = mapperToEscala(escalaDto, entidadeEscala);
 		            } else {
-		            	entidadeEscala = mapperToEscala(escalaDto);	
+		            	entidadeEscala = mapperToEscala(escalaDto, gravacao);	
 		            }
 	        	} else {
-	        		entidadeEscala = escalaRepository.findByMedico_IdAndDataAndPlantao(escalaDto.medicoId(), escalaDto.data(), false);
+	        		entidadeEscala = gravacao.buscarPorMedicoData(escalaDto.medicoId(), escalaDto.data(), false);
 	        		if (entidadeEscala != null && !temPlantaoDia) {
 	        			entidadeEscala = mapperToEscala(escalaDto, entidadeEscala);
 	        		}
 	        		
 	        		if (entidadeEscala == null && temPlantaoDia) {
-	        			entidadeEscala = escalaRepository.findByMedico_IdAndDataAndPlantao(escalaDto.medicoId(), escalaDto.data(), true);
+	        			entidadeEscala = gravacao.buscarPorMedicoData(escalaDto.medicoId(), escalaDto.data(), true);
 	        			
 	        			if (entidadeEscala != null) {
 	        				entidadeEscala = mapperToEscala(escalaDto, entidadeEscala);	
@@ -216,42 +254,42 @@ public class EscalaService {
 	        		}
 	        		
 	        		if (entidadeEscala == null) {
-	        			entidadeEscala = mapperToEscala(escalaDto);
+	        			entidadeEscala = mapperToEscala(escalaDto, gravacao);
 	        		}
 	        	}
-	        	sincronizarItens(entidadeEscala, !escalaDto.plantao() && itensDtoNoturno.size() > 0 ? itensDto : escalaDto.itens(), permissoes);
+	        	sincronizarItens(entidadeEscala, !escalaDto.plantao() && itensDtoNoturno.size() > 0 ? itensDto : escalaDto.itens(), 
+	        			permissoes, gravacao);
 	        	
 	        	if (entidadeEscala.getItens() == null || entidadeEscala.getItens().isEmpty()) {
 		            if (entidadeEscala.getId() != null) {
-		                escalaRepository.delete(entidadeEscala);
+		                gravacao.excluir(entidadeEscala);
 		            }
 		        } else {
 			        validaEscalaItens(entidadeEscala);
-		            Escala salva = escalaRepository.save(entidadeEscala);
-		            resultados.add(mapperToDto(salva, false));
+		            resultados.add(gravacao.gravar(entidadeEscala));
 		        }
 	        }
 	        
 	        if (itensDtoNoturno.size() > 0) {
 	        	if (entidadeEscala == null || !entidadeEscala.isPlantao()) {
-        			entidadeEscala = escalaRepository.findByMedico_IdAndDataAndPlantao(escalaDto.medicoId(), escalaDto.data(), true);
+        			entidadeEscala = gravacao.buscarPorMedicoData(escalaDto.medicoId(), escalaDto.data(), true);
         			
         			if (entidadeEscala != null) {
         				entidadeEscala = mapperToEscala(escalaDto, entidadeEscala);	
         			}
 	        	} 
 	        	if (entidadeEscala == null) {
-	        		entidadeEscala = mapperToEscala(escalaDto);
+	        		entidadeEscala = mapperToEscala(escalaDto, gravacao);
 	        	}
 	        	entidadeEscala.setPlantao(true);
-	        	sincronizarItens(entidadeEscala, itensDtoNoturno, permissoes);
+	        	sincronizarItens(entidadeEscala, itensDtoNoturno, permissoes, gravacao);
 	        	
 	        	if (entidadeEscala.getItens() == null || entidadeEscala.getItens().isEmpty()) {
 		            if (entidadeEscala.getId() != null) {
-		                escalaRepository.delete(entidadeEscala);
+		                gravacao.excluir(entidadeEscala);
 		            }
 		        } else {
-		        	escalaRepository.save(entidadeEscala);
+		        	gravacao.gravar(entidadeEscala);
 		        }
 	        }
 	    }
@@ -287,7 +325,8 @@ public class EscalaService {
         }
 	}
 	
-	private void sincronizarItens(Escala escala, List<EscalaItemResponseDTO> itensDto, Permissoes permissoes) {
+	private void sincronizarItens(Escala escala, List<EscalaItemResponseDTO> itensDto, Permissoes permissoes,
+			EscalaGravacao gravacao) {
 		List<EscalaItemResponseDTO> itensNoFront = new ArrayList<>(itensDto);
 		if (permissoes != null) {
 		    Set<Integer> idsNoGrid = itensDto.stream()
@@ -340,11 +379,11 @@ public class EscalaService {
 			return;
 		}
 		
-		escalaRepository.save(escala);
+		gravacao.gravar(escala);
 		
 		itensNoFront.forEach(dto -> {			
 	        if (dto.id() == null) {
-	            EscalaItem novoItem = mapperToEscalaItem(dto);
+	            EscalaItem novoItem = mapperToEscalaItem(dto, gravacao);
 	            novoItem.setEscala(escala);
 	            validaEstabelecimentoPlanta(escala.isPlantao(), novoItem.getEstabelecimento());
 	            escala.getItens().add(novoItem);
@@ -354,18 +393,26 @@ public class EscalaService {
 	                .findFirst()
 	                .ifPresent(item -> {
 	                	validaEstabelecimentoPlanta(escala.isPlantao(), item.getEstabelecimento());
-	                	mapperToEscalaItem(dto, item);
+	                	mapperToEscalaItem(dto, item, gravacao);
 	                });
 	        }
 	    });    
 	}	
 	
 	private void validaEstabelecimentoPlanta(boolean plantao, Estabelecimento estabelecimento) {
-		if (plantao && !estabelecimento.isPlantao()) {
+		if (plantao && !estabelecimentoCatalogo.obter(estabelecimento.getId()).plantao()) {
 			throw new BusinessException("Clinica / Hospital não habilitado para escala um plantão.");
 		}
 	}
 	
+	public int arquivarPorData(LocalDate data) {
+		int arquivados = escalaRepository.arquivarItensPorData(data);
+		gradeCache.invalidar(data);
+		simetria.atualizar(data);
+		eventos.publicar(data);
+		return arquivados;
+	}
+	
 	@Transactional
 	public void excluir(int id) {
 		Escala referencia = escalaRepository.findById(id)
@@ -378,6 +425,10 @@ public class EscalaService {
         List<Escala> escalasDaSemana = escalaRepository.findByMedico_IdAndDataBetweenOrderByDataAsc(referencia.getMedico().getId(), segunda, domingo);
 
         escalaRepository.deleteAll(escalasDaSemana);
+        gradeCache.invalidar(escalasDaSemana.stream().map(Escala::getData).toList());
+        resumoMensal.registrar(escalasDaSemana.stream().map(Escala::getData).toList());
+        simetria.atualizar(escalasDaSemana.stream().map(Escala::getData).toList());
+        eventos.publicar(escalasDaSemana.stream().map(Escala::getData).toList());
 	}
 	
 	private EscalaResponseDTO mapperToDto(Escala escala, boolean reagendado) {
@@ -393,36 +444,37 @@ public class EscalaService {
 	}
 	
 	private EscalaItemResponseDTO mapperToDto(EscalaItem escalaItem) {	
+		EstabelecimentoResponseDTO estabelecimento = estabelecimentoCatalogo.obter(escalaItem.getEstabelecimento().getId());
 		return new EscalaItemResponseDTO(
 				escalaItem.getId(),
-				escalaItem.getEstabelecimento().getId(),
-				escalaItem.getEstabelecimento().getSigla(),
+				estabelecimento.id(),
+				estabelecimento.sigla(),
 				escalaItem.getHora(),
-				escalaItem.getEstabelecimento().getCor(),
-				escalaItem.getEstabelecimento().getIcone(),
+				estabelecimento.cor(),
+				estabelecimentoCatalogo.urlIcone(estabelecimento.id()),
 				escalaItem.getArquivado(),
 				escalaItem.isReagendado(),
 				escalaItem.getEscala().isPlantao()
 			);
 	}
 	
-	private Escala mapperToEscala(EscalaResponseDTO dto) {
+	private Escala mapperToEscala(EscalaResponseDTO dto, EscalaGravacao gravacao) {
 		Escala escala = new Escala();
-		escala.setMedico(entityManager.getReference(Medico.class, dto.medicoId()));		
+		escala.setMedico(gravacao.buscarMedico(dto.medicoId()));		
 		escala.setData(dto.data());
 		escala.setPlantao(dto.plantao());
 		return escala;
 	}
 	
-	private EscalaItem mapperToEscalaItem(EscalaItemResponseDTO dto) {
+	private EscalaItem mapperToEscalaItem(EscalaItemResponseDTO dto, EscalaGravacao gravacao) {
 		EscalaItem item = new EscalaItem();
-		item.setEstabelecimento(getEstabelecimento(dto.estabelecimentoId()));
+		item.setEstabelecimento(getEstabelecimento(dto.estabelecimentoId(), gravacao));
 		item.setHora(dto.hora());
 		return item;
 	}
 	
-	private EscalaItem mapperToEscalaItem(EscalaItemResponseDTO dto, EscalaItem item) {
-		item.setEstabelecimento(getEstabelecimento(dto.estabelecimentoId()));
+	private EscalaItem mapperToEscalaItem(EscalaItemResponseDTO dto, EscalaItem item, EscalaGravacao gravacao) {
+		item.setEstabelecimento(getEstabelecimento(dto.estabelecimentoId(), gravacao));
 		item.setHora(dto.hora());
 		return item;
 	}
@@ -432,61 +484,30 @@ public class EscalaService {
 		return escala;
 	}
 	
-	private Estabelecimento getEstabelecimento(Integer estabId) {
-		return estabelecimentoRepository.findById(estabId).orElseThrow(
-				() -> new BusinessException("Estabelecimento não encontrado"));
+	private Estabelecimento getEstabelecimento(Integer estabId, EscalaGravacao gravacao) {
+		Estabelecimento estabelecimento = gravacao.buscarEstabelecimento(estabId);
+		if (estabelecimento == null) {
+			throw new BusinessException("Estabelecimento não encontrado");
+		}
+		return estabelecimento;
 	}
 		
-	private EscalaResponseDTO mapperToDtoMerge(Escala escala, Escala escalaPlantao, boolean reagendado) {
-		List<EscalaItem> itensMerge = new ArrayList<EscalaItem>();
-		escala.getItens().stream()
-				.filter(item -> !reagendado && !item.isReagendado())
-				.forEach(item -> itensMerge.add(item));
-		escalaPlantao.getItens().stream()
-			.filter(item -> {
-				LocalTime inicio = LocalTime.of(7, 0);
-		        LocalTime fim = LocalTime.of(19, 0);
-		        boolean estaNoIntervalo = !item.getHora().isBefore(inicio) && !item.getHora().isAfter(fim);
-				return !reagendado && !item.isReagendado() && estaNoIntervalo;
-			}).forEach(item -> itensMerge.add(item));;
-		return new EscalaResponseDTO(
-					escala.getId(), 
-					escala.getMedico().getId(),
-					escala.getMedico().getSigla(),
-					escala.getData(),
-					escala.isPlantao(),
-					itensMerge.stream().map(this::mapperToDto).toList()
-					);
-	}
-	
+	@Transactional
 	public List<String> processarPlanilhaEscala(MultipartFile file) throws IOException {
-        List<String> logs = new ArrayList<>();
-        
-        try (InputStream is = file.getInputStream();
-             Workbook workbook = new XSSFWorkbook(is)) {
-
-            // Navegando por todas as abas (sheets) internas
-            int totalAbas = workbook.getNumberOfSheets();
-            for (int i = 0; i < totalAbas; i++) {
-                Sheet abaAtual = workbook.getSheetAt(i);
-                String nomeDaAba = abaAtual.getSheetName();
-                
-                // Exemplo de lógica para ler a data da célula C3 (Linha 2, Coluna 2)
-                // Na sua planilha, as datas estão na linha 3
-                Row linhaDatas = abaAtual.getRow(2);
-                if (linhaDatas != null) {
-                    Cell celulaData = linhaDatas.getCell(2); // SEGUNDA-FEIRA
-                    // Aqui você usaria celulaData.getDateCellValue() ou formataria a String
-                }
-
-                // Lógica para percorrer as linhas de horários
-                for (Row row : abaAtual) {
-                    // Aqui você buscaria as siglas (LAW, LUC, etc)
-                    // e faria o mapeamento para os IDs do seu banco.
-                }
-            }
-        }
-        return logs;
-    }
+		// Em arquivo temporário o POI lê o pacote sob demanda, sem trazer a planilha inteira para a memória
+		Path arquivo = Files.createTempFile("escala-", ".xlsx");
+		try {
+			file.transferTo(arquivo);
+			Set<LocalDate> datasImportadas = new HashSet<>();
+			List<String> logs = planilhaImportacao.importar(arquivo, datasImportadas);
+			gradeCache.invalidar(datasImportadas);
+			resumoMensal.registrar(datasImportadas);
+			simetria.atualizar(datasImportadas);
+			eventos.publicar(datasImportadas);
+			return logs;
+		} finally {
+			Files.deleteIfExists(arquivo);
+		}
+	}
 	
 }
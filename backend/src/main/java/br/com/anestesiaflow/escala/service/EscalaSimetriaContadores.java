@@ -0,0 +1,291 @@
+package br.com.anestesiaflow.escala.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import br.com.anestesiaflow.escala.dto.EscalaSimetriaEstResponseDTO;
+import br.com.anestesiaflow.escala.dto.EscalaSimetriaMedicoResponseDTO;
+
+/**
+ * Contadores da simetria em memória: quantidade de itens por dia, estabelecimento e médico, para
+ * cada tipo do relatório. Carregados do banco na subida da aplicação e recarregados por dia
+ * depois de cada gravação de escala, de modo que o relatório é montado sem consulta.
+ */
+@Component
+public class EscalaSimetriaContadores {
+
+	private static final Logger log = LoggerFactory.getLogger(EscalaSimetriaContadores.class);
+
+	// O relatório nunca olha mais que 90 dias para trás (ver EscalaRelatorioService)
+	private static final int DIAS_HISTORICO = 90;
+
+	public enum Tipo {
+		// Escala arquivada
+		A,
+		// Escala não reagendada
+		E,
+		// Plantão não reagendado
+		PE,
+		// Plantão arquivado
+		PA
+	}
+
+	private record Par(int estabelecimentoId, int medicoId) {}
+
+	private record MedicoAtivo(int id, String sigla, LocalDate dataAssociacao) {}
+
+	private record EstabelecimentoAtivo(int id, String sigla, String cor, byte[] icone) {}
+
+	private static final String SELECT_CONTADORES = """
+			SELECT e.data, ei.estabelecimentoid, e.medicoid,
+			       COUNT(*) FILTER (WHERE e.plantao = false AND ei.arquivado IS NOT NULL) AS a,
+			       COUNT(*) FILTER (WHERE e.plantao = false AND ei.reagendado = false) AS e,
+			       COUNT(*) FILTER (WHERE e.plantao = true AND ei.reagendado = false) AS pe,
+			       COUNT(*) FILTER (WHERE e.plantao = true AND ei.arquivado IS NOT NULL) AS pa
+			FROM escalaitem ei
+			JOIN escala e ON e.id = ei.escalaid
+			""";
+
+	private static final String GROUP_BY_CONTADORES = """
+			GROUP BY e.data, ei.estabelecimentoid, e.medicoid
+			""";
+
+	private final NamedParameterJdbcTemplate namedJdbcTemplate;
+	private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+	// Recargas em série, para uma leitura mais antiga não sobrescrever uma mais nova
+	private final Object recarga = new Object();
+	private final NavigableMap<LocalDate, Map<Par, int[]>> porDia = new TreeMap<>();
+	private List<MedicoAtivo> medicos = List.of();
+	private List<EstabelecimentoAtivo> estabelecimentos = List.of();
+
+	public EscalaSimetriaContadores(NamedParameterJdbcTemplate namedJdbcTemplate) {
+		this.namedJdbcTemplate = namedJdbcTemplate;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void reconstruir() {
+		synchronized (recarga) {
+			List<MedicoAtivo> medicosLidos = lerMedicos();
+			List<EstabelecimentoAtivo> estabelecimentosLidos = lerEstabelecimentos();
+			LocalDate inicio = LocalDate.now().minusDays(DIAS_HISTORICO);
+			Map<LocalDate, Map<Par, int[]>> lidos = lerContadores(
+					"WHERE e.data >= :inicio\n", new MapSqlParameterSource("inicio", inicio));
+
+			trava.writeLock().lock();
+			try {
+				medicos = medicosLidos;
+				estabelecimentos = estabelecimentosLidos;
+				porDia.clear();
+				porDia.putAll(lidos);
+			} finally {
+				trava.writeLock().unlock();
+			}
+			log.info("Contadores de simetria carregados: {} dias", lidos.size());
+		}
+	}
+
+	/**
+	 * Recarrega os dias informados depois do commit da transação atual (ou na hora, sem transação).
+	 */
+	public void atualizar(LocalDate data) {
+		atualizar(data == null ? List.of() : List.of(data));
+	}
+
+	public void atualizar(Collection<LocalDate> datas) {
+		Set<LocalDate> dias = datas.stream()
+				.filter(Objects::nonNull)
+				.filter(data -> !data.isBefore(LocalDate.now().minusDays(DIAS_HISTORICO)))
+				.collect(Collectors.toCollection(TreeSet::new));
+		if (!dias.isEmpty()) {
+			executarAposCommit(() -> recarregarDias(dias));
+		}
+	}
+
+	/**
+	 * Médicos e estabelecimentos ativos mudaram (cadastro, sigla, cor, ícone).
+	 */
+	public void atualizarCadastros() {
+		executarAposCommit(() -> {
+			synchronized (recarga) {
+				List<MedicoAtivo> medicosLidos = lerMedicos();
+				List<EstabelecimentoAtivo> estabelecimentosLidos = lerEstabelecimentos();
+				trava.writeLock().lock();
+				try {
+					medicos = medicosLidos;
+					estabelecimentos = estabelecimentosLidos;
+				} finally {
+					trava.writeLock().unlock();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Relatório de simetria do período [inicio, fim]: todos os estabelecimentos ativos por sigla,
+	 * cada um com todos os médicos ativos do menor para o maior total.
+	 */
+	public List<EscalaSimetriaEstResponseDTO> relatorio(String tipo, LocalDate inicio, LocalDate fim) {
+		int indice = indiceTipo(tipo);
+		descartarAntigos();
+
+		Map<Par, Integer> totais = new HashMap<>();
+		List<MedicoAtivo> medicosAtivos;
+		List<EstabelecimentoAtivo> estabelecimentosAtivos;
+		trava.readLock().lock();
+		try {
+			medicosAtivos = medicos;
+			estabelecimentosAtivos = estabelecimentos;
+			if (indice >= 0) {
+				for (Map<Par, int[]> dia : porDia.subMap(inicio, true, fim, true).values()) {
+					dia.forEach((par, contadores) -> {
+						if (contadores[indice] > 0) {
+							totais.merge(par, contadores[indice], Integer::sum);
+						}
+					});
+				}
+			}
+		} finally {
+			trava.readLock().unlock();
+		}
+
+		List<EscalaSimetriaEstResponseDTO> resultado = new ArrayList<>(estabelecimentosAtivos.size());
+		for (EstabelecimentoAtivo est : estabelecimentosAtivos) {
+			List<EscalaSimetriaMedicoResponseDTO> medicosEst = medicosAtivos.stream()
+					.map(medico -> new EscalaSimetriaMedicoResponseDTO(medico.sigla(), medico.id(),
+							totais.getOrDefault(new Par(est.id(), medico.id()), 0)))
+					// medicosAtivos já vem pela data de associação, o sort estável mantém o desempate
+					.sorted(Comparator.comparingInt(EscalaSimetriaMedicoResponseDTO::total))
+					.toList();
+			resultado.add(new EscalaSimetriaEstResponseDTO(est.id(), est.sigla(), est.cor(), est.icone(),
+					inicio, fim, medicosEst));
+		}
+		return resultado;
+	}
+
+	private int indiceTipo(String tipo) {
+		for (Tipo valor : Tipo.values()) {
+			if (valor.name().equals(tipo)) {
+				return valor.ordinal();
+			}
+		}
+		return -1;
+	}
+
+	private void recarregarDias(Set<LocalDate> dias) {
+		synchronized (recarga) {
+			Map<LocalDate, Map<Par, int[]>> lidos = lerContadores("WHERE e.data IN (:dias)\n",
+					new MapSqlParameterSource("dias", dias));
+			trava.writeLock().lock();
+			try {
+				for (LocalDate dia : dias) {
+					Map<Par, int[]> contadores = lidos.get(dia);
+					if (contadores == null) {
+						porDia.remove(dia);
+					} else {
+						porDia.put(dia, contadores);
+					}
+				}
+			} finally {
+				trava.writeLock().unlock();
+			}
+		}
+	}
+
+	private void descartarAntigos() {
+		LocalDate limite = LocalDate.now().minusDays(DIAS_HISTORICO);
+		trava.readLock().lock();
+		try {
+			if (porDia.isEmpty() || !porDia.firstKey().isBefore(limite)) {
+				return;
+			}
+		} finally {
+			trava.readLock().unlock();
+		}
+		trava.writeLock().lock();
+		try {
+			porDia.headMap(limite, false).clear();
+		} finally {
+			trava.writeLock().unlock();
+		}
+	}
+
+	private Map<LocalDate, Map<Par, int[]>> lerContadores(String where, MapSqlParameterSource parametros) {
+		Map<LocalDate, Map<Par, int[]>> lidos = new HashMap<>();
+		namedJdbcTemplate.query(SELECT_CONTADORES + where + GROUP_BY_CONTADORES, parametros, rs -> {
+			int[] contadores = new int[Tipo.values().length];
+			contadores[Tipo.A.ordinal()] = rs.getInt("a");
+			contadores[Tipo.E.ordinal()] = rs.getInt("e");
+			contadores[Tipo.PE.ordinal()] = rs.getInt("pe");
+			contadores[Tipo.PA.ordinal()] = rs.getInt("pa");
+			lidos.computeIfAbsent(rs.getObject("data", LocalDate.class), dia -> new HashMap<>())
+					.put(new Par(rs.getInt("estabelecimentoid"), rs.getInt("medicoid")), contadores);
+		});
+		return lidos;
+	}
+
+	private List<MedicoAtivo> lerMedicos() {
+		return namedJdbcTemplate.query("""
+				SELECT id, sigla, dataassociacao
+				FROM medico
+				WHERE ativo = true
+				ORDER BY dataassociacao NULLS LAST, id
+				""", new MapSqlParameterSource(), (rs, i) -> new MedicoAtivo(
+						rs.getInt("id"),
+						rs.getString("sigla"),
+						rs.getObject("dataassociacao", LocalDate.class)));
+	}
+
+	private List<EstabelecimentoAtivo> lerEstabelecimentos() {
+		return namedJdbcTemplate.query("""
+				SELECT id, sigla, cor, icone
+				FROM estabelecimento
+				WHERE ativo = true
+				ORDER BY sigla, id
+				""", new MapSqlParameterSource(), (rs, i) -> new EstabelecimentoAtivo(
+						rs.getInt("id"),
+						rs.getString("sigla"),
+						rs.getString("cor"),
+						rs.getBytes("icone")));
+	}
+
+	private void executarAposCommit(Runnable acao) {
+		Runnable protegida = () -> {
+			try {
+				acao.run();
+			} catch (RuntimeException e) {
+				// A gravação já foi confirmada; os contadores se acertam na próxima recarga
+				log.error("Erro ao atualizar os contadores de simetria", e);
+			}
+		};
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					protegida.run();
+				}
+			});
+		} else {
+			protegida.run();
+		}
+	}
+}
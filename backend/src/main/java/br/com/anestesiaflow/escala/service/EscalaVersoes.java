@@ -0,0 +1,64 @@
+package br.com.anestesiaflow.escala.service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+/**
+ * Versão em memória das escalas por data, usada nos ETags das telas públicas. Cada gravação
+ * avança a versão das datas alteradas (via {@link EscalaGradeCache}); alterações de médico ou
+ * estabelecimento avançam todas. Assim o 304 é respondido sem consultar o banco.
+ */
+@Component
+public class EscalaVersoes {
+
+	// Os contadores recomeçam a cada subida, o ETag precisa mudar junto
+	private final String instancia = Long.toString(System.currentTimeMillis(), 36);
+	private final AtomicLong contador = new AtomicLong();
+	private final ConcurrentSkipListMap<LocalDate, Long> porData = new ConcurrentSkipListMap<>();
+	private volatile long todas;
+
+	public void avancar(Collection<LocalDate> datas) {
+		long versao = contador.incrementAndGet();
+		datas.forEach(data -> porData.merge(data, versao, Math::max));
+	}
+
+	public void avancarTodas() {
+		todas = contador.incrementAndGet();
+		// Tudo que estava no mapa é menor que a versão geral
+		porData.clear();
+	}
+
+	/**
+	 * Versão das datas no período [inicio, fim].
+	 */
+	public long versao(LocalDate inicio, LocalDate fim) {
+		return maior(porData.subMap(inicio, true, fim, true));
+	}
+
+	/**
+	 * Versão das datas a partir de {@code inicio}.
+	 */
+	public long versaoDesde(LocalDate inicio) {
+		return maior(porData.tailMap(inicio, true));
+	}
+
+	/**
+	 * ETag forte para o recurso na versão informada. A versão deve ser lida antes da consulta,
+	 * para uma gravação concorrente nunca ficar escondida atrás de um ETag novo.
+	 */
+	public String etag(String recurso, long versao) {
+		return "\"" + recurso + "-" + instancia + "-" + versao + "\"";
+	}
+
+	private long maior(Map<LocalDate, Long> datas) {
+		long maior = todas;
+		for (long versao : datas.values()) {
+			maior = Math.max(maior, versao);
+		}
+		return maior;
+	}
+}
@@ -0,0 +1,3 @@
+package br.com.anestesiaflow.estabelecimento.dto;
+
+public record EstabelecimentoIconeDTO(byte[] icone, String etag) {}
@@ -12,4 +12,14 @@ public record EstabelecimentoResponseDTO(
 		boolean ativo,
 		LocalDateTime dataCriacao,
 		LocalDateTime dataAtualizacao) {
+
+	// O catálogo compartilha a mesma instância entre as requisições: o ícone entra e sai copiado
+	public EstabelecimentoResponseDTO {
+		icone = icone == null ? null : icone.clone();
+	}
+
+	@Override
+	public byte[] icone() {
+		return icone == null ? null : icone.clone();
+	}
 }
\ No newline at end of file
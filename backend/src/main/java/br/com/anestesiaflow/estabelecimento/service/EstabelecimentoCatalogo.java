@@ -0,0 +1,175 @@
+package br.com.anestesiaflow.estabelecimento.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import br.com.anestesiaflow.estabelecimento.dto.EstabelecimentoResponseDTO;
+import br.com.anestesiaflow.exception.BusinessException;
+
+/**
+ * Cópia em memória da tabela de estabelecimentos (tabela pequena, lida em toda grade de escala).
+ * Cada carga monta um retrato imutável que substitui o anterior de uma vez, então as leituras
+ * nunca travam nem enxergam um retrato pela metade. Recarregado depois do commit de cada
+ * inclusão, alteração ou exclusão.
+ */
+@Component
+public class EstabelecimentoCatalogo {
+
+	private static final Logger log = LoggerFactory.getLogger(EstabelecimentoCatalogo.class);
+
+	private static final String URL_ICONE = "/api/public/estabelecimento/%d/icone?v=%s";
+
+	private record Retrato(List<EstabelecimentoResponseDTO> todos, Map<Integer, EstabelecimentoResponseDTO> porId,
+			Map<Integer, EstabelecimentoResponseDTO> semIcone, Map<Integer, String> etagIcones,
+			Map<Integer, String> urlIcones) {}
+
+	private final JdbcTemplate jdbcTemplate;
+	private final Object recarga = new Object();
+	private volatile Retrato retrato;
+
+	public EstabelecimentoCatalogo(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void recarregar() {
+		synchronized (recarga) {
+			retrato = ler();
+			log.info("Catálogo de estabelecimentos carregado: {} registro(s)", retrato.todos().size());
+		}
+	}
+
+	/**
+	 * Recarrega depois do commit da transação atual (ou na hora, sem transação).
+	 */
+	public void atualizar() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					recarregar();
+				}
+			});
+		} else {
+			recarregar();
+		}
+	}
+
+	/**
+	 * Todos os estabelecimentos, ordenados pelo id.
+	 */
+	public List<EstabelecimentoResponseDTO> todos() {
+		return atual().todos();
+	}
+
+	public List<EstabelecimentoResponseDTO> ativos(Boolean plantao) {
+		return atual().todos().stream()
+				.filter(est -> est.ativo() && (plantao == null || est.plantao() == plantao))
+				.toList();
+	}
+
+	public Optional<EstabelecimentoResponseDTO> buscar(Integer id) {
+		return id == null ? Optional.empty() : Optional.ofNullable(atual().porId().get(id));
+	}
+
+	public EstabelecimentoResponseDTO obter(Integer id) {
+		return buscar(id).orElseThrow(() -> new BusinessException("Estabelecimento não encontrado"));
+	}
+
+	/**
+	 * O estabelecimento sem os bytes do ícone, para as grades, que levam só {@link #urlIcone}.
+	 */
+	public EstabelecimentoResponseDTO obterSemIcone(Integer id) {
+		EstabelecimentoResponseDTO estabelecimento = id == null ? null : atual().semIcone().get(id);
+		if (estabelecimento == null) {
+			throw new BusinessException("Estabelecimento não encontrado");
+		}
+		return estabelecimento;
+	}
+
+	/**
+	 * ETag do ícone (hash do conteúdo), ou null quando o estabelecimento não tem ícone.
+	 */
+	public String etagIcone(Integer id) {
+		return id == null ? null : atual().etagIcones().get(id);
+	}
+
+	/**
+	 * Endereço público do ícone com a versão (o ETag) na query string: muda quando o ícone muda,
+	 * então o navegador pode guardar a imagem. Null quando o estabelecimento não tem ícone.
+	 */
+	public String urlIcone(Integer id) {
+		return id == null ? null : atual().urlIcones().get(id);
+	}
+
+	private Retrato atual() {
+		Retrato atual = retrato;
+		if (atual == null) {
+			// Requisição antes do ApplicationReadyEvent
+			synchronized (recarga) {
+				if (retrato == null) {
+					retrato = ler();
+				}
+				atual = retrato;
+			}
+		}
+		return atual;
+	}
+
+	private Retrato ler() {
+		List<EstabelecimentoResponseDTO> todos = jdbcTemplate.query("""
+				SELECT id, nome, cor, sigla, icone, plantao, ativo, datacriacao, dataatualizacao
+				FROM estabelecimento
+				ORDER BY id
+				""", (rs, i) -> new EstabelecimentoResponseDTO(
+						rs.getInt("id"),
+						rs.getString("nome"),
+						rs.getString("cor"),
+						rs.getString("sigla"),
+						rs.getBytes("icone"),
+						rs.getBoolean("plantao"),
+						rs.getBoolean("ativo"),
+						rs.getObject("datacriacao", LocalDateTime.class),
+						rs.getObject("dataatualizacao", LocalDateTime.class)));
+
+		Map<Integer, EstabelecimentoResponseDTO> porId = new HashMap<>();
+		Map<Integer, EstabelecimentoResponseDTO> semIcone = new HashMap<>();
+		Map<Integer, String> etagIcones = new HashMap<>();
+		Map<Integer, String> urlIcones = new HashMap<>();
+		for (EstabelecimentoResponseDTO est : todos) {
+			porId.put(est.id(), est);
+			semIcone.put(est.id(), new EstabelecimentoResponseDTO(est.id(), est.nome(), est.cor(), est.sigla(), null,
+					est.plantao(), est.ativo(), est.dataCriacao(), est.dataAtualizacao()));
+			byte[] icone = est.icone();
+			if (icone != null && icone.length > 0) {
+				String versao = versao(icone);
+				etagIcones.put(est.id(), "\"" + versao + "\"");
+				urlIcones.put(est.id(), URL_ICONE.formatted(est.id(), versao));
+			}
+		}
+		return new Retrato(List.copyOf(todos), Map.copyOf(porId), Map.copyOf(semIcone), Map.copyOf(etagIcones),
+				Map.copyOf(urlIcones));
+	}
+
+	private static String versao(byte[] conteudo) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(conteudo);
+			return HexFormat.of().formatHex(hash, 0, 16);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -1,9 +1,12 @@
 package br.com.anestesiaflow.estabelecimento.service;
 
-import java.util.Comparator;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import br.com.anestesiaflow.escala.service.EscalaEventos;
+import br.com.anestesiaflow.escala.service.EscalaGradeCache;
+import br.com.anestesiaflow.escala.service.EscalaSimetriaContadores;
+import br.com.anestesiaflow.estabelecimento.dto.EstabelecimentoIconeDTO;
 import br.com.anestesiaflow.estabelecimento.dto.EstabelecimentoRequestDTO;
 import br.com.anestesiaflow.estabelecimento.dto.EstabelecimentoResponseDTO;
 import br.com.anestesiaflow.estabelecimento.model.Estabelecimento;
@@ -17,30 +20,45 @@ public class EstabelecimentoService {
 	@Autowired
 	private EstabelecimentoRepository estRepository;
 	
+	@Autowired
+	private EscalaGradeCache gradeCache;
+	
+	@Autowired
+	private EscalaSimetriaContadores simetria;
+	
+	@Autowired
+	private EscalaEventos eventos;
+	
+	@Autowired
+	private EstabelecimentoCatalogo catalogo;
+	
 	public List<EstabelecimentoResponseDTO> listarTodos(){
-		return estRepository.findAll().stream()
-				.sorted(Comparator.comparing(Estabelecimento::getId))
-				.map(estabeleciomento -> mapperToDto(estabeleciomento))
-				.toList();
+		return catalogo.todos();
 	}
 	
 	public List<EstabelecimentoResponseDTO> listarAtivos(Boolean plantao){
-		return estRepository.findAll().stream()
-				.filter(est -> est.isAtivo() && (plantao == null || est.isPlantao() == plantao))
-				.sorted(Comparator.comparing(Estabelecimento::getId))
-				.map(this::mapperToDto)
-				.toList();
+		return catalogo.ativos(plantao);
 	}
 	
 	public EstabelecimentoResponseDTO buscaId(int id) {
-		Estabelecimento estabelecimento = estRepository.findById(id).
-				orElseThrow(() -> new BusinessException("Clinica e ou Hospital não encontrado"));
-		return mapperToDto(estabelecimento);
+		return catalogo.buscar(id)
+				.orElseThrow(() -> new BusinessException("Clinica e ou Hospital não encontrado"));
+	}
+	
+	/**
+	 * Ícone do estabelecimento e o seu ETag, ou null quando não há ícone.
+	 */
+	public EstabelecimentoIconeDTO buscarIcone(int id) {
+		String etag = catalogo.etagIcone(id);
+		return etag == null ? null : new EstabelecimentoIconeDTO(catalogo.obter(id).icone(), etag);
 	}
 	
 	public EstabelecimentoResponseDTO salvar(EstabelecimentoRequestDTO dto) {
 		validarCorIcone(dto);
-		return mapperToDto(estRepository.save(mapperToEstabelecimento(dto)));
+		EstabelecimentoResponseDTO retorno = mapperToDto(estRepository.save(mapperToEstabelecimento(dto)));
+		catalogo.atualizar();
+		simetria.atualizarCadastros();
+		return retorno;
 	}
 	
 	@Transactional
@@ -53,7 +71,12 @@ public class EstabelecimentoService {
 	    
 	    estabelecimento = mapperToEstabelecimento(estabelecimento, request);
 
-	    return mapperToDto(estRepository.save(estabelecimento));
+	    EstabelecimentoResponseDTO retorno = mapperToDto(estRepository.save(estabelecimento));
+	    catalogo.atualizar();
+	    gradeCache.limpar();
+	    eventos.publicarTodas();
+	    simetria.atualizarCadastros();
+	    return retorno;
 	}	
 	
 	@Transactional
@@ -63,6 +86,10 @@ public class EstabelecimentoService {
 	    }
 	    
 	    estRepository.deleteById(id);
+	    catalogo.atualizar();
+	    gradeCache.limpar();
+	    eventos.publicarTodas();
+	    simetria.atualizarCadastros();
 	}
 	
 	
@@ -0,0 +1,109 @@
+package br.com.anestesiaflow.framework.utils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Cache em memória com limite de entradas e tempo de expiração por entrada.
+ * Ao atingir o limite, as entradas vencidas são descartadas e, se ainda faltar espaço,
+ * as que vencem primeiro.
+ */
+public class CacheExpiravel<K, V> {
+
+	private record Entrada<V>(V valor, long expiraEm) {
+		boolean vencida(long agora) {
+			return agora >= expiraEm;
+		}
+	}
+
+	private final Map<K, Entrada<V>> entradas = new ConcurrentHashMap<>();
+	private final int maximoEntradas;
+	private final long ttlMillis;
+	private final LongAdder acertos = new LongAdder();
+	private final LongAdder falhas = new LongAdder();
+
+	public CacheExpiravel(int maximoEntradas, Duration ttl) {
+		this.maximoEntradas = maximoEntradas;
+		this.ttlMillis = ttl.toMillis();
+	}
+
+	public V get(K chave) {
+		Entrada<V> entrada = entradas.get(chave);
+		if (entrada == null) {
+			falhas.increment();
+			return null;
+		}
+		if (entrada.vencida(System.currentTimeMillis())) {
+			entradas.remove(chave, entrada);
+			falhas.increment();
+			return null;
+		}
+		acertos.increment();
+		return entrada.valor();
+	}
+
+	public V get(K chave, Function<K, V> carregar) {
+		V valor = get(chave);
+		if (valor == null) {
+			valor = carregar.apply(chave);
+			if (valor != null) {
+				put(chave, valor);
+			}
+		}
+		return valor;
+	}
+
+	public void put(K chave, V valor) {
+		put(chave, valor, System.currentTimeMillis() + ttlMillis);
+	}
+
+	/**
+	 * Grava a entrada com um instante de expiração próprio (em epoch millis), limitado ao ttl do cache.
+	 */
+	public void put(K chave, V valor, long expiraEm) {
+		long limite = System.currentTimeMillis() + ttlMillis;
+		if (entradas.size() >= maximoEntradas) {
+			liberarEspaco();
+		}
+		entradas.put(chave, new Entrada<>(valor, Math.min(expiraEm, limite)));
+	}
+
+	public void remover(K chave) {
+		entradas.remove(chave);
+	}
+
+	public void removerSe(BiPredicate<K, V> condicao) {
+		entradas.entrySet().removeIf(entry -> condicao.test(entry.getKey(), entry.getValue().valor()));
+	}
+
+	public void limpar() {
+		entradas.clear();
+	}
+
+	public int tamanho() {
+		return entradas.size();
+	}
+
+	public long acertos() {
+		return acertos.sum();
+	}
+
+	public long falhas() {
+		return falhas.sum();
+	}
+
+	private void liberarEspaco() {
+		long agora = System.currentTimeMillis();
+		entradas.values().removeIf(entrada -> entrada.vencida(agora));
+
+		while (!entradas.isEmpty() && entradas.size() >= maximoEntradas) {
+			entradas.entrySet().stream()
+					.min((a, b) -> Long.compare(a.getValue().expiraEm(), b.getValue().expiraEm()))
+					.ifPresent(maisAntiga -> entradas.remove(maisAntiga.getKey(), maisAntiga.getValue()));
+		}
+	}
+}
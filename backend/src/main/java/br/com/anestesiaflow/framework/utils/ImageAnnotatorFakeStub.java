@@ -0,0 +1,131 @@
+package br.com.anestesiaflow.framework.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.rpc.ApiCallContext;
+import com.google.api.gax.rpc.UnaryCallable;
+import com.google.cloud.vision.v1.AnnotateImageRequest;
+import com.google.cloud.vision.v1.AnnotateImageResponse;
+import com.google.cloud.vision.v1.BatchAnnotateImagesRequest;
+import com.google.cloud.vision.v1.BatchAnnotateImagesResponse;
+import com.google.cloud.vision.v1.TextAnnotation;
+import com.google.cloud.vision.v1.stub.ImageAnnotatorStub;
+import com.google.protobuf.ByteString;
+import com.google.rpc.Status;
+
+/**
+ * Stub local do Vision para rodar sem credenciais do Google (app.vision.modo=fake).
+ * Se o conteúdo enviado for texto UTF-8 ele é devolvido como o texto "lido" da imagem,
+ * assim dá para simular qualquer etiqueta enviando um .txt; imagens de verdade recebem
+ * o texto padrão configurado. Um texto que comece com {@value #MARCADOR_ERRO} gera erro só
+ * naquela imagem do lote, e os contadores permitem conferir como as imagens foram agrupadas.
+ */
+public class ImageAnnotatorFakeStub extends ImageAnnotatorStub {
+
+	public static final String MARCADOR_ERRO = "#ERRO";
+
+	private final String textoPadrao;
+	private final long latenciaMillis;
+	private volatile boolean fechado;
+	private final AtomicInteger chamadas = new AtomicInteger();
+	private final AtomicInteger imagens = new AtomicInteger();
+	private final AtomicInteger maiorLote = new AtomicInteger();
+
+	public ImageAnnotatorFakeStub(String textoPadrao, long latenciaMillis) {
+		this.textoPadrao = textoPadrao;
+		this.latenciaMillis = latenciaMillis;
+	}
+
+	@Override
+	public UnaryCallable<BatchAnnotateImagesRequest, BatchAnnotateImagesResponse> batchAnnotateImagesCallable() {
+		return new UnaryCallable<>() {
+			@Override
+			public ApiFuture<BatchAnnotateImagesResponse> futureCall(BatchAnnotateImagesRequest request,
+					ApiCallContext context) {
+				aguardarLatencia();
+				chamadas.incrementAndGet();
+				imagens.addAndGet(request.getRequestsCount());
+				maiorLote.accumulateAndGet(request.getRequestsCount(), Math::max);
+
+				BatchAnnotateImagesResponse.Builder resposta = BatchAnnotateImagesResponse.newBuilder();
+				for (AnnotateImageRequest imagem : request.getRequestsList()) {
+					String texto = textoDa(imagem.getImage().getContent());
+					if (texto.startsWith(MARCADOR_ERRO)) {
+						resposta.addResponses(AnnotateImageResponse.newBuilder()
+								.setError(Status.newBuilder()
+										.setCode(3)
+										.setMessage("Imagem inválida (simulado)")));
+					} else {
+						resposta.addResponses(AnnotateImageResponse.newBuilder()
+								.setFullTextAnnotation(TextAnnotation.newBuilder().setText(texto)));
+					}
+				}
+				return ApiFutures.immediateFuture(resposta.build());
+			}
+		};
+	}
+
+	public int chamadas() {
+		return chamadas.get();
+	}
+
+	public int imagens() {
+		return imagens.get();
+	}
+
+	public int maiorLote() {
+		return maiorLote.get();
+	}
+
+	private String textoDa(ByteString conteudo) {
+		if (!conteudo.isValidUtf8()) {
+			return textoPadrao;
+		}
+		String texto = conteudo.toStringUtf8();
+		boolean binario = texto.chars().anyMatch(c -> Character.isISOControl(c) && c != '\n' && c != '\r' && c != '\t');
+		return binario || texto.isBlank() ? textoPadrao : texto;
+	}
+
+	private void aguardarLatencia() {
+		if (latenciaMillis <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(latenciaMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public void close() {
+		fechado = true;
+	}
+
+	@Override
+	public void shutdown() {
+		fechado = true;
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return fechado;
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return fechado;
+	}
+
+	@Override
+	public void shutdownNow() {
+		fechado = true;
+	}
+
+	@Override
+	public boolean awaitTermination(long duration, TimeUnit unit) {
+		return true;
+	}
+}
@@ -0,0 +1,35 @@
+package br.com.anestesiaflow.framework.utils;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Classe utilitária para operações comuns com textos.
+ */
+public final class TextoUtils {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
+    /**
+     * Construtor privado para impedir a instanciação da classe utilitária.
+     */
+    private TextoUtils() {
+        throw new UnsupportedOperationException("Esta é uma classe utilitária e não pode ser instanciada.");
+    }
+
+    /**
+     * Remove acentos, converte para minúsculas e junta espaços repetidos, do mesmo jeito que a
+     * função normalizar_nome do banco.
+     * @param texto O texto a ser normalizado.
+     * @return O texto normalizado ou null se o texto for nulo.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String semAcentos = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACOS.matcher(semAcentos.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -2,6 +2,7 @@ package br.com.anestesiaflow.framework.utils;
 
 import java.io.InputStream;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import com.google.auth.oauth2.GoogleCredentials;
@@ -15,6 +16,7 @@ public class VisionConfig {
     private String credentialsPath;
 
     @Bean
+    @ConditionalOnProperty(name = "app.vision.modo", havingValue = "google", matchIfMissing = true)
     public ImageAnnotatorSettings imageAnnotatorSettings() throws Exception {
     	System.out.println("Validanco classpath = " + credentialsPath);
         try(InputStream credentialsStream =
@@ -30,10 +32,21 @@ public class VisionConfig {
     }
     
     @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.vision.modo", havingValue = "google", matchIfMissing = true)
     public ImageAnnotatorClient imageAnnotatorClient(
             ImageAnnotatorSettings settings) throws Exception {
 
         return ImageAnnotatorClient.create(settings);
     }
+    
+    // Sem credenciais: stub local para desenvolvimento e testes
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.vision.modo", havingValue = "fake")
+    public ImageAnnotatorClient imageAnnotatorClientFake(
+            @Value("${app.vision.fake.texto:Nome: PACIENTE TESTE\nCirurgião: Dr(a). CIRURGIAO TESTE}") String texto,
+            @Value("${app.vision.fake.latencia-ms:0}") long latenciaMillis) {
+
+        return ImageAnnotatorClient.create(new ImageAnnotatorFakeStub(texto.replace("\\n", "\n"), latenciaMillis));
+    }
 	
 }
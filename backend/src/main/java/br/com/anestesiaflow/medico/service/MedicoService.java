@@ -9,6 +9,9 @@ import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import br.com.anestesiaflow.escala.service.EscalaEventos;
+import br.com.anestesiaflow.escala.service.EscalaGradeCache;
+import br.com.anestesiaflow.escala.service.EscalaSimetriaContadores;
 import br.com.anestesiaflow.exception.BusinessException;
 import br.com.anestesiaflow.medico.dto.MedicoRequestDTO;
 import br.com.anestesiaflow.medico.dto.MedicoResponseDTO;
@@ -23,6 +26,15 @@ public class MedicoService {
 	@Autowired
 	private MedicoRepository medicoRepository;
 	
+	@Autowired
+	private EscalaGradeCache gradeCache;
+	
+	@Autowired
+	private EscalaSimetriaContadores simetria;
+	
+	@Autowired
+	private EscalaEventos eventos;
+	
 	public List<MedicoResponseDTO> listar(Map<String, Object> filtros) {
 		String sigla = null;
 		Boolean ativo = null;
@@ -49,7 +61,11 @@ public class MedicoService {
 	}
 	
 	public MedicoResponseDTO salvar(MedicoRequestDTO dto) {
-		return mapperToDto(medicoRepository.save(mapperToMedico(dto)));
+		MedicoResponseDTO retorno = mapperToDto(medicoRepository.save(mapperToMedico(dto)));
+		gradeCache.limpar();
+		eventos.publicarTodas();
+		simetria.atualizarCadastros();
+		return retorno;
 	}
 	
 	@Transactional
@@ -60,7 +76,11 @@ public class MedicoService {
 	    
 	    medico = mapperToMedico(medico, request);
 
-	    return mapperToDto(medicoRepository.save(medico));
+	    MedicoResponseDTO retorno = mapperToDto(medicoRepository.save(medico));
+	    gradeCache.limpar();
+	    eventos.publicarTodas();
+	    simetria.atualizarCadastros();
+	    return retorno;
 	}	
 	
 	@Transactional
@@ -71,6 +91,9 @@ public class MedicoService {
 	    }
 	    
 	    medicoRepository.deleteById(id);
+	    gradeCache.limpar();
+	    eventos.publicarTodas();
+	    simetria.atualizarCadastros();
 	}
 	
 	private MedicoResponseDTO mapperToDto(Medico medico) {
@@ -7,7 +7,12 @@ import com.google.auth.oauth2.GoogleCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import br.com.anestesiaflow.notification.service.NotificacaoCanal;
+import br.com.anestesiaflow.notification.service.NotificacaoCanalFake;
+import br.com.anestesiaflow.notification.service.NotificacaoCanalFirebase;
 import jakarta.annotation.PostConstruct;
 
 @Configuration
@@ -42,4 +47,20 @@ public class FirebaseConfig {
             System.err.println("FALHA CRÍTICA: Não foi possível inicializar o Firebase. As notificações não funcionarão. Erro: {}" + e.getMessage());
         }
     }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.notificacao.modo", havingValue = "firebase", matchIfMissing = true)
+    public NotificacaoCanal notificacaoCanal() {
+        return new NotificacaoCanalFirebase();
+    }
+
+    // Sem credenciais: canal local para desenvolvimento e testes
+    @Bean
+    @ConditionalOnProperty(name = "app.notificacao.modo", havingValue = "fake")
+    public NotificacaoCanal notificacaoCanalFake(
+            @Value("${app.notificacao.fake.latencia-ms:0}") long latenciaMillis,
+            @Value("${app.notificacao.fake.falhas:}") String falhas) {
+
+        return new NotificacaoCanalFake(latenciaMillis, NotificacaoCanalFake.falhas(falhas));
+    }
 }
@@ -4,11 +4,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import br.com.anestesiaflow.notification.dto.NotificacaoMetricasDTO;
 import br.com.anestesiaflow.notification.entidade.NotificacaoMensagem;
 import br.com.anestesiaflow.notification.service.NotificacaoService;
 
@@ -34,4 +36,11 @@ public class NotificacaoController {
         notificacaoService.enviarNotificacao("Atualização de Escala", msg.getMensagem());
         return ResponseEntity.ok().build();
     }
+
+	@PreAuthorize("@auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).SUDOKU_NOTIFICAR) " +
+			   "or @auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).PLANTAO_NOTIFICAR)")
+	@GetMapping("/metricas")
+	public ResponseEntity<NotificacaoMetricasDTO> metricas() {
+		return ResponseEntity.ok(notificacaoService.metricas());
+	}
 }
\ No newline at end of file
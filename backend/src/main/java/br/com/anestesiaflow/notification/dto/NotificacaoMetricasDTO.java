@@ -0,0 +1,12 @@
+package br.com.anestesiaflow.notification.dto;
+
+public record NotificacaoMetricasDTO(
+		long enfileiradas,
+		long pendentes,
+		long tokensEnviados,
+		long tokensRecusados,
+		long tokensRemovidos,
+		long lotesComErro,
+		long reagendadas,
+		long descartadas) {
+}
@@ -1,5 +1,6 @@
 package br.com.anestesiaflow.notification.entidade;
 
+import java.time.LocalDateTime;
 import br.com.anestesiaflow.framework.persistence.BaseEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -13,6 +14,9 @@ public class NotificacaoDispositivo extends BaseEntity<Integer>{
 	
 	@Column(unique = true)
 	private String token;
+	
+	@Column(name = "ultimoacesso", nullable = false)
+	private LocalDateTime ultimoAcesso = LocalDateTime.now();
 
 	public String getToken() {
 		return token;
@@ -21,4 +25,12 @@ public class NotificacaoDispositivo extends BaseEntity<Integer>{
 	public void setToken(String token) {
 		this.token = token;
 	}
+	
+	public LocalDateTime getUltimoAcesso() {
+		return ultimoAcesso;
+	}
+	
+	public void setUltimoAcesso(LocalDateTime ultimoAcesso) {
+		this.ultimoAcesso = ultimoAcesso;
+	}
 }
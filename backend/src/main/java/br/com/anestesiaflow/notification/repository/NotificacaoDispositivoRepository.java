@@ -1,15 +1,36 @@
 package br.com.anestesiaflow.notification.repository;
 
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import br.com.anestesiaflow.notification.entidade.NotificacaoDispositivo;
+import jakarta.transaction.Transactional;
 
 public interface NotificacaoDispositivoRepository extends JpaRepository<NotificacaoDispositivo, Integer> {
 
 	@Query("SELECT n.token FROM NotificacaoDispositivo n")
     List<String> findAllTokens();
 	
-	boolean existsByToken(String token);
+	/**
+	 * Inclui o token ou renova o último acesso. O app registra o token a cada abertura, então
+	 * a linha só é regravada quando o último acesso tem mais de uma hora.
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = """
+		INSERT INTO notificacaodispositivo (token, datacriacao, ultimoacesso)
+		VALUES (:token, now(), now())
+		ON CONFLICT (token) DO UPDATE SET ultimoacesso = EXCLUDED.ultimoacesso
+		WHERE notificacaodispositivo.ultimoacesso < EXCLUDED.ultimoacesso - interval '1 hour'
+		""", nativeQuery = true)
+	void registrar(@Param("token") String token);
 	
-}
\ No newline at end of file
+	@Modifying
+	@Transactional
+	@Query("DELETE FROM NotificacaoDispositivo n WHERE n.token IN :tokens")
+	int deleteByTokenIn(@Param("tokens") Collection<String> tokens);
+	
+}
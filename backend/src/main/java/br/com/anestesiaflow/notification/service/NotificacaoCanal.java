@@ -0,0 +1,37 @@
+package br.com.anestesiaflow.notification.service;
+
+import java.util.List;
+
+/**
+ * Canal de envio das notificações push. Em produção é o FCM; com app.notificacao.modo=fake
+ * usa o canal local, sem credenciais do Firebase.
+ */
+public interface NotificacaoCanal {
+
+	/**
+	 * Limite de tokens por chamada multicast do FCM.
+	 */
+	int MAXIMO_TOKENS = 500;
+
+	record Falha(String token, String codigo, String mensagem) {}
+
+	record Resultado(int enviados, List<Falha> falhas) {}
+
+	/**
+	 * Falha da chamada inteira (rede, cota, credencial): nenhum token do lote recebeu a notificação.
+	 */
+	final class ErroEnvio extends Exception {
+
+		private static final long serialVersionUID = 6519275532019836471L;
+
+		public ErroEnvio(String mensagem, Throwable causa) {
+			super(mensagem, causa);
+		}
+	}
+
+	/**
+	 * Envia para até {@link #MAXIMO_TOKENS} tokens. As recusas de tokens individuais vêm no
+	 * resultado; {@link ErroEnvio} indica que o lote todo pode ser reenviado.
+	 */
+	Resultado enviar(String titulo, String corpo, List<String> tokens) throws ErroEnvio;
+}
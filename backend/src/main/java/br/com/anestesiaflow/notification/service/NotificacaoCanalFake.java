@@ -0,0 +1,93 @@
+package br.com.anestesiaflow.notification.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Canal local para desenvolvimento e testes: nada sai da máquina, o envio só é registrado no log.
+ * As falhas são simuladas pelo prefixo do token ("morto-:UNREGISTERED,instavel-:UNAVAILABLE"):
+ * o token é recusado com o código do FCM configurado, e o código {@value #ERRO_LOTE} faz a
+ * chamada inteira falhar. Os contadores permitem conferir como os tokens foram divididos.
+ */
+public class NotificacaoCanalFake implements NotificacaoCanal {
+
+	public static final String ERRO_LOTE = "LOTE";
+
+	private static final Logger log = LoggerFactory.getLogger(NotificacaoCanalFake.class);
+
+	private final long latenciaMillis;
+	private final Map<String, String> codigoPorPrefixo;
+	private final AtomicInteger chamadas = new AtomicInteger();
+	private final AtomicInteger maiorLote = new AtomicInteger();
+
+	public NotificacaoCanalFake(long latenciaMillis, Map<String, String> codigoPorPrefixo) {
+		this.latenciaMillis = latenciaMillis;
+		this.codigoPorPrefixo = Map.copyOf(codigoPorPrefixo);
+	}
+
+	/**
+	 * Lê as falhas no formato "prefixo:CODIGO,prefixo:CODIGO".
+	 */
+	public static Map<String, String> falhas(String configuracao) {
+		Map<String, String> falhas = new LinkedHashMap<>();
+		if (configuracao == null || configuracao.isBlank()) {
+			return falhas;
+		}
+		for (String falha : configuracao.split(",")) {
+			int separador = falha.lastIndexOf(':');
+			if (separador > 0) {
+				falhas.put(falha.substring(0, separador).trim(), falha.substring(separador + 1).trim());
+			}
+		}
+		return falhas;
+	}
+
+	@Override
+	public Resultado enviar(String titulo, String corpo, List<String> tokens) throws ErroEnvio {
+		chamadas.incrementAndGet();
+		maiorLote.accumulateAndGet(tokens.size(), Math::max);
+		if (latenciaMillis > 0) {
+			try {
+				Thread.sleep(latenciaMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ErroEnvio("Envio interrompido.", e);
+			}
+		}
+
+		List<Falha> falhas = new ArrayList<>();
+		for (String token : tokens) {
+			String codigo = codigo(token);
+			if (ERRO_LOTE.equals(codigo)) {
+				throw new ErroEnvio("Falha no envio do lote (simulado)", null);
+			}
+			if (codigo != null) {
+				falhas.add(new Falha(token, codigo, "Recusado pelo canal fake"));
+			}
+		}
+		log.info("[fake] Notificação '{}' para {} dispositivo(s), {} recusado(s)", titulo, tokens.size(), falhas.size());
+		return new Resultado(tokens.size() - falhas.size(), falhas);
+	}
+
+	public int chamadas() {
+		return chamadas.get();
+	}
+
+	public int maiorLote() {
+		return maiorLote.get();
+	}
+
+	private String codigo(String token) {
+		for (Map.Entry<String, String> falha : codigoPorPrefixo.entrySet()) {
+			if (token.startsWith(falha.getKey())) {
+				return falha.getValue();
+			}
+		}
+		return null;
+	}
+}
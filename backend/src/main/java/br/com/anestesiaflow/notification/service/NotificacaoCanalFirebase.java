@@ -0,0 +1,55 @@
+package br.com.anestesiaflow.notification.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.MulticastMessage;
+import com.google.firebase.messaging.Notification;
+import com.google.firebase.messaging.SendResponse;
+
+public class NotificacaoCanalFirebase implements NotificacaoCanal {
+
+	@Override
+	public Resultado enviar(String titulo, String corpo, List<String> tokens) throws ErroEnvio {
+		if (FirebaseApp.getApps().isEmpty()) {
+			throw new ErroEnvio("Firebase não inicializado.", null);
+		}
+
+		MulticastMessage message = MulticastMessage.builder()
+				.setNotification(Notification.builder()
+						.setTitle(titulo)
+						.setBody(corpo)
+						.build())
+				.addAllTokens(tokens)
+				.build();
+
+		try {
+			BatchResponse response = FirebaseMessaging.getInstance().sendEachForMulticast(message);
+			List<Falha> falhas = new ArrayList<>();
+			// As respostas vêm na mesma ordem dos tokens
+			List<SendResponse> respostas = response.getResponses();
+			for (int i = 0; i < respostas.size(); i++) {
+				SendResponse resposta = respostas.get(i);
+				if (!resposta.isSuccessful()) {
+					FirebaseMessagingException erro = resposta.getException();
+					falhas.add(new Falha(tokens.get(i), codigo(erro), erro != null ? erro.getMessage() : null));
+				}
+			}
+			return new Resultado(response.getSuccessCount(), falhas);
+		} catch (FirebaseMessagingException e) {
+			throw new ErroEnvio(e.getMessage(), e);
+		}
+	}
+
+	private static String codigo(FirebaseMessagingException erro) {
+		if (erro == null) {
+			return null;
+		}
+		return erro.getMessagingErrorCode() != null
+				? erro.getMessagingErrorCode().name()
+				: erro.getErrorCode().name();
+	}
+}
@@ -0,0 +1,279 @@
+package br.com.anestesiaflow.notification.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import br.com.anestesiaflow.notification.dto.NotificacaoMetricasDTO;
+import br.com.anestesiaflow.notification.repository.NotificacaoDispositivoRepository;
+import br.com.anestesiaflow.notification.service.NotificacaoFila.Pendente;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Esvazia a fila de notificações (notificacaoenvio) fora da requisição. Uma virtual thread acorda a
+ * cada notificação enfileirada, ou no intervalo configurado para os reenvios; cada notificação é
+ * dividida em lotes de até 500 tokens, enviados em paralelo. Lotes com erro e tokens com falha
+ * passageira voltam para a fila com espera exponencial até o limite de tentativas; tokens que o
+ * FCM não reconhece mais são apagados do cadastro de dispositivos.
+ */
+@Component
+public class NotificacaoDespachante {
+
+	private static final Logger log = LoggerFactory.getLogger(NotificacaoDespachante.class);
+	private static final int RESERVA_POR_CICLO = 10;
+	private static final long INTERVALO_LIMPEZA_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+	private enum Destino { REENVIAR, REMOVER, DESCARTAR }
+
+	private record Lote(List<String> reenviar, List<String> remover, String erro) {}
+
+	private final NotificacaoFila fila;
+	private final NotificacaoCanal canal;
+	private final NotificacaoDispositivoRepository repositoryDispositivo;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final Semaphore sinal = new Semaphore(0);
+	private final Semaphore enviosSimultaneos;
+	private final int maximoTentativas;
+	private final long intervaloSegundos;
+	private final long esperaBaseSegundos;
+	private final long esperaMaximaSegundos;
+	private final long reservaSegundos;
+	private final int retencaoDias;
+	private long ultimaLimpeza;
+
+	private final AtomicLong enfileiradas = new AtomicLong();
+	private final AtomicLong tokensEnviados = new AtomicLong();
+	private final AtomicLong tokensRecusados = new AtomicLong();
+	private final AtomicLong tokensRemovidos = new AtomicLong();
+	private final AtomicLong lotesComErro = new AtomicLong();
+	private final AtomicLong reagendadas = new AtomicLong();
+	private final AtomicLong descartadas = new AtomicLong();
+
+	public NotificacaoDespachante(NotificacaoFila fila, NotificacaoCanal canal,
+			NotificacaoDispositivoRepository repositoryDispositivo,
+			@Value("${app.notificacao.envios-simultaneos:4}") int enviosSimultaneos,
+			@Value("${app.notificacao.maximo-tentativas:6}") int maximoTentativas,
+			@Value("${app.notificacao.intervalo-segundos:15}") long intervaloSegundos,
+			@Value("${app.notificacao.espera-base-segundos:30}") long esperaBaseSegundos,
+			@Value("${app.notificacao.espera-maxima-minutos:30}") long esperaMaximaMinutos,
+			@Value("${app.notificacao.reserva-minutos:5}") long reservaMinutos,
+			@Value("${app.notificacao.retencao-dias:30}") int retencaoDias) {
+		this.fila = fila;
+		this.canal = canal;
+		this.repositoryDispositivo = repositoryDispositivo;
+		this.enviosSimultaneos = new Semaphore(Math.max(1, enviosSimultaneos));
+		this.maximoTentativas = Math.max(1, maximoTentativas);
+		this.intervaloSegundos = Math.max(1, intervaloSegundos);
+		this.esperaBaseSegundos = Math.max(1, esperaBaseSegundos);
+		this.esperaMaximaSegundos = TimeUnit.MINUTES.toSeconds(esperaMaximaMinutos);
+		this.reservaSegundos = TimeUnit.MINUTES.toSeconds(reservaMinutos);
+		this.retencaoDias = retencaoDias;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void iniciar() {
+		executor.submit(this::executar);
+	}
+
+	@PreDestroy
+	public void destroy() {
+		// O que estiver reservado volta para a fila quando a reserva expirar
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Uma notificação foi gravada na fila; chamado depois do commit de quem enfileirou.
+	 */
+	public void enfileirada() {
+		enfileiradas.incrementAndGet();
+		sinal.release();
+	}
+
+	public NotificacaoMetricasDTO metricas() {
+		return new NotificacaoMetricasDTO(enfileiradas.get(), fila.pendentes(), tokensEnviados.get(),
+				tokensRecusados.get(), tokensRemovidos.get(), lotesComErro.get(), reagendadas.get(),
+				descartadas.get());
+	}
+
+	private void executar() {
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				despacharPendentes();
+				limparConcluidas();
+				if (sinal.tryAcquire(intervaloSegundos, TimeUnit.SECONDS)) {
+					sinal.drainPermits();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (RuntimeException e) {
+				// Banco indisponível, por exemplo: tenta de novo no próximo ciclo
+				log.warn("Falha ao despachar notificações: {}", e.getMessage());
+				try {
+					TimeUnit.SECONDS.sleep(intervaloSegundos);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Envia tudo que estiver vencido na fila.
+	 */
+	void despacharPendentes() throws InterruptedException {
+		List<Pendente> pendentes;
+		do {
+			pendentes = fila.reservar(RESERVA_POR_CICLO, reservaSegundos);
+			for (Pendente pendente : pendentes) {
+				despachar(pendente);
+			}
+		} while (pendentes.size() == RESERVA_POR_CICLO);
+	}
+
+	private void despachar(Pendente pendente) throws InterruptedException {
+		List<String> tokens = pendente.tokens() != null ? pendente.tokens() : repositoryDispositivo.findAllTokens();
+		if (tokens.isEmpty()) {
+			log.info("Nenhum dispositivo registrado para receber a notificação {}.", pendente.id());
+			fila.concluir(pendente.id());
+			return;
+		}
+
+		List<List<String>> lotes = dividir(tokens);
+		List<Future<Lote>> envios = new ArrayList<>(lotes.size());
+		for (List<String> lote : lotes) {
+			envios.add(executor.submit(() -> enviar(pendente, lote)));
+		}
+
+		List<String> reenviar = new ArrayList<>();
+		List<String> remover = new ArrayList<>();
+		String erro = null;
+		for (int i = 0; i < envios.size(); i++) {
+			Lote lote;
+			try {
+				lote = envios.get(i).get();
+			} catch (ExecutionException e) {
+				lotesComErro.incrementAndGet();
+				lote = new Lote(lotes.get(i), List.of(), String.valueOf(e.getCause()));
+			}
+			reenviar.addAll(lote.reenviar());
+			remover.addAll(lote.remover());
+			erro = lote.erro() != null ? lote.erro() : erro;
+		}
+
+		if (!remover.isEmpty()) {
+			// Um único delete para todos os lotes da notificação
+			int removidos = repositoryDispositivo.deleteByTokenIn(remover);
+			tokensRemovidos.addAndGet(removidos);
+			log.info("Notificação {}: {} dispositivo(s) sem registro no FCM removido(s).", pendente.id(), removidos);
+		}
+
+		if (reenviar.isEmpty()) {
+			fila.concluir(pendente.id());
+		} else if (pendente.tentativas() >= maximoTentativas) {
+			descartadas.incrementAndGet();
+			fila.descartar(pendente.id(), erro);
+			log.error("Notificação {} descartada após {} tentativa(s), {} dispositivo(s) sem envio: {}",
+					pendente.id(), pendente.tentativas(), reenviar.size(), erro);
+		} else {
+			long espera = espera(pendente.tentativas());
+			reagendadas.incrementAndGet();
+			fila.reagendar(pendente.id(), reenviar, espera, erro);
+			log.warn("Notificação {}: {} dispositivo(s) sem envio, nova tentativa em {}s: {}",
+					pendente.id(), reenviar.size(), espera, erro);
+		}
+	}
+
+	private Lote enviar(Pendente pendente, List<String> tokens) throws InterruptedException {
+		enviosSimultaneos.acquire();
+		try {
+			NotificacaoCanal.Resultado resultado = canal.enviar(pendente.titulo(), pendente.corpo(), tokens);
+			tokensEnviados.addAndGet(resultado.enviados());
+			if (resultado.falhas().isEmpty()) {
+				return new Lote(List.of(), List.of(), null);
+			}
+
+			tokensRecusados.addAndGet(resultado.falhas().size());
+			List<String> reenviar = new ArrayList<>();
+			List<String> remover = new ArrayList<>();
+			Map<String, Integer> porCodigo = new TreeMap<>();
+			String erro = null;
+			for (NotificacaoCanal.Falha falha : resultado.falhas()) {
+				porCodigo.merge(String.valueOf(falha.codigo()), 1, Integer::sum);
+				switch (destino(falha, resultado.enviados() > 0)) {
+					case REENVIAR -> {
+						reenviar.add(falha.token());
+						erro = falha.codigo() + ": " + falha.mensagem();
+					}
+					case REMOVER -> remover.add(falha.token());
+					case DESCARTAR -> log.debug("Notificação {}: token recusado com {} {}", pendente.id(),
+							falha.codigo(), falha.mensagem());
+				}
+			}
+			log.warn("Notificação {}: {} dispositivo(s) recusado(s) por código {}", pendente.id(),
+					resultado.falhas().size(), porCodigo);
+			return new Lote(reenviar, remover, erro);
+		} catch (NotificacaoCanal.ErroEnvio | RuntimeException e) {
+			lotesComErro.incrementAndGet();
+			return new Lote(tokens, List.of(), e.getMessage());
+		} finally {
+			enviosSimultaneos.release();
+		}
+	}
+
+	/**
+	 * Classifica a recusa de um token pelo código de erro do FCM.
+	 */
+	private static Destino destino(NotificacaoCanal.Falha falha, boolean loteComEnvio) {
+		return switch (falha.codigo() == null ? "" : falha.codigo()) {
+			// App desinstalado, token expirado ou de outro projeto: nunca mais vai receber
+			case "UNREGISTERED", "SENDER_ID_MISMATCH" -> Destino.REMOVER;
+			// Token malformado; só é seguro apagar se a mesma mensagem chegou a outros tokens do lote,
+			// senão o problema pode ser a própria mensagem
+			case "INVALID_ARGUMENT" -> loteComEnvio ? Destino.REMOVER : Destino.DESCARTAR;
+			case "UNAVAILABLE", "INTERNAL", "QUOTA_EXCEEDED" -> Destino.REENVIAR;
+			default -> Destino.DESCARTAR;
+		};
+	}
+
+	private static List<List<String>> dividir(List<String> tokens) {
+		List<List<String>> lotes = new ArrayList<>();
+		for (int inicio = 0; inicio < tokens.size(); inicio += NotificacaoCanal.MAXIMO_TOKENS) {
+			lotes.add(tokens.subList(inicio, Math.min(inicio + NotificacaoCanal.MAXIMO_TOKENS, tokens.size())));
+		}
+		return lotes;
+	}
+
+	/**
+	 * Espera exponencial a partir da primeira tentativa, com até 20% de variação para as
+	 * notificações reagendadas juntas não voltarem todas no mesmo instante.
+	 */
+	private long espera(int tentativas) {
+		long espera = Math.min(esperaMaximaSegundos, esperaBaseSegundos << Math.min(tentativas - 1, 20));
+		return espera + ThreadLocalRandom.current().nextLong(espera / 5 + 1);
+	}
+
+	private void limparConcluidas() {
+		long agora = System.currentTimeMillis();
+		if (agora - ultimaLimpeza >= INTERVALO_LIMPEZA_MILLIS) {
+			ultimaLimpeza = agora;
+			int removidas = fila.limparConcluidas(retencaoDias);
+			if (removidas > 0) {
+				log.info("{} notificação(ões) concluída(s) removida(s) da fila.", removidas);
+			}
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package br.com.anestesiaflow.notification.service;
+
+import java.sql.Array;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Acesso à tabela notificacaoenvio (outbox das notificações). {@link #enfileirar} participa da
+ * transação de quem chama; as demais operações são do despachante e rodam fora de transação,
+ * uma instrução por vez.
+ */
+@Component
+public class NotificacaoFila {
+
+	public record Pendente(long id, String titulo, String corpo, List<String> tokens, int tentativas) {}
+
+	private static final String PENDENTE = "PENDENTE";
+	private static final String ENVIADA = "ENVIADA";
+	private static final String FALHA = "FALHA";
+	private static final int TAMANHO_ERRO = 1000;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public NotificacaoFila(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Grava a notificação para todos os dispositivos na transação atual.
+	 */
+	public void enfileirar(String titulo, String corpo) {
+		jdbcTemplate.update("INSERT INTO notificacaoenvio (titulo, corpo) VALUES (?, ?)", titulo, corpo);
+	}
+
+	/**
+	 * Reserva até {@code quantidade} notificações vencidas, contando a tentativa. A reserva empurra a
+	 * próxima tentativa para frente, então se a aplicação cair no meio do envio a notificação volta
+	 * para a fila quando ela expirar. SKIP LOCKED deixa mais de uma instância despachar ao mesmo tempo.
+	 */
+	public List<Pendente> reservar(int quantidade, long reservaSegundos) {
+		return jdbcTemplate.query("""
+				UPDATE notificacaoenvio n
+				SET tentativas = n.tentativas + 1,
+				    proximatentativa = now() + ? * interval '1 second'
+				WHERE n.id IN (
+				    SELECT id FROM notificacaoenvio
+				    WHERE situacao = ? AND proximatentativa <= now()
+				    ORDER BY proximatentativa, id
+				    LIMIT ?
+				    FOR UPDATE SKIP LOCKED)
+				RETURNING n.id, n.titulo, n.corpo, n.tokens, n.tentativas
+				""",
+				(rs, rowNum) -> {
+					Array tokens = rs.getArray("tokens");
+					return new Pendente(rs.getLong("id"), rs.getString("titulo"), rs.getString("corpo"),
+							tokens == null ? null : List.of((String[]) tokens.getArray()),
+							rs.getInt("tentativas"));
+				},
+				reservaSegundos, PENDENTE, quantidade);
+	}
+
+	public void concluir(long id) {
+		jdbcTemplate.update("""
+				UPDATE notificacaoenvio
+				SET situacao = ?, tokens = NULL, ultimoerro = NULL, dataconclusao = now()
+				WHERE id = ?
+				""", ENVIADA, id);
+	}
+
+	/**
+	 * Devolve a notificação para a fila só com os tokens que ainda precisam recebê-la.
+	 */
+	public void reagendar(long id, List<String> tokens, long esperaSegundos, String erro) {
+		jdbcTemplate.update("""
+				UPDATE notificacaoenvio
+				SET tokens = ?, proximatentativa = now() + ? * interval '1 second', ultimoerro = ?
+				WHERE id = ?
+				""",
+				ps -> {
+					ps.setArray(1, ps.getConnection().createArrayOf("text", tokens.toArray()));
+					ps.setLong(2, esperaSegundos);
+					ps.setString(3, limitar(erro));
+					ps.setLong(4, id);
+				});
+	}
+
+	public void descartar(long id, String erro) {
+		jdbcTemplate.update("""
+				UPDATE notificacaoenvio
+				SET situacao = ?, ultimoerro = ?, dataconclusao = now()
+				WHERE id = ?
+				""", FALHA, limitar(erro), id);
+	}
+
+	public long pendentes() {
+		Long total = jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM notificacaoenvio WHERE situacao = ?", Long.class, PENDENTE);
+		return total == null ? 0 : total;
+	}
+
+	/**
+	 * Apaga as notificações concluídas (enviadas ou descartadas) há mais de {@code dias} dias.
+	 */
+	public int limparConcluidas(int dias) {
+		return jdbcTemplate.update("""
+				DELETE FROM notificacaoenvio
+				WHERE situacao <> ? AND dataconclusao < now() - ? * interval '1 day'
+				""", PENDENTE, dias);
+	}
+
+	private static String limitar(String erro) {
+		return erro == null || erro.length() <= TAMANHO_ERRO ? erro : erro.substring(0, TAMANHO_ERRO);
+	}
+}
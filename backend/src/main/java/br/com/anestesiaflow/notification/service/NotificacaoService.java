@@ -1,38 +1,35 @@
 package br.com.anestesiaflow.notification.service;
 
-import java.util.List;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import com.google.firebase.messaging.BatchResponse;
-import com.google.firebase.messaging.FirebaseMessaging;
-import com.google.firebase.messaging.FirebaseMessagingException;
-import com.google.firebase.messaging.MulticastMessage;
-import com.google.firebase.messaging.Notification;
-import com.google.firebase.messaging.SendResponse;
-
-import br.com.anestesiaflow.notification.entidade.NotificacaoDispositivo;
+import br.com.anestesiaflow.notification.dto.NotificacaoMetricasDTO;
 import br.com.anestesiaflow.notification.entidade.NotificacaoMensagem;
 import br.com.anestesiaflow.notification.repository.NotificacaoDispositivoRepository;
 import br.com.anestesiaflow.notification.repository.NotificacaoMensagemRepository;
+import jakarta.transaction.Transactional;
 
 @Service
 public class NotificacaoService {
 
 	private final NotificacaoDispositivoRepository repositoryDispositivo;
 	private final NotificacaoMensagemRepository repositoryMensagem;
+	private final NotificacaoFila fila;
+	private final NotificacaoDespachante despachante;
 	
 	public NotificacaoService(NotificacaoDispositivoRepository repositoryDispositivo, 
-							  NotificacaoMensagemRepository repositoryMensagem) {
+							  NotificacaoMensagemRepository repositoryMensagem,
+							  NotificacaoFila fila,
+							  NotificacaoDespachante despachante) {
 		this.repositoryDispositivo = repositoryDispositivo;
 		this.repositoryMensagem = repositoryMensagem;
+		this.fila = fila;
+		this.despachante = despachante;
 	}
 	
 	public void registraDispositivo(String token) {
-		if (!repositoryDispositivo.existsByToken(token)) {
-			NotificacaoDispositivo dispositivo = new NotificacaoDispositivo();
-			dispositivo.setToken(token);
-			repositoryDispositivo.save(dispositivo);
-		}
+		repositoryDispositivo.registrar(token);
 	}
 	
 	
@@ -42,38 +39,30 @@ public class NotificacaoService {
 		repositoryMensagem.save(msg);
 	}
 	
+	/**
+	 * Grava a notificação na fila, na transação de quem chama. O envio é feito pelo
+	 * {@link NotificacaoDespachante} depois do commit.
+	 */
+	@Transactional
 	public void enviarNotificacao(String titulo, String corpo) {
-        List<String> tokens = repositoryDispositivo.findAllTokens();
-
-        if (tokens.isEmpty()) {
-            System.out.println("Nenhum dispositivo registrado para receber notificações.");
-            return;
-        }
+		fila.enfileirar(titulo, corpo);
+		executarAposCommit(despachante::enfileirada);
+	}
 
-        MulticastMessage message = MulticastMessage.builder()
-                .setNotification(Notification.builder()
-                        .setTitle(titulo)
-                        .setBody(corpo)
-                        .build())
-                .addAllTokens(tokens)
-                .build();
+	public NotificacaoMetricasDTO metricas() {
+		return despachante.metricas();
+	}
 
-        try {
-            BatchResponse response = FirebaseMessaging.getInstance().sendEachForMulticast(message);
-            System.out.println("Sucesso: " + response.getSuccessCount() + " notificações enviadas.");
-            
-            if (response.getFailureCount() > 0) {
-                System.out.println("Falhas: " + response.getFailureCount());
-                String msgErro = "";
-                for(SendResponse erro : response.getResponses()) {
-                  	if (erro.getException() != null) {
-                  		msgErro += erro.getException().getMessage();
-                  	}
-                }
-                System.out.println("Detalhe Falhas: " + msgErro);
-            }
-        } catch (FirebaseMessagingException e) {
-            e.printStackTrace();
-        }
-    }
+	private void executarAposCommit(Runnable acao) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					acao.run();
+				}
+			});
+		} else {
+			acao.run();
+		}
+	}
 }
@@ -1,13 +1,15 @@
 package br.com.anestesiaflow.paciente.controller;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
@@ -20,10 +22,18 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.anestesiaflow.paciente.dto.PacienteOcrJobDTO;
+import br.com.anestesiaflow.paciente.dto.PacientePaginaResponseDTO;
+import br.com.anestesiaflow.paciente.dto.PacientePesquisaFiltroDTO;
 import br.com.anestesiaflow.paciente.dto.PacientePesquisaResponseDTO;
 import br.com.anestesiaflow.paciente.dto.PacienteRequestDTO;
 import br.com.anestesiaflow.paciente.dto.PacienteResponseDTO;
+import br.com.anestesiaflow.paciente.dto.PacienteSemelhanteDTO;
+import br.com.anestesiaflow.paciente.service.PacienteOcrService;
 import br.com.anestesiaflow.paciente.service.PacienteService;
 import jakarta.validation.Valid;
 
@@ -34,12 +44,51 @@ public class PacienteController {
 	@Autowired
 	private PacienteService pacienteService;
 	
+	@Autowired
+	private PacienteOcrService pacienteOcrService;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
 	@PreAuthorize("@auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).PACIENTE_ACESSAR)")
 	@PostMapping("/listar")
 	public ResponseEntity<List<PacientePesquisaResponseDTO>> listar(@RequestBody(required = false) Map<String, Object> filtros) {
         return ResponseEntity.ok(pacienteService.listar(filtros));
     }
 	
+	@PreAuthorize("@auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).PACIENTE_ACESSAR)")
+	@PostMapping("/listar/pagina")
+	public ResponseEntity<PacientePaginaResponseDTO> listarPagina(@RequestBody(required = false) Map<String, Object> filtros) {
+		return ResponseEntity.ok(pacienteService.listarPagina(filtros));
+	}
+	
+	// Um paciente por linha (NDJSON), lido do banco em partes enquanto a resposta é escrita
+	@PreAuthorize("@auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).PACIENTE_ACESSAR)")
+	@PostMapping(value = "/listar/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> listarStream(@RequestBody(required = false) Map<String, Object> filtros) {
+		PacientePesquisaFiltroDTO filtro = pacienteService.filtroPesquisa(filtros);
+		StreamingResponseBody corpo = saida -> {
+			BufferedOutputStream buffer = new BufferedOutputStream(saida);
+			pacienteService.percorrer(filtro, paciente -> {
+				try {
+					buffer.write(objectMapper.writeValueAsBytes(paciente));
+					buffer.write('\n');
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			buffer.flush();
+		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(corpo);
+	}
+	
+	// Pacientes com nome parecido, do mais semelhante para o menos
+	@PreAuthorize("@auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).PACIENTE_ACESSAR)")
+	@PostMapping("/buscarnome")
+	public ResponseEntity<List<PacienteSemelhanteDTO>> buscarPorNome(@RequestBody Map<String, Object> filtros) {
+		return ResponseEntity.ok(pacienteService.buscarPorNome(filtros));
+	}
+	
 	@PreAuthorize("@auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).PACIENTE_ACESSAR)")
 	@PostMapping("/buscarid")
 	public ResponseEntity<PacienteResponseDTO> buscaPorId(@RequestBody Map<String, Integer> payload) {
@@ -71,18 +120,37 @@ public class PacienteController {
 	    return ResponseEntity.noContent().build();
 	}
 	
+	@PreAuthorize("@auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).PACIENTE_NOVO)")
 	@PostMapping("/decode")
-	public ResponseEntity<String> upload(@RequestParam @Validated int medicoId,
+	public ResponseEntity<PacienteOcrJobDTO> upload(@RequestParam @Validated int medicoId,
 					int cirurgiaoId,
 					int estabelecimentoId,
 					String procedimentoTexto,
 					@RequestParam MultipartFile file) throws Exception {
-
-	   File temp = File.createTempFile("img", ".jpg");
-	   file.transferTo(temp);
-	   try(InputStream stream = new FileInputStream(temp.getAbsolutePath())){
-		   pacienteService.decodeImagem(stream, medicoId, cirurgiaoId, estabelecimentoId, procedimentoTexto);
-		   return ResponseEntity.ok().build();
-	   }
+		PacienteOcrJobDTO job = pacienteOcrService.enfileirar(file.getBytes(), medicoId, cirurgiaoId,
+				estabelecimentoId, procedimentoTexto);
+		return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+	}
+	
+	@PreAuthorize("@auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).PACIENTE_NOVO)")
+	@PostMapping("/decode/lote")
+	public ResponseEntity<List<PacienteOcrJobDTO>> uploadLote(@RequestParam @Validated int medicoId,
+					int cirurgiaoId,
+					int estabelecimentoId,
+					String procedimentoTexto,
+					@RequestParam List<MultipartFile> files) throws Exception {
+		List<byte[]> imagens = new ArrayList<>();
+		for (MultipartFile file : files) {
+			imagens.add(file.getBytes());
+		}
+		List<PacienteOcrJobDTO> jobs = pacienteOcrService.enfileirar(imagens, medicoId, cirurgiaoId,
+				estabelecimentoId, procedimentoTexto);
+		return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobs);
+	}
+	
+	@PreAuthorize("@auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).PACIENTE_NOVO)")
+	@PostMapping("/decode/status")
+	public ResponseEntity<PacienteOcrJobDTO> statusDecode(@RequestBody Map<String, String> payload) {
+		return ResponseEntity.ok(pacienteOcrService.buscar(payload.get("id")));
 	}
 }
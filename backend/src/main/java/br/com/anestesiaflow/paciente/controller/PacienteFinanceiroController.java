@@ -0,0 +1,27 @@
+package br.com.anestesiaflow.paciente.controller;
+
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import br.com.anestesiaflow.paciente.dto.PacienteFinanceiroDTO;
+import br.com.anestesiaflow.paciente.service.PacienteFinanceiroService;
+
+@RestController
+@RequestMapping("/paciente-financeiro")
+public class PacienteFinanceiroController {
+
+	@Autowired
+	private PacienteFinanceiroService financeiroService;
+
+	@PreAuthorize("@auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).PACIENTE_ACESSAR)")
+	@PostMapping("/resumo")
+	public ResponseEntity<List<PacienteFinanceiroDTO>> resumo(@RequestBody(required = false) Map<String, Object> filtros) {
+		return ResponseEntity.ok(financeiroService.resumo(filtros));
+	}
+}
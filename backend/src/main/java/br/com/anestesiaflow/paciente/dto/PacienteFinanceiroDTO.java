@@ -0,0 +1,21 @@
+package br.com.anestesiaflow.paciente.dto;
+
+public record PacienteFinanceiroDTO(
+    Agrupamento agrupamento,
+    int ano,
+    int mes,
+    Integer referenciaId,
+    boolean pago,
+    long quantidade,
+    double valorPrevisto,
+    double valorEfetivo
+) {
+
+	// referenciaId é o médico, o cirurgião ou o estabelecimento, conforme o agrupamento (nulo em MES)
+	public enum Agrupamento {
+		MEDICO,
+		CIRURGIAO,
+		ESTABELECIMENTO,
+		MES
+	}
+}
@@ -0,0 +1,21 @@
+package br.com.anestesiaflow.paciente.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record PacienteOcrJobDTO(
+		String id,
+		PacienteOcrJobDTO.Status status,
+		String mensagem,
+		List<PacienteImagemDTO> pacientes,
+		LocalDateTime criadoEm,
+		LocalDateTime concluidoEm
+) {
+	
+	public enum Status {
+		PENDENTE,
+		PROCESSANDO,
+		CONCLUIDO,
+		ERRO
+	}
+}
@@ -0,0 +1,8 @@
+package br.com.anestesiaflow.paciente.dto;
+
+import java.util.List;
+
+public record PacientePaginaResponseDTO(
+    List<PacientePesquisaResponseDTO> pacientes,
+    String proximoCursor
+) {}
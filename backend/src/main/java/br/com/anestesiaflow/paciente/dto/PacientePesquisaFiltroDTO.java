@@ -0,0 +1,21 @@
+package br.com.anestesiaflow.paciente.dto;
+
+import java.time.LocalDate;
+
+public record PacientePesquisaFiltroDTO(
+    Boolean ativo,
+    String nomeLike,
+    Boolean pago,
+    LocalDate dataProcInicio,
+    LocalDate dataProcFim,
+    Integer cirurgiaoId
+) {
+
+	public boolean usarFiltroPeriodo() {
+		return dataProcInicio != null || dataProcFim != null;
+	}
+
+	public boolean aplicarFiltroProcedimento() {
+		return pago != null || usarFiltroPeriodo() || cirurgiaoId != null;
+	}
+}
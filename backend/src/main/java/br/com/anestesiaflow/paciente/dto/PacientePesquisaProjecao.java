@@ -0,0 +1,11 @@
+package br.com.anestesiaflow.paciente.dto;
+
+public interface PacientePesquisaProjecao {
+	Integer getId();
+	String getNome();
+	String getDataProcedimentoExibir();
+	String getProcedimentoExibir();
+	Double getValorPrevistoExibir();
+	Double getValorEfetivoExibir();
+	Boolean getAtivo();
+}
@@ -0,0 +1,8 @@
+package br.com.anestesiaflow.paciente.dto;
+
+public record PacienteSemelhanteDTO(
+    int id,
+    String nome,
+    boolean ativo,
+    double similaridade
+) {}
@@ -0,0 +1,84 @@
+package br.com.anestesiaflow.paciente.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import br.com.anestesiaflow.paciente.dto.PacienteFinanceiroDTO;
+import br.com.anestesiaflow.paciente.dto.PacienteFinanceiroDTO.Agrupamento;
+
+/**
+ * Totais dos procedimentos por mês e situação de pagamento, agrupados por médico, cirurgião e
+ * estabelecimento em uma única consulta com GROUPING SETS.
+ */
+@Repository
+public class PacienteFinanceiroRepository {
+
+	// GROUPING(medicoid, cirurgiaoid, estabelecimentoid, pago): bit ligado = coluna fora do grupo
+	private static final int GRUPO_MEDICO = 0b0110;
+	private static final int GRUPO_CIRURGIAO = 0b1010;
+	private static final int GRUPO_ESTABELECIMENTO = 0b1100;
+
+	private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+	public PacienteFinanceiroRepository(NamedParameterJdbcTemplate namedJdbcTemplate) {
+		this.namedJdbcTemplate = namedJdbcTemplate;
+	}
+
+	/**
+	 * Procedimentos com data em [inicio, fim).
+	 */
+	public List<PacienteFinanceiroDTO> totaisPorMes(LocalDate inicio, LocalDate fim) {
+		MapSqlParameterSource parametros = new MapSqlParameterSource()
+				.addValue("inicio", inicio)
+				.addValue("fim", fim);
+		return namedJdbcTemplate.query("""
+				SELECT
+				    CAST(date_trunc('month', pp.dataprocedimento) AS date) AS mes,
+				    GROUPING(pp.medicoid, pp.cirurgiaoid, pp.estabelecimentoid, pp.pago) AS grupo,
+				    pp.medicoid,
+				    pp.cirurgiaoid,
+				    pp.estabelecimentoid,
+				    pp.pago,
+				    COUNT(*) AS quantidade,
+				    CAST(COALESCE(SUM(pp.valorprevisto), 0) AS double precision) AS valorprevisto,
+				    CAST(COALESCE(SUM(pp.valorefetivo), 0) AS double precision) AS valorefetivo
+				FROM pacienteprocedimento pp
+				WHERE pp.dataprocedimento >= :inicio
+				  AND pp.dataprocedimento < :fim
+				GROUP BY GROUPING SETS (
+				    (date_trunc('month', pp.dataprocedimento), pp.medicoid, pp.pago),
+				    (date_trunc('month', pp.dataprocedimento), pp.cirurgiaoid, pp.pago),
+				    (date_trunc('month', pp.dataprocedimento), pp.estabelecimentoid, pp.pago),
+				    (date_trunc('month', pp.dataprocedimento), pp.pago)
+				)
+				ORDER BY mes, grupo, pp.pago
+				""", parametros, (rs, i) -> {
+					LocalDate mes = rs.getObject("mes", LocalDate.class);
+					Agrupamento agrupamento;
+					Integer referenciaId;
+					switch (rs.getInt("grupo")) {
+						case GRUPO_MEDICO -> {
+							agrupamento = Agrupamento.MEDICO;
+							referenciaId = rs.getObject("medicoid", Integer.class);
+						}
+						case GRUPO_CIRURGIAO -> {
+							agrupamento = Agrupamento.CIRURGIAO;
+							referenciaId = rs.getObject("cirurgiaoid", Integer.class);
+						}
+						case GRUPO_ESTABELECIMENTO -> {
+							agrupamento = Agrupamento.ESTABELECIMENTO;
+							referenciaId = rs.getObject("estabelecimentoid", Integer.class);
+						}
+						default -> {
+							agrupamento = Agrupamento.MES;
+							referenciaId = null;
+						}
+					}
+					return new PacienteFinanceiroDTO(agrupamento, mes.getYear(), mes.getMonthValue(), referenciaId,
+							rs.getBoolean("pago"), rs.getLong("quantidade"),
+							rs.getDouble("valorprevisto"), rs.getDouble("valorefetivo"));
+				});
+	}
+}
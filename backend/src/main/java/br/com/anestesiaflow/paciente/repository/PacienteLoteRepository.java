@@ -0,0 +1,222 @@
+package br.com.anestesiaflow.paciente.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import br.com.anestesiaflow.paciente.dto.PacienteImagemDTO;
+import jakarta.transaction.Transactional;
+
+/**
+ * Gravação em lote dos pacientes lidos por OCR: resolve os nomes e os procedimentos existentes com
+ * duas consultas IN e insere o que falta em JDBC batch, tudo na mesma transação.
+ */
+@Repository
+public class PacienteLoteRepository {
+
+	private static final String INSERT_PACIENTE = """
+			INSERT INTO paciente (nome, ativo, datacriacao)
+			VALUES (?, true, ?)
+			""";
+
+	private static final String INSERT_PROCEDIMENTO = """
+			INSERT INTO pacienteprocedimento (pacienteid, dataprocedimento, procedimento, medicoid, cirurgiaoid,
+					estabelecimentoid, pago, valorprevisto, valorefetivo, datacriacao)
+			VALUES (?, ?, ?, ?, ?, ?, false, 0, 0, ?)
+			""";
+
+	private record ProcedimentoChave(int pacienteId, LocalDate data) {}
+
+	private final JdbcTemplate jdbcTemplate;
+	private final NamedParameterJdbcTemplate namedJdbcTemplate;
+	private final PacienteNomeRepository pacienteNomeRepository;
+	private final double similaridadeMinima;
+
+	public PacienteLoteRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+			PacienteNomeRepository pacienteNomeRepository,
+			@Value("${app.paciente.nome.similaridade-minima:0.6}") double similaridadeMinima) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.namedJdbcTemplate = namedJdbcTemplate;
+		this.pacienteNomeRepository = pacienteNomeRepository;
+		this.similaridadeMinima = similaridadeMinima;
+	}
+
+	/**
+	 * Cria os pacientes que ainda não existem (pelo nome) e o procedimento de cada um na data lida.
+	 * Nomes sem correspondência exata são procurados pela similaridade (erros de leitura do OCR,
+	 * acentos). Procedimentos já existentes (paciente, data e procedimento) só têm médico,
+	 * cirurgião e estabelecimento atualizados, então reenviar a mesma imagem não duplica nada.
+	 */
+	@Transactional
+	public void gravar(List<PacienteImagemDTO> itens, int medicoId, int cirurgiaoId, int estabelecimentoId,
+			String procedimento) {
+		if (itens.isEmpty()) {
+			return;
+		}
+		// Serializa as importações: duas imagens com o mesmo paciente ao mesmo tempo criariam o nome duas vezes
+		jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext('pacienteprocedimento-ocr'))", rs -> {});
+
+		Map<String, Set<LocalDate>> datasPorNome = new LinkedHashMap<>();
+		for (PacienteImagemDTO item : itens) {
+			datasPorNome.computeIfAbsent(item.nome().toUpperCase(), nome -> new LinkedHashSet<>())
+					.add(item.dataProcedimento());
+		}
+
+		Map<String, Integer> pacientes = buscarIdsPorNome(datasPorNome.keySet());
+		List<String> naoEncontrados = datasPorNome.keySet().stream()
+				.filter(nome -> !pacientes.containsKey(nome))
+				.toList();
+		pacientes.putAll(pacienteNomeRepository.buscarCorrespondentes(naoEncontrados, similaridadeMinima));
+		List<String> novos = naoEncontrados.stream()
+				.filter(nome -> !pacientes.containsKey(nome))
+				.toList();
+		pacientes.putAll(inserirPacientes(novos));
+
+		Set<LocalDate> datas = new LinkedHashSet<>();
+		datasPorNome.values().forEach(datas::addAll);
+		Map<ProcedimentoChave, List<Integer>> existentes = buscarProcedimentos(pacientes.values(), datas, procedimento);
+
+		// Dois nomes lidos podem cair no mesmo paciente
+		Set<ProcedimentoChave> inserir = new LinkedHashSet<>();
+		Set<Integer> atualizar = new LinkedHashSet<>();
+		datasPorNome.forEach((nome, datasPaciente) -> {
+			for (LocalDate data : datasPaciente) {
+				ProcedimentoChave chave = new ProcedimentoChave(pacientes.get(nome), data);
+				List<Integer> ids = existentes.get(chave);
+				if (ids == null) {
+					inserir.add(chave);
+				} else {
+					atualizar.addAll(ids);
+				}
+			}
+		});
+
+		inserirProcedimentos(List.copyOf(inserir), medicoId, cirurgiaoId, estabelecimentoId, procedimento);
+		atualizarProcedimentos(List.copyOf(atualizar), medicoId, cirurgiaoId, estabelecimentoId);
+	}
+
+	private Map<String, Integer> buscarIdsPorNome(Collection<String> nomes) {
+		Map<String, Integer> ids = new HashMap<>();
+		namedJdbcTemplate.query("SELECT id, nome FROM paciente WHERE nome IN (:nomes) ORDER BY id",
+				Map.of("nomes", nomes),
+				rs -> {
+					ids.putIfAbsent(rs.getString("nome"), rs.getInt("id"));
+				});
+		return ids;
+	}
+
+	private Map<ProcedimentoChave, List<Integer>> buscarProcedimentos(Collection<Integer> pacienteIds,
+			Collection<LocalDate> datas, String procedimento) {
+		Map<ProcedimentoChave, List<Integer>> ids = new HashMap<>();
+		if (pacienteIds.isEmpty()) {
+			return ids;
+		}
+		MapSqlParameterSource parametros = new MapSqlParameterSource()
+				.addValue("pacientes", pacienteIds)
+				.addValue("datas", datas)
+				.addValue("procedimento", procedimento);
+		namedJdbcTemplate.query("""
+				SELECT id, pacienteid, dataprocedimento
+				FROM pacienteprocedimento
+				WHERE pacienteid IN (:pacientes)
+				  AND dataprocedimento IN (:datas)
+				  AND procedimento = :procedimento
+				""", parametros, rs -> {
+					ids.computeIfAbsent(new ProcedimentoChave(
+							rs.getInt("pacienteid"),
+							rs.getObject("dataprocedimento", LocalDate.class)), chave -> new ArrayList<>())
+						.add(rs.getInt("id"));
+				});
+		return ids;
+	}
+
+	private Map<String, Integer> inserirPacientes(List<String> nomes) {
+		Map<String, Integer> ids = new HashMap<>();
+		if (nomes.isEmpty()) {
+			return ids;
+		}
+
+		LocalDateTime agora = LocalDateTime.now();
+		KeyHolder chaves = new GeneratedKeyHolder();
+		jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_PACIENTE, new String[] { "id" }),
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						ps.setString(1, nomes.get(i));
+						ps.setObject(2, agora);
+					}
+
+					@Override
+					public int getBatchSize() {
+						return nomes.size();
+					}
+				}, chaves);
+
+		List<Map<String, Object>> gerados = chaves.getKeyList();
+		for (int i = 0; i < nomes.size(); i++) {
+			ids.put(nomes.get(i), ((Number) gerados.get(i).get("id")).intValue());
+		}
+		return ids;
+	}
+
+	private void inserirProcedimentos(List<ProcedimentoChave> procedimentos, int medicoId, int cirurgiaoId,
+			int estabelecimentoId, String procedimento) {
+		if (procedimentos.isEmpty()) {
+			return;
+		}
+
+		LocalDateTime agora = LocalDateTime.now();
+		jdbcTemplate.batchUpdate(INSERT_PROCEDIMENTO, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				ProcedimentoChave chave = procedimentos.get(i);
+				ps.setInt(1, chave.pacienteId());
+				ps.setObject(2, chave.data());
+				ps.setString(3, procedimento);
+				ps.setInt(4, medicoId);
+				ps.setInt(5, cirurgiaoId);
+				ps.setInt(6, estabelecimentoId);
+				ps.setObject(7, agora);
+			}
+
+			@Override
+			public int getBatchSize() {
+				return procedimentos.size();
+			}
+		});
+	}
+
+	private void atualizarProcedimentos(List<Integer> ids, int medicoId, int cirurgiaoId, int estabelecimentoId) {
+		if (ids.isEmpty()) {
+			return;
+		}
+		MapSqlParameterSource parametros = new MapSqlParameterSource()
+				.addValue("ids", ids)
+				.addValue("medicoId", medicoId)
+				.addValue("cirurgiaoId", cirurgiaoId)
+				.addValue("estabelecimentoId", estabelecimentoId)
+				.addValue("agora", LocalDateTime.now());
+		namedJdbcTemplate.update("""
+				UPDATE pacienteprocedimento
+				SET medicoid = :medicoId, cirurgiaoid = :cirurgiaoId, estabelecimentoid = :estabelecimentoId,
+					dataatualizacao = :agora
+				WHERE id IN (:ids)
+				""", parametros);
+	}
+}
@@ -0,0 +1,79 @@
+package br.com.anestesiaflow.paciente.repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import br.com.anestesiaflow.framework.utils.TextoUtils;
+import br.com.anestesiaflow.paciente.dto.PacienteSemelhanteDTO;
+
+/**
+ * Busca de pacientes por nome pelo índice de trigramas (pg_trgm) sobre normalizar_nome(nome),
+ * sem diferenciar acentos e maiúsculas e ordenando pela similaridade.
+ */
+@Repository
+public class PacienteNomeRepository {
+
+	private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+	public PacienteNomeRepository(NamedParameterJdbcTemplate namedJdbcTemplate) {
+		this.namedJdbcTemplate = namedJdbcTemplate;
+	}
+
+	public List<PacienteSemelhanteDTO> buscarSemelhantes(String nome, Boolean ativo, int limite) {
+		String normalizado = TextoUtils.normalizar(nome);
+		MapSqlParameterSource parametros = new MapSqlParameterSource()
+				.addValue("nome", normalizado)
+				.addValue("nomeLike", "%" + normalizado + "%")
+				.addValue("ativo", ativo)
+				.addValue("limite", limite);
+		return namedJdbcTemplate.query("""
+				SELECT id, nome, ativo, similarity(normalizar_nome(nome), :nome) AS similaridade
+				FROM paciente
+				WHERE (normalizar_nome(nome) % :nome OR normalizar_nome(nome) LIKE :nomeLike)
+				  AND (CAST(:ativo AS boolean) IS NULL OR ativo = CAST(:ativo AS boolean))
+				ORDER BY similaridade DESC, nome, id
+				LIMIT :limite
+				""", parametros, (rs, i) -> new PacienteSemelhanteDTO(
+						rs.getInt("id"),
+						rs.getString("nome"),
+						rs.getBoolean("ativo"),
+						rs.getDouble("similaridade")));
+	}
+
+	/**
+	 * Para cada nome, o paciente mais parecido com similaridade mínima informada (0 a 1).
+	 * Nomes sem correspondência ficam fora do mapa.
+	 */
+	public Map<String, Integer> buscarCorrespondentes(Collection<String> nomes, double similaridadeMinima) {
+		Map<String, Integer> ids = new HashMap<>();
+		if (nomes.isEmpty()) {
+			return ids;
+		}
+		// O operador % usa este limite para filtrar pelo índice; vale só para a transação atual
+		namedJdbcTemplate.query("SELECT set_config('pg_trgm.similarity_threshold', :limite, true)",
+				Map.of("limite", Double.toString(similaridadeMinima)), rs -> {});
+
+		MapSqlParameterSource parametros = new MapSqlParameterSource()
+				.addValue("nomes", nomes)
+				.addValue("minimo", similaridadeMinima);
+		namedJdbcTemplate.query("""
+				SELECT procurado.nome AS procurado, encontrado.id
+				FROM unnest(CAST(ARRAY[:nomes] AS text[])) AS procurado(nome)
+				CROSS JOIN LATERAL (
+				    SELECT p.id
+				    FROM paciente p
+				    WHERE normalizar_nome(p.nome) % normalizar_nome(procurado.nome)
+				      AND similarity(normalizar_nome(p.nome), normalizar_nome(procurado.nome)) >= :minimo
+				    ORDER BY similarity(normalizar_nome(p.nome), normalizar_nome(procurado.nome)) DESC, p.id
+				    LIMIT 1
+				) encontrado
+				""", parametros, rs -> {
+					ids.put(rs.getString("procurado"), rs.getInt("id"));
+				});
+		return ids;
+	}
+}
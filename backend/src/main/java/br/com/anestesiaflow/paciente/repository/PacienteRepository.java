@@ -2,16 +2,29 @@ package br.com.anestesiaflow.paciente.repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import br.com.anestesiaflow.paciente.dto.PacientePesquisaProjecao;
 import br.com.anestesiaflow.paciente.entidade.Paciente;
 import br.com.anestesiaflow.paciente.entidade.PacienteProcedimento;
+import jakarta.persistence.QueryHint;
 
 public interface PacienteRepository extends JpaRepository<Paciente, Integer> {
+
+	// Procedimento entra na pesquisa quando passa nos filtros de pago, período e cirurgião
+	String FILTRO_PROCEDIMENTO = """
+			(CAST(:pago AS boolean) IS NULL OR pp.pago = CAST(:pago AS boolean))
+			AND (:usarFiltroPeriodo = FALSE
+			    OR pp.dataprocedimento BETWEEN CAST(:dataProcInicio AS date) AND CAST(:dataProcFim AS date))
+			AND (CAST(:cirurgiaoId AS integer) IS NULL OR pp.cirurgiaoid = CAST(:cirurgiaoId AS integer))
+			""";
 	
 	@EntityGraph(attributePaths = {"procedimentos"})
 	Paciente findByNome(String nome);
@@ -22,32 +35,61 @@ public interface PacienteRepository extends JpaRepository<Paciente, Integer> {
 		       " AND pp.procedimento = :procedimento")
 	PacienteProcedimento findByProcedimentoData(Paciente paciente, LocalDate data, String procedimento);
 
-	@EntityGraph(attributePaths = {"procedimentos"})
-	@Query("""
-			SELECT DISTINCT p
-			FROM Paciente p
-			WHERE (:ativo IS NULL OR p.ativo = :ativo)
-			  AND (:nomeLike IS NULL OR LOWER(p.nome) LIKE :nomeLike)
-			  AND (
-			       :aplicarFiltroProcedimento = FALSE
-			       OR EXISTS (
-			           SELECT 1
-			           FROM PacienteProcedimento pp
-			           WHERE pp.paciente = p
-			             AND (:pago IS NULL OR pp.pago = :pago)
-			             AND (:usarFiltroPeriodo = FALSE OR pp.dataProcedimento BETWEEN :dataProcInicio AND :dataProcFim)
-			             AND (:cirurgiaoId IS NULL OR pp.cirurgiao.id = :cirurgiaoId)
-			       )
-			  )
-			ORDER BY p.nome ASC
-			""")
-	List<Paciente> filtrarPacientes(@Param("ativo") Boolean ativo,
+	// Datas, procedimentos e valores já agregados no banco, só com os procedimentos que passam no filtro.
+	// O cursor (nome, id) é o último paciente da página anterior; nome nulo conta como '' na ordem
+	// e no cursor, senão a comparação de linhas nunca passa dos pacientes sem nome
+	String PESQUISA_PACIENTES = """
+			SELECT
+			    p.id AS id,
+			    p.nome AS nome,
+			    COALESCE(string_agg(COALESCE(to_char(pp.dataprocedimento, 'DD/MM/YYYY'), ''), ', ' ORDER BY pp.id)
+			        FILTER (WHERE pp.id IS NOT NULL AND """ + FILTRO_PROCEDIMENTO + """
+			), '') AS "dataProcedimentoExibir",
+			    COALESCE(string_agg(COALESCE(pp.procedimento, ''), ', ' ORDER BY pp.id)
+			        FILTER (WHERE pp.id IS NOT NULL AND """ + FILTRO_PROCEDIMENTO + """
+			), '') AS "procedimentoExibir",
+			    CAST(COALESCE(SUM(pp.valorprevisto) FILTER (WHERE """ + FILTRO_PROCEDIMENTO + """
+			), 0) AS double precision) AS "valorPrevistoExibir",
+			    CAST(COALESCE(SUM(pp.valorefetivo) FILTER (WHERE """ + FILTRO_PROCEDIMENTO + """
+			), 0) AS double precision) AS "valorEfetivoExibir",
+			    p.ativo AS ativo
+			FROM paciente p
+			LEFT JOIN pacienteprocedimento pp ON pp.pacienteid = p.id
+			WHERE (CAST(:ativo AS boolean) IS NULL OR p.ativo = CAST(:ativo AS boolean))
+			  AND (CAST(:nomeLike AS text) IS NULL OR normalizar_nome(p.nome) LIKE CAST(:nomeLike AS text))
+			  AND (CAST(:cursorNome AS text) IS NULL
+			      OR (COALESCE(p.nome, ''), p.id) > (CAST(:cursorNome AS text), CAST(:cursorId AS integer)))
+			GROUP BY p.id, p.nome, p.ativo
+			HAVING :aplicarFiltroProcedimento = FALSE
+			    OR COUNT(pp.id) FILTER (WHERE """ + FILTRO_PROCEDIMENTO + """
+			) > 0
+			ORDER BY COALESCE(p.nome, '') ASC, p.id ASC
+			""";
+
+	@Query(value = PESQUISA_PACIENTES + "LIMIT CAST(:limite AS integer)", nativeQuery = true)
+	List<PacientePesquisaProjecao> pesquisarPacientes(@Param("ativo") Boolean ativo,
+			@Param("nomeLike") String nomeLike,
+			@Param("pago") Boolean pago,
+			@Param("dataProcInicio") LocalDate dataProcInicio,
+			@Param("dataProcFim") LocalDate dataProcFim,
+			@Param("cirurgiaoId") Integer cirurgiaoId,
+			@Param("usarFiltroPeriodo") boolean usarFiltroPeriodo,
+			@Param("aplicarFiltroProcedimento") boolean aplicarFiltroProcedimento,
+			@Param("cursorNome") String cursorNome,
+			@Param("cursorId") Integer cursorId,
+			@Param("limite") Integer limite);
+
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query(value = PESQUISA_PACIENTES, nativeQuery = true)
+	Stream<PacientePesquisaProjecao> streamPacientes(@Param("ativo") Boolean ativo,
 			@Param("nomeLike") String nomeLike,
 			@Param("pago") Boolean pago,
 			@Param("dataProcInicio") LocalDate dataProcInicio,
 			@Param("dataProcFim") LocalDate dataProcFim,
 			@Param("cirurgiaoId") Integer cirurgiaoId,
 			@Param("usarFiltroPeriodo") boolean usarFiltroPeriodo,
-			@Param("aplicarFiltroProcedimento") boolean aplicarFiltroProcedimento);
+			@Param("aplicarFiltroProcedimento") boolean aplicarFiltroProcedimento,
+			@Param("cursorNome") String cursorNome,
+			@Param("cursorId") Integer cursorId);
 	
 }
@@ -0,0 +1,135 @@
+package br.com.anestesiaflow.paciente.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import br.com.anestesiaflow.exception.BusinessException;
+import br.com.anestesiaflow.framework.utils.CacheExpiravel;
+import br.com.anestesiaflow.paciente.dto.PacienteFinanceiroDTO;
+import br.com.anestesiaflow.paciente.repository.PacienteFinanceiroRepository;
+
+/**
+ * Resumo financeiro dos procedimentos. Os meses já encerrados ficam em cache; a consulta ao banco
+ * cobre, de uma vez, só o intervalo dos meses que faltam. Alterações em procedimentos invalidam
+ * os meses afetados.
+ */
+@Service
+public class PacienteFinanceiroService {
+
+	private final PacienteFinanceiroRepository financeiroRepository;
+	private final CacheExpiravel<YearMonth, List<PacienteFinanceiroDTO>> mesesFechados;
+	// Avança a cada invalidação; totais lidos enquanto ela mudou não vão para o cache
+	private final AtomicLong geracao = new AtomicLong();
+
+	public PacienteFinanceiroService(PacienteFinanceiroRepository financeiroRepository,
+			@Value("${api.paciente.financeiro-cache.maximo:120}") int maximo,
+			@Value("${api.paciente.financeiro-cache.ttl-horas:24}") long ttlHoras) {
+		this.financeiroRepository = financeiroRepository;
+		this.mesesFechados = new CacheExpiravel<>(maximo, Duration.ofHours(ttlHoras));
+	}
+
+	public List<PacienteFinanceiroDTO> resumo(Map<String, Object> filtros) {
+		Object ano = filtros == null ? null : filtros.get("ano");
+		if (!(ano instanceof Number numero)) {
+			throw new BusinessException("Informe o ano do resumo financeiro.");
+		}
+		return resumo(numero.intValue(), 1, 12);
+	}
+
+	public List<PacienteFinanceiroDTO> resumo(int ano, int mesInicio, int mesFim) {
+		YearMonth atual = YearMonth.now();
+		Map<YearMonth, List<PacienteFinanceiroDTO>> porMes = new HashMap<>();
+		List<YearMonth> faltando = new ArrayList<>();
+		for (int mes = mesInicio; mes <= mesFim; mes++) {
+			YearMonth referencia = YearMonth.of(ano, mes);
+			List<PacienteFinanceiroDTO> emCache = referencia.isBefore(atual) ? mesesFechados.get(referencia) : null;
+			if (emCache != null) {
+				porMes.put(referencia, emCache);
+			} else {
+				faltando.add(referencia);
+			}
+		}
+
+		if (!faltando.isEmpty()) {
+			long geracaoLida = geracao.get();
+			YearMonth primeiro = faltando.get(0);
+			YearMonth ultimo = faltando.get(faltando.size() - 1);
+			Map<YearMonth, List<PacienteFinanceiroDTO>> lidos = financeiroRepository
+					.totaisPorMes(primeiro.atDay(1), ultimo.plusMonths(1).atDay(1)).stream()
+					.collect(Collectors.groupingBy(total -> YearMonth.of(total.ano(), total.mes())));
+			Map<YearMonth, List<PacienteFinanceiroDTO>> gravados = new HashMap<>();
+			for (YearMonth referencia : faltando) {
+				List<PacienteFinanceiroDTO> totais = List.copyOf(lidos.getOrDefault(referencia, List.of()));
+				if (referencia.isBefore(atual) && geracao.get() == geracaoLida) {
+					mesesFechados.put(referencia, totais);
+					gravados.put(referencia, totais);
+				}
+				porMes.put(referencia, totais);
+			}
+			// Uma invalidação entre a conferência e o put não vê os totais; eles saem aqui
+			if (!gravados.isEmpty() && geracao.get() != geracaoLida) {
+				mesesFechados.removerSe((mes, totais) -> gravados.get(mes) == totais);
+			}
+		}
+
+		List<PacienteFinanceiroDTO> resultado = new ArrayList<>();
+		for (int mes = mesInicio; mes <= mesFim; mes++) {
+			resultado.addAll(porMes.get(YearMonth.of(ano, mes)));
+		}
+		return resultado;
+	}
+
+	public void invalidar(Collection<LocalDate> datas) {
+		Set<YearMonth> meses = datas.stream()
+				.filter(data -> data != null)
+				.map(YearMonth::from)
+				.collect(Collectors.toSet());
+		if (meses.isEmpty()) {
+			return;
+		}
+		remover(meses);
+		// Depois do commit a geração avança de novo: uma leitura que começou antes dele não grava
+		// os totais antigos no cache
+		executarAposCommit(() -> remover(meses));
+	}
+
+	public void limpar() {
+		limparTudo();
+		executarAposCommit(this::limparTudo);
+	}
+
+	// A geração avança antes de remover: um put feito no meio é removido aqui ou pela conferência
+	// que resumo faz depois do put
+	private void remover(Set<YearMonth> meses) {
+		geracao.incrementAndGet();
+		mesesFechados.removerSe((mes, totais) -> meses.contains(mes));
+	}
+
+	private void limparTudo() {
+		geracao.incrementAndGet();
+		mesesFechados.limpar();
+	}
+
+	private void executarAposCommit(Runnable acao) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					acao.run();
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package br.com.anestesiaflow.paciente.service;
+
+import java.util.List;
+import br.com.anestesiaflow.paciente.dto.PacienteImagemDTO;
+
+/**
+ * Um formato de documento reconhecido no texto do OCR (agenda do centro cirúrgico, etiqueta, ...).
+ * Novos formatos são só mais um bean; o {@link PacienteOcrParser} tenta cada um na ordem ({@code @Order})
+ * e fica com o primeiro que reconhecer algum paciente.
+ */
+public interface PacienteOcrLayout {
+
+	/**
+	 * Texto do OCR já quebrado em linhas, feito uma única vez e compartilhado entre os formatos.
+	 */
+	record TextoOcr(String texto, List<String> linhas) {}
+
+	List<PacienteImagemDTO> extrair(TextoOcr texto);
+}
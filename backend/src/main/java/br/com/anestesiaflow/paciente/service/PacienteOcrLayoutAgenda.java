@@ -0,0 +1,39 @@
+package br.com.anestesiaflow.paciente.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import br.com.anestesiaflow.paciente.dto.PacienteImagemDTO;
+
+/**
+ * Agenda do centro cirúrgico: horário, nome do paciente e, em seguida, o "DR" responsável.
+ */
+@Component
+@Order(1)
+class PacienteOcrLayoutAgenda implements PacienteOcrLayout {
+
+	// 1. horário (\d{2}:\d{2}); 2. tudo até a quebra de linha (paciente); 3. o nome após "DR "
+	private static final Pattern AGENDA = Pattern.compile("(\\d{2}:\\d{2})\\s+([A-Z\\s]+?)\\r?\\n.*?DR\\s+([^\\n\\r]+)",
+			Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+	// O procedimento não vem de forma confiável no OCR da agenda
+	private static final String PROCEDIMENTO = "FACECTOMIA";
+
+	@Override
+	public List<PacienteImagemDTO> extrair(TextoOcr texto) {
+		List<PacienteImagemDTO> resultados = new ArrayList<>();
+		Matcher matcher = AGENDA.matcher(texto.texto());
+		while (matcher.find()) {
+			resultados.add(new PacienteImagemDTO(
+					matcher.group(2).trim(),
+					LocalDate.now(),
+					PROCEDIMENTO,
+					"DR " + matcher.group(3).trim()));
+		}
+		return resultados;
+	}
+}
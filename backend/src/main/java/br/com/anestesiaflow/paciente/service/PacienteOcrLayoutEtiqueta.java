@@ -0,0 +1,41 @@
+package br.com.anestesiaflow.paciente.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import br.com.anestesiaflow.paciente.dto.PacienteImagemDTO;
+
+/**
+ * Etiqueta de um único paciente, com "Nome:" (ou o nome na segunda linha, quando a primeira é um
+ * código como 'vita: 15702') e "Cirurgião:"/"Med.:"/"Médico:", com ou sem "Dr(a).".
+ */
+@Component
+@Order(2)
+class PacienteOcrLayoutEtiqueta implements PacienteOcrLayout {
+
+	private static final Pattern NOME = Pattern.compile("Nome:\\s*(.*)", Pattern.CASE_INSENSITIVE);
+	private static final Pattern CIRURGIAO = Pattern.compile("(?:Cirurgião|Med\\.|Médico):\\s*(?:Dr\\(a\\)\\.\\s*)?([^\n\r]+)",
+			Pattern.CASE_INSENSITIVE);
+
+	@Override
+	public List<PacienteImagemDTO> extrair(TextoOcr texto) {
+		String nome = extrair(NOME, texto.texto());
+		if (nome == null && texto.linhas().size() > 1) {
+			nome = texto.linhas().get(1).trim();
+		}
+		String cirurgiao = extrair(CIRURGIAO, texto.texto());
+
+		if (nome != null && !nome.isEmpty() && cirurgiao != null && !cirurgiao.isEmpty()) {
+			return List.of(new PacienteImagemDTO(nome, LocalDate.now(), "", cirurgiao));
+		}
+		return List.of();
+	}
+
+	private static String extrair(Pattern pattern, String texto) {
+		Matcher matcher = pattern.matcher(texto);
+		return matcher.find() ? matcher.group(1).trim() : null;
+	}
+}
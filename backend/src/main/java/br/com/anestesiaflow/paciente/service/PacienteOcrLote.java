@@ -0,0 +1,157 @@
+package br.com.anestesiaflow.paciente.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.google.cloud.vision.v1.AnnotateImageRequest;
+import com.google.cloud.vision.v1.AnnotateImageResponse;
+import com.google.cloud.vision.v1.BatchAnnotateImagesResponse;
+import com.google.cloud.vision.v1.Feature;
+import com.google.cloud.vision.v1.Image;
+import com.google.cloud.vision.v1.ImageAnnotatorClient;
+import com.google.protobuf.ByteString;
+import br.com.anestesiaflow.exception.BusinessException;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Agrupa as imagens enviadas para OCR em uma única chamada batchAnnotateImages do Vision.
+ * O lote é enviado quando enche (máximo 16 imagens, limite do Vision) ou quando passa o tempo de
+ * espera desde a primeira imagem pendente. Cada imagem recebe o seu resultado (ou erro) no
+ * próprio future, mesmo que outras imagens do lote falhem.
+ */
+@Component
+public class PacienteOcrLote {
+
+	private static final int MAXIMO_IMAGENS_VISION = 16;
+
+	private record Pendente(AnnotateImageRequest requisicao, CompletableFuture<String> resultado) {}
+
+	private final ImageAnnotatorClient client;
+	private final int tamanhoLote;
+	private final long esperaMillis;
+	private final Semaphore chamadasVision;
+	private final ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(
+			Thread.ofVirtual().name("ocr-lote-agendador").factory());
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final Object trava = new Object();
+	private List<Pendente> pendentes = new ArrayList<>();
+	private ScheduledFuture<?> envioAgendado;
+
+	public PacienteOcrLote(ImageAnnotatorClient client,
+			@Value("${app.ocr.lote.tamanho:16}") int tamanhoLote,
+			@Value("${app.ocr.lote.espera-ms:150}") long esperaMillis,
+			@Value("${app.ocr.lote.chamadas-simultaneas:2}") int chamadasSimultaneas) {
+		this.client = client;
+		this.tamanhoLote = Math.max(1, Math.min(tamanhoLote, MAXIMO_IMAGENS_VISION));
+		this.esperaMillis = esperaMillis;
+		this.chamadasVision = new Semaphore(chamadasSimultaneas);
+	}
+
+	@PreDestroy
+	public void destroy() {
+		agendador.shutdownNow();
+		executor.shutdownNow();
+		synchronized (trava) {
+			pendentes.forEach(pendente -> pendente.resultado().completeExceptionally(
+					new BusinessException("Serviço de OCR finalizado.")));
+			pendentes = new ArrayList<>();
+		}
+	}
+
+	public CompletableFuture<String> extrairTexto(byte[] imagem) {
+		Pendente pendente = new Pendente(requisicao(imagem), new CompletableFuture<>());
+		List<Pendente> loteCheio = null;
+		synchronized (trava) {
+			pendentes.add(pendente);
+			if (pendentes.size() >= tamanhoLote) {
+				loteCheio = retirarPendentes();
+			} else if (envioAgendado == null) {
+				envioAgendado = agendador.schedule(this::enviarPendentes, esperaMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+		if (loteCheio != null) {
+			enviar(loteCheio);
+		}
+		return pendente.resultado();
+	}
+
+	private AnnotateImageRequest requisicao(byte[] imagem) {
+		return AnnotateImageRequest.newBuilder()
+				.addFeatures(Feature.newBuilder().setType(Feature.Type.DOCUMENT_TEXT_DETECTION))
+				.setImage(Image.newBuilder().setContent(ByteString.copyFrom(imagem)))
+				.build();
+	}
+
+	private List<Pendente> retirarPendentes() {
+		List<Pendente> lote = pendentes;
+		pendentes = new ArrayList<>();
+		if (envioAgendado != null) {
+			envioAgendado.cancel(false);
+			envioAgendado = null;
+		}
+		return lote;
+	}
+
+	private void enviarPendentes() {
+		List<Pendente> lote;
+		synchronized (trava) {
+			envioAgendado = null;
+			if (pendentes.isEmpty()) {
+				return;
+			}
+			lote = retirarPendentes();
+		}
+		enviar(lote);
+	}
+
+	private void enviar(List<Pendente> lote) {
+		executor.submit(() -> chamarVision(lote));
+	}
+
+	private void chamarVision(List<Pendente> lote) {
+		try {
+			chamadasVision.acquire();
+			try {
+				BatchAnnotateImagesResponse resposta = client.batchAnnotateImages(
+						lote.stream().map(Pendente::requisicao).toList());
+				distribuir(lote, resposta);
+			} finally {
+				chamadasVision.release();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			falhar(lote, new BusinessException("Processamento do OCR interrompido."));
+		} catch (RuntimeException e) {
+			falhar(lote, e);
+		}
+	}
+
+	private void distribuir(List<Pendente> lote, BatchAnnotateImagesResponse resposta) {
+		for (int i = 0; i < lote.size(); i++) {
+			CompletableFuture<String> resultado = lote.get(i).resultado();
+			if (i >= resposta.getResponsesCount()) {
+				resultado.completeExceptionally(new BusinessException("O OCR não retornou resultado para a imagem."));
+				continue;
+			}
+			AnnotateImageResponse item = resposta.getResponses(i);
+			if (item.hasError() && item.getError().getCode() != 0) {
+				resultado.completeExceptionally(new BusinessException(
+						"Falha no OCR da imagem: " + item.getError().getMessage()));
+			} else {
+				resultado.complete(item.getFullTextAnnotation().getText());
+			}
+		}
+	}
+
+	private void falhar(List<Pendente> lote, Throwable erro) {
+		lote.forEach(pendente -> pendente.resultado().completeExceptionally(erro));
+	}
+}
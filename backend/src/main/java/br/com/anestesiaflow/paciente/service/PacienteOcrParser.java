@@ -0,0 +1,34 @@
+package br.com.anestesiaflow.paciente.service;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import org.springframework.stereotype.Component;
+import br.com.anestesiaflow.paciente.dto.PacienteImagemDTO;
+import br.com.anestesiaflow.paciente.service.PacienteOcrLayout.TextoOcr;
+
+/**
+ * Interpreta o texto devolvido pelo OCR: quebra em linhas uma vez e passa pelos formatos
+ * conhecidos ({@link PacienteOcrLayout}), na ordem, até algum reconhecer os pacientes.
+ */
+@Component
+public class PacienteOcrParser {
+
+	private static final Pattern QUEBRA_LINHA = Pattern.compile("\\r?\\n");
+
+	private final List<PacienteOcrLayout> layouts;
+
+	public PacienteOcrParser(List<PacienteOcrLayout> layouts) {
+		this.layouts = layouts;
+	}
+
+	public List<PacienteImagemDTO> processar(String texto) {
+		TextoOcr textoOcr = new TextoOcr(texto, List.of(QUEBRA_LINHA.split(texto)));
+		for (PacienteOcrLayout layout : layouts) {
+			List<PacienteImagemDTO> pacientes = layout.extrair(textoOcr);
+			if (!pacientes.isEmpty()) {
+				return pacientes;
+			}
+		}
+		return List.of();
+	}
+}
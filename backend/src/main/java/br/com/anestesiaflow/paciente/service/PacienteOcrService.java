@@ -0,0 +1,146 @@
+package br.com.anestesiaflow.paciente.service;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import br.com.anestesiaflow.exception.BusinessException;
+import br.com.anestesiaflow.framework.utils.CacheExpiravel;
+import br.com.anestesiaflow.paciente.dto.PacienteImagemDTO;
+import br.com.anestesiaflow.paciente.dto.PacienteOcrJobDTO;
+import br.com.anestesiaflow.paciente.dto.PacienteOcrJobDTO.Status;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fila de processamento das imagens de pacientes (OCR). O upload só registra o job e devolve o id;
+ * o processamento roda em virtual threads, limitado pela quantidade de jobs simultâneos, e o
+ * resultado fica disponível para consulta por um tempo. Os jobs que estão no OCR ao mesmo tempo
+ * são agrupados em uma única chamada ao Vision pelo {@link PacienteOcrLote}.
+ */
+@Service
+public class PacienteOcrService {
+
+	private static final Logger log = LoggerFactory.getLogger(PacienteOcrService.class);
+
+	private final PacienteService pacienteService;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final Semaphore jobsSimultaneos;
+	private final AtomicInteger emAndamento = new AtomicInteger();
+	private final int maximoFila;
+	private final CacheExpiravel<String, PacienteOcrJobDTO> jobs;
+
+	public PacienteOcrService(PacienteService pacienteService,
+			@Value("${app.ocr.concorrencia:16}") int concorrencia,
+			@Value("${app.ocr.maximo-fila:50}") int maximoFila,
+			@Value("${app.ocr.retencao-minutos:60}") long retencaoMinutos) {
+		this.pacienteService = pacienteService;
+		this.jobsSimultaneos = new Semaphore(concorrencia);
+		this.maximoFila = maximoFila;
+		this.jobs = new CacheExpiravel<>(Math.max(maximoFila * 4, 100), Duration.ofMinutes(retencaoMinutos));
+	}
+
+	@PreDestroy
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	public PacienteOcrJobDTO enfileirar(byte[] imagem, int medicoId, int cirurgiaoId, int estabelecimentoId,
+			String procedimentoTexto) {
+		reservar(1);
+		return iniciar(imagem, medicoId, cirurgiaoId, estabelecimentoId, procedimentoTexto);
+	}
+
+	/**
+	 * Enfileira o lote inteiro ou nada: as vagas de todas as imagens são reservadas de uma vez.
+	 */
+	public List<PacienteOcrJobDTO> enfileirar(List<byte[]> imagens, int medicoId, int cirurgiaoId,
+			int estabelecimentoId, String procedimentoTexto) {
+		reservar(imagens.size());
+		List<PacienteOcrJobDTO> jobs = new ArrayList<>(imagens.size());
+		for (int i = 0; i < imagens.size(); i++) {
+			try {
+				jobs.add(iniciar(imagens.get(i), medicoId, cirurgiaoId, estabelecimentoId, procedimentoTexto));
+			} catch (RuntimeException e) {
+				// A vaga da imagem que falhou já foi devolvida, faltam as seguintes
+				emAndamento.addAndGet(-(imagens.size() - i - 1));
+				throw e;
+			}
+		}
+		return jobs;
+	}
+
+	private void reservar(int quantidade) {
+		int atual;
+		do {
+			atual = emAndamento.get();
+			if (quantidade > maximoFila - atual) {
+				throw new BusinessException("Muitas imagens em processamento no momento, tente novamente em instantes.");
+			}
+		} while (!emAndamento.compareAndSet(atual, atual + quantidade));
+	}
+
+	// A vaga já foi reservada; é devolvida ao fim do processamento ou se o envio falhar
+	private PacienteOcrJobDTO iniciar(byte[] imagem, int medicoId, int cirurgiaoId, int estabelecimentoId,
+			String procedimentoTexto) {
+		PacienteOcrJobDTO job = new PacienteOcrJobDTO(UUID.randomUUID().toString(), Status.PENDENTE, null,
+				List.of(), LocalDateTime.now(), null);
+		jobs.put(job.id(), job);
+		try {
+			executor.submit(() -> processar(job, imagem, medicoId, cirurgiaoId, estabelecimentoId, procedimentoTexto));
+		} catch (RuntimeException e) {
+			emAndamento.decrementAndGet();
+			jobs.remover(job.id());
+			throw e;
+		}
+		return job;
+	}
+
+	public PacienteOcrJobDTO buscar(String id) {
+		PacienteOcrJobDTO job = id == null ? null : jobs.get(id);
+		if (job == null) {
+			throw new BusinessException("Processamento da imagem não encontrado ou expirado.");
+		}
+		return job;
+	}
+
+	private void processar(PacienteOcrJobDTO job, byte[] imagem, int medicoId, int cirurgiaoId,
+			int estabelecimentoId, String procedimentoTexto) {
+		try {
+			jobsSimultaneos.acquire();
+			try {
+				atualizar(job, Status.PROCESSANDO, null, List.of());
+				List<PacienteImagemDTO> pacientes = pacienteService.decodeImagem(new ByteArrayInputStream(imagem),
+						medicoId, cirurgiaoId, estabelecimentoId, procedimentoTexto);
+				atualizar(job, Status.CONCLUIDO, null, pacientes);
+			} finally {
+				jobsSimultaneos.release();
+			}
+		} catch (BusinessException e) {
+			atualizar(job, Status.ERRO, e.getMessage(), List.of());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			atualizar(job, Status.ERRO, "Processamento interrompido.", List.of());
+		} catch (Exception e) {
+			log.error("Erro ao processar imagem do job {}", job.id(), e);
+			atualizar(job, Status.ERRO, "Erro ao processar a imagem.", List.of());
+		} finally {
+			emAndamento.decrementAndGet();
+		}
+	}
+
+	private void atualizar(PacienteOcrJobDTO job, Status status, String mensagem, List<PacienteImagemDTO> pacientes) {
+		boolean finalizado = status == Status.CONCLUIDO || status == Status.ERRO;
+		jobs.put(job.id(), new PacienteOcrJobDTO(job.id(), status, mensagem, pacientes, job.criadoEm(),
+				finalizado ? LocalDateTime.now() : null));
+	}
+}
@@ -1,65 +1,70 @@
 package br.com.anestesiaflow.paciente.service;
 
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.stereotype.Service;
 
-import com.google.cloud.vision.v1.AnnotateImageRequest;
-import com.google.cloud.vision.v1.AnnotateImageResponse;
-import com.google.cloud.vision.v1.BatchAnnotateImagesResponse;
-import com.google.cloud.vision.v1.Feature;
-import com.google.cloud.vision.v1.Image;
-import com.google.cloud.vision.v1.ImageAnnotatorClient;
-import com.google.protobuf.ByteString;
-
 import br.com.anestesiaflow.estabelecimento.model.Estabelecimento;
 import br.com.anestesiaflow.exception.BusinessException;
-import br.com.anestesiaflow.framework.utils.DateUtils;
+import br.com.anestesiaflow.framework.utils.TextoUtils;
 import br.com.anestesiaflow.medico.model.Medico;
 import br.com.anestesiaflow.paciente.dto.PacienteImagemDTO;
+import br.com.anestesiaflow.paciente.dto.PacientePaginaResponseDTO;
+import br.com.anestesiaflow.paciente.dto.PacientePesquisaFiltroDTO;
+import br.com.anestesiaflow.paciente.dto.PacientePesquisaProjecao;
 import br.com.anestesiaflow.paciente.dto.PacientePesquisaResponseDTO;
 import br.com.anestesiaflow.paciente.dto.PacienteProcedimentoResponseDTO;
 import br.com.anestesiaflow.paciente.dto.PacienteRequestDTO;
 import br.com.anestesiaflow.paciente.dto.PacienteResponseDTO;
+import br.com.anestesiaflow.paciente.dto.PacienteSemelhanteDTO;
 import br.com.anestesiaflow.paciente.entidade.Paciente;
 import br.com.anestesiaflow.paciente.entidade.PacienteProcedimento;
+import br.com.anestesiaflow.paciente.repository.PacienteLoteRepository;
+import br.com.anestesiaflow.paciente.repository.PacienteNomeRepository;
 import br.com.anestesiaflow.paciente.repository.PacienteRepository;
-import jakarta.annotation.PreDestroy;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 
 @Service
 public class PacienteService {
 
+	private static final int LIMITE_PAGINA_PADRAO = 100;
+	private static final int LIMITE_PAGINA_MAXIMO = 500;
+
 	private final PacienteRepository pacienteRepository;
 	private final EntityManager entityManager;
-	private final ImageAnnotatorClient client;
+	private final PacienteLoteRepository pacienteLoteRepository;
+	private final PacienteOcrLote ocrLote;
+	private final PacienteOcrParser ocrParser;
+	private final PacienteNomeRepository pacienteNomeRepository;
+	private final PacienteFinanceiroService financeiroService;
 	
 	public PacienteService(PacienteRepository pacienteRespository, EntityManager entityManager,
-			ImageAnnotatorClient client)  throws Exception {
+			PacienteLoteRepository pacienteLoteRepository, PacienteOcrLote ocrLote,
+			PacienteOcrParser ocrParser, PacienteNomeRepository pacienteNomeRepository,
+			PacienteFinanceiroService financeiroService)  throws Exception {
 		this.pacienteRepository = pacienteRespository;
 		this.entityManager = entityManager;
-		this.client = client;
+		this.pacienteLoteRepository = pacienteLoteRepository;
+		this.ocrLote = ocrLote;
+		this.ocrParser = ocrParser;
+		this.pacienteNomeRepository = pacienteNomeRepository;
+		this.financeiroService = financeiroService;
 	}
 	
-    @PreDestroy
-    public void destroy() {
-        if (client != null) {
-            client.close();
-        }
-    }
-	
 	public List<PacientePesquisaResponseDTO> listarTodos(){
 		return listar(null);
 	}
@@ -69,30 +74,98 @@ public class PacienteService {
 	}
 
 	public List<PacientePesquisaResponseDTO> listar(Map<String, Object> filtros){
+		return pesquisar(filtroPesquisa(filtros), null, null, null);
+	}
+
+	/**
+	 * Página da pesquisa ordenada por (nome, id). O cursor devolvido aponta para o último paciente
+	 * da página e vem nulo quando não há mais registros.
+	 */
+	public PacientePaginaResponseDTO listarPagina(Map<String, Object> filtros) {
+		PacientePesquisaFiltroDTO filtro = filtroPesquisa(filtros);
+		Integer limiteInformado = normalizarInteiro(filtros == null ? null : filtros.get("limite"));
+		int limite = limiteInformado == null ? LIMITE_PAGINA_PADRAO
+				: Math.max(1, Math.min(limiteInformado, LIMITE_PAGINA_MAXIMO));
+
+		String cursorNome = null;
+		Integer cursorId = null;
+		String cursor = normalizarTexto(filtros == null ? null : filtros.get("cursor"));
+		if (cursor != null) {
+			try {
+				String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+				int separador = valor.indexOf(':');
+				cursorId = Integer.valueOf(valor.substring(0, separador));
+				cursorNome = valor.substring(separador + 1);
+			} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+				throw new BusinessException("Cursor de paginação inválido.");
+			}
+		}
+
+		// Busca um a mais só para saber se existe próxima página
+		List<PacientePesquisaResponseDTO> pacientes = pesquisar(filtro, cursorNome, cursorId, limite + 1);
+		if (pacientes.size() <= limite) {
+			return new PacientePaginaResponseDTO(pacientes, null);
+		}
+		pacientes = pacientes.subList(0, limite);
+		PacientePesquisaResponseDTO ultimo = pacientes.get(limite - 1);
+		// Mesmo valor da ordenação da pesquisa: nome nulo vira ''
+		String nome = ultimo.nome() == null ? "" : ultimo.nome();
+		String proximoCursor = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((ultimo.id() + ":" + nome).getBytes(StandardCharsets.UTF_8));
+		return new PacientePaginaResponseDTO(pacientes, proximoCursor);
+	}
+
+	/**
+	 * Percorre a pesquisa inteira lendo do banco aos poucos (fetch size), sem montar a lista em memória.
+	 * Precisa da transação aberta enquanto o stream é consumido.
+	 */
+	@Transactional
+	public void percorrer(PacientePesquisaFiltroDTO filtro, Consumer<PacientePesquisaResponseDTO> consumidor) {
+		try (Stream<PacientePesquisaProjecao> pacientes = pacienteRepository.streamPacientes(filtro.ativo(),
+				filtro.nomeLike(), filtro.pago(), filtro.dataProcInicio(), filtro.dataProcFim(), filtro.cirurgiaoId(),
+				filtro.usarFiltroPeriodo(), filtro.aplicarFiltroProcedimento(), null, null)) {
+			pacientes.map(this::mapperToPesquisaDto).forEach(consumidor);
+		}
+	}
+
+	public PacientePesquisaFiltroDTO filtroPesquisa(Map<String, Object> filtros) {
 		Boolean ativo = normalizarBooleano(filtros == null ? null : filtros.get("ativo"));
 		String nomeLike = normalizarTextoLike(filtros == null ? null : filtros.get("nome"));
 		Boolean pago = normalizarBooleano(filtros == null ? null : filtros.get("pago"));
 		LocalDate dataProcInicio = normalizarData(filtros == null ? null : filtros.get("dataProcInicio"));
 		LocalDate dataProcFim = normalizarData(filtros == null ? null : filtros.get("dataProcFim"));
 		Integer cirurgiaoId = normalizarInteiro(filtros == null ? null : filtros.get("cirurgiaoId"));
-		boolean usarFiltroPeriodo = dataProcInicio != null || dataProcFim != null;
 		if (dataProcInicio == null ^ dataProcFim == null) {
 			throw new BusinessException("Para filtrar por data, informe a data inicial e a data final.");
 		} 
 		if (dataProcInicio != null && dataProcFim != null && dataProcInicio.isAfter(dataProcFim)) {
 			throw new BusinessException("A data inicial não pode ser maior que a data final.");
 		}
-		boolean aplicarFiltroProcedimento = pago != null
-				|| usarFiltroPeriodo
-				|| cirurgiaoId != null;
+		return new PacientePesquisaFiltroDTO(ativo, nomeLike, pago, dataProcInicio, dataProcFim, cirurgiaoId);
+	}
 
-	return pacienteRepository
-				.filtrarPacientes(ativo, nomeLike, pago, dataProcInicio, dataProcFim, cirurgiaoId, usarFiltroPeriodo, aplicarFiltroProcedimento)
+	private List<PacientePesquisaResponseDTO> pesquisar(PacientePesquisaFiltroDTO filtro, String cursorNome,
+			Integer cursorId, Integer limite) {
+		return pacienteRepository
+				.pesquisarPacientes(filtro.ativo(), filtro.nomeLike(), filtro.pago(), filtro.dataProcInicio(),
+						filtro.dataProcFim(), filtro.cirurgiaoId(), filtro.usarFiltroPeriodo(),
+						filtro.aplicarFiltroProcedimento(), cursorNome, cursorId, limite)
 				.stream()
-				.map(paciente -> mapperToPesquisaDto(paciente, pago, dataProcInicio, dataProcFim, cirurgiaoId))
+				.map(this::mapperToPesquisaDto)
 				.toList();
 	}
 	
+	public List<PacienteSemelhanteDTO> buscarPorNome(Map<String, Object> filtros) {
+		String nome = normalizarTexto(filtros == null ? null : filtros.get("nome"));
+		if (nome == null) {
+			throw new BusinessException("Informe o nome do paciente.");
+		}
+		Boolean ativo = normalizarBooleano(filtros.get("ativo"));
+		Integer limite = normalizarInteiro(filtros.get("limite"));
+		return pacienteNomeRepository.buscarSemelhantes(nome, ativo,
+				limite == null ? 20 : Math.max(1, Math.min(limite, LIMITE_PAGINA_MAXIMO)));
+	}
+	
 	public PacienteResponseDTO buscaId(Integer id) {
 		Paciente paciente = pacienteRepository.findById(id).orElseThrow(() -> new BusinessException("Paciente não encontrado")); 
 		return mapperToDto(paciente);
@@ -100,6 +173,7 @@ public class PacienteService {
 	
 	@Transactional
 	public PacienteResponseDTO salvar(PacienteRequestDTO dto) {
+		financeiroService.limpar();
 		return mapperToDto(pacienteRepository.save(mapperToPaciente(dto)));
 	}
 	
@@ -109,6 +183,7 @@ public class PacienteService {
 	            .orElseThrow(() -> new BusinessException("Paciente não encontrado"));
 	    
 	    paciente = mapperToPaciente(paciente, request);
+	    financeiroService.limpar();
 
 	    return mapperToDto(pacienteRepository.save(paciente));
 	}	
@@ -121,68 +196,21 @@ public class PacienteService {
 	    }
 	    
 	    pacienteRepository.deleteById(id);
+	    financeiroService.limpar();
 	}
 	
-	private PacientePesquisaResponseDTO mapperToPesquisaDto(Paciente paciente, Boolean pago, LocalDate dataProcInicio, LocalDate dataProcFim, Integer cirurgiaoId) {
-		StringBuilder dataExibir = new StringBuilder();
-		StringBuilder procedimentoExibir = new StringBuilder();
-		double valorPrevistoExibir = 0;
-		double valorEfetivoExibir = 0;
-		for (PacienteProcedimento procedimento : paciente.getProcedimentos()) {
-			if (!deveIncluirProcedimentoNaPesquisa(procedimento, pago, dataProcInicio, dataProcFim, cirurgiaoId)) {
-				continue;
-			}
-
-			if (dataExibir.length() > 0) {
-				dataExibir.append(", ");
-			}
-			dataExibir.append(DateUtils.formatToPtBr(procedimento.getDataProcedimento()));
-			if (procedimentoExibir.length() > 0) {
-				procedimentoExibir.append(", ");
-			}
-			procedimentoExibir.append(procedimento.getProcedimento());
-			valorPrevistoExibir += procedimento.getValorPrevisto();
-			valorEfetivoExibir += procedimento.getValorEfetivo();
-		}
+	private PacientePesquisaResponseDTO mapperToPesquisaDto(PacientePesquisaProjecao projecao) {
 		return new PacientePesquisaResponseDTO(
-			paciente.getId(),
-			paciente.getNome(),
-			dataExibir.toString(),
-			procedimentoExibir.toString(),
-			valorPrevistoExibir,
-			valorEfetivoExibir,
-			paciente.isAtivo()
+			projecao.getId(),
+			projecao.getNome(),
+			projecao.getDataProcedimentoExibir(),
+			projecao.getProcedimentoExibir(),
+			projecao.getValorPrevistoExibir(),
+			projecao.getValorEfetivoExibir(),
+			projecao.getAtivo()
 		);
 	}
 
-	private boolean deveIncluirProcedimentoNaPesquisa(PacienteProcedimento procedimento, Boolean pago, LocalDate dataProcInicio, LocalDate dataProcFim, Integer cirurgiaoId) {
-		if (procedimento == null) {
-			return false;
-		}
-
-		if (pago != null && procedimento.isPago() != pago) {
-			return false;
-		}
-
-		if (cirurgiaoId != null && procedimento.getCirurgiao() != null && !cirurgiaoId.equals(procedimento.getCirurgiao().getId())) {
-			return false;
-		}
-
-		if (cirurgiaoId != null && procedimento.getCirurgiao() == null) {
-			return false;
-		}
-
-		if (dataProcInicio != null && dataProcFim != null) {
-			if (procedimento.getDataProcedimento() == null
-					|| procedimento.getDataProcedimento().isBefore(dataProcInicio)
-					|| procedimento.getDataProcedimento().isAfter(dataProcFim)) {
-				return false;
-			}
-		}
-
-		return true;
-	}
-
 	private PacienteResponseDTO mapperToDto(Paciente paciente) {
 		return new PacienteResponseDTO(
 				paciente.getId(),
@@ -284,8 +312,9 @@ public class PacienteService {
 	}
 
 	private String normalizarTextoLike(Object valor) {
+		// Mesmo formato de normalizar_nome(nome) no banco, que tem índice de trigramas
 		String texto = normalizarTexto(valor);
-		return texto == null ? null : "%" + texto.toLowerCase() + "%";
+		return texto == null ? null : "%" + TextoUtils.normalizar(texto) + "%";
 	}
 
 	private Boolean normalizarBooleano(Object valor) {
@@ -346,170 +375,32 @@ public class PacienteService {
 		}
 	}
 	
-	public void decodeImagem(InputStream inputStream, int medicoId, int cirurgiaoId, 
+	public List<PacienteImagemDTO> decodeImagem(InputStream inputStream, int medicoId, int cirurgiaoId, 
 				int estabelecimentoId, String procedimentoTexto) throws Exception  {
 		String dados = extrairTexto(inputStream);
 		if (dados == null || dados.isEmpty()) {
 			throw new BusinessException("Não foi encontrado nenhum texto na imagem fornecida.");
 		}
-		List<PacienteImagemDTO> processa = processarTexto(dados); 
+		List<PacienteImagemDTO> processa = ocrParser.processar(dados);
 		
 		if (processa.isEmpty()) {
 			throw new BusinessException("Não foi possível decodificar os dados do(s) paciente(s) da image fornecida.");
 		}
 		
-		for(PacienteImagemDTO item : processa) {
-			Paciente paciente = pacienteRepository.findByNome(item.nome().toUpperCase());
-			if (paciente == null) {
-				paciente = new Paciente();
-				paciente.setNome(item.nome().toUpperCase());
-				paciente.setAtivo(true);
-				pacienteRepository.save(paciente);
-			}
-			final PacienteProcedimento procedimento = pacienteRepository.findByProcedimentoData(paciente, item.dataProcedimento(), procedimentoTexto.toUpperCase());	
-			if (procedimento == null) {
-				PacienteProcedimento proc = new PacienteProcedimento();
-				proc.setPaciente(paciente);
-				proc.setMedico(entityManager.getReference(Medico.class, medicoId));
-				proc.setDataProcedimento(item.dataProcedimento());
-				proc.setProcedimento(procedimentoTexto.toUpperCase());
-				proc.setCirurgiao(entityManager.getReference(Medico.class, cirurgiaoId));
-				proc.setEstabelecimento(entityManager.getReference(Estabelecimento.class, estabelecimentoId));
-				paciente.getProcedimentos().add(proc);
-				pacienteRepository.save(paciente);
-			} else {
-				paciente.getProcedimentos().forEach(itemPro -> {
-					if (itemPro.getId().equals(procedimento.getId())) {
-						itemPro.setMedico(entityManager.getReference(Medico.class, medicoId));
-						itemPro.setDataProcedimento(item.dataProcedimento());
-						itemPro.setProcedimento(procedimentoTexto.toUpperCase());
-						itemPro.setCirurgiao(entityManager.getReference(Medico.class, cirurgiaoId));
-						itemPro.setEstabelecimento(entityManager.getReference(Estabelecimento.class, estabelecimentoId));
-					}
-				});		
-				pacienteRepository.save(paciente);
-			}
-		}
+		pacienteLoteRepository.gravar(processa, medicoId, cirurgiaoId, estabelecimentoId,
+				procedimentoTexto.toUpperCase());
+		financeiroService.invalidar(processa.stream().map(PacienteImagemDTO::dataProcedimento).toList());
+		return processa;
 	}
 	
 	private String extrairTexto(InputStream inputStream) throws Exception {
-        ByteString imgBytes = ByteString.readFrom(inputStream);
-
-        Image image = Image.newBuilder()
-                .setContent(imgBytes)
-                .build();
-
-        Feature feature = Feature.newBuilder()
-                .setType(Feature.Type.DOCUMENT_TEXT_DETECTION)
-                .build();
-
-        AnnotateImageRequest request = AnnotateImageRequest.newBuilder()
-                .addFeatures(feature)
-                .setImage(image)
-                .build();
-
-        BatchAnnotateImagesResponse response =
-                client.batchAnnotateImages(List.of(request));
-
-        List<AnnotateImageResponse> responses = response.getResponsesList();
-
-        if (responses.isEmpty()) {
-            return "";
-        }
-
-        return responses.get(0)
-                .getFullTextAnnotation()
-                .getText();
-    
-    }
-	
-   private String extrair(String texto, String regex) {
-        Matcher m = Pattern.compile(regex, Pattern.CASE_INSENSITIVE).matcher(texto);
-        return m.find() ? m.group(1).trim() : null;
-   }
-   
-//    private LocalDate converterDataAgenda(String dataStr) {
-// 	    if (dataStr == null) return LocalDate.now();
-// 	    try {
-// 	        // Ajuste para o local brasileiro para entender "abril"
-// 	        DateTimeFormatter parser = DateTimeFormatter.ofPattern("dd 'de' MMMM 'de' yyyy", Locale.of("pt", "BR"));
-// 	        return LocalDate.parse(dataStr.toLowerCase(), parser);
-// 	    } catch (Exception e) {
-// 	        return LocalDate.now();
-// 	    }
-// 	}
-   
-   private List<PacienteImagemDTO> processarTexto(String texto) {
-	    List<PacienteImagemDTO> resultados = new ArrayList<>();
-
-	 // Extração da data (mantendo sua lógica que parece correta para o header)
-	    // String dataAgendaStr = extrair(texto, "(\\d{2} de [a-z]+ de \\d{4})");
-	    // LocalDate dataProcedimento = converterDataAgenda(dataAgendaStr);
-
-	    // Nova Regex: 
-	    // 1. Procura o horário (\\d{2}:\\d{2})
-	    // 2. Captura tudo o que vem depois até encontrar "DR " (Médico)
-	    // 3. Captura o nome do médico
-	    Pattern patternAgenda = Pattern.compile("(\\d{2}:\\d{2})\\s+([A-Z\\s]+?)\\r?\\n.*?DR\\s+([^\\n\\r]+)", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
-	    Matcher matcher = patternAgenda.matcher(texto);
-
-	    while (matcher.find()) {
-	        String nomePaciente = matcher.group(2).trim();
-	        String nomeMedico = "DR " + matcher.group(3).trim();
-	        
-	        // O procedimento geralmente está logo abaixo do nome do paciente na imagem
-	        // Como o OCR pode misturar, aqui pegamos uma constante ou tentamos extrair entre o nome e o DR
-	        String procedimento = "FACECTOMIA"; // Baseado na imagem enviada
-
-	        resultados.add(new PacienteImagemDTO(
-	            nomePaciente, 
-	            LocalDate.now(), 
-	            procedimento, 
-	            nomeMedico
-	        ));
-	    }
-
-	    // 2. SE NÃO ACHOU NADA COMO AGENDA, TENTA PADRÃO DE ETIQUETA ÚNICA
-	    if (resultados.isEmpty()) {
-	        // Aproveita o seu método parse existente que já lida com os dois tipos de etiqueta
-	    	PacienteImagemDTO unico = parse(texto);
-	        if (unico != null) {
-	            resultados.add(unico);
-	        }
-	    }
-
-	    return resultados;
-	}
-   
-   public PacienteImagemDTO parse(String texto) {
-
-		String nome = extrair(texto, "Nome:\\s*(.*)");
-		if (nome == null) {
-			// Fallback: Tenta pegar a segunda linha se a primeira for um código/ID (como 'vita: 15702')
-			String[] linhas = texto.split("\\r?\\n");
-				if (linhas.length > 1) {
-			    	nome = linhas[1].trim(); 
-				}
-		}
-		// Regex para Cirurgião: Ignora o prefixo "Dr(a)." se existir e captura o nome
-		// A regex abaixo procura por "Cirurgião:", ignora opcionalmente "Dr(a)." e pega o resto da linha
-		String cirurgiao = extrair(texto, "(?:Cirurgião|Med\\.|Médico):\\s*(?:Dr\\(a\\)\\.\\s*)?([^\n\r]+)");
-		
-		LocalDate data = LocalDate.now();
-		
-		String procedimento = "";
-		
-		if (nome != null && !nome.isEmpty() && cirurgiao != null && !cirurgiao.isEmpty()) {
-			PacienteImagemDTO dto = new PacienteImagemDTO(
-				   nome,
-				   data,
-				   procedimento,
-				   cirurgiao
-				   );
-			
-			return dto;
+		try {
+			return ocrLote.extrairTexto(inputStream.readAllBytes()).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof Exception causa) {
+				throw causa;
+			}
+			throw e;
 		}
-		
-		return null;
-   }
-}
+	}
+}
\ No newline at end of file
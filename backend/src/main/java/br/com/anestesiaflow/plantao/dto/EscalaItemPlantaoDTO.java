@@ -12,5 +12,5 @@ public record EscalaItemPlantaoDTO(
 	    boolean reagendado,
 	    LocalTime hora,
 	    String cor,
-	    byte[] icone
+	    String iconeUrl
 ) {}
\ No newline at end of file
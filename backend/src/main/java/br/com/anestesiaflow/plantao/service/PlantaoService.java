@@ -10,8 +10,13 @@ import org.springframework.transaction.annotation.Transactional;
 import br.com.anestesiaflow.escala.entidade.Escala;
 import br.com.anestesiaflow.escala.entidade.EscalaItem;
 import br.com.anestesiaflow.escala.repository.EscalaRepository;
+import br.com.anestesiaflow.escala.service.EscalaEventos;
+import br.com.anestesiaflow.escala.service.EscalaGradeCache;
+import br.com.anestesiaflow.escala.service.EscalaResumoMensal;
+import br.com.anestesiaflow.escala.service.EscalaSimetriaContadores;
 import br.com.anestesiaflow.estabelecimento.dto.EstabelecimentoResponseDTO;
 import br.com.anestesiaflow.estabelecimento.model.Estabelecimento;
+import br.com.anestesiaflow.estabelecimento.service.EstabelecimentoCatalogo;
 import br.com.anestesiaflow.medico.dto.MedicoResponseDTO;
 import br.com.anestesiaflow.medico.model.Medico;
 import br.com.anestesiaflow.medico.model.MedicoEspecialidade;
@@ -24,10 +29,23 @@ public class PlantaoService {
 
 	private final EntityManager entityManager;
 	private final EscalaRepository escalaRepository;
+	private final EscalaGradeCache gradeCache;
+	private final EscalaResumoMensal resumoMensal;
+	private final EscalaSimetriaContadores simetria;
+	private final EstabelecimentoCatalogo estabelecimentoCatalogo;
+	private final EscalaEventos eventos;
 	
-	public PlantaoService(EntityManager entityManager, EscalaRepository escalaRepository) {
+	public PlantaoService(EntityManager entityManager, EscalaRepository escalaRepository,
+			EscalaGradeCache gradeCache, EscalaResumoMensal resumoMensal,
+			EscalaSimetriaContadores simetria, EstabelecimentoCatalogo estabelecimentoCatalogo,
+			EscalaEventos eventos) {
 		this.entityManager = entityManager;
 		this.escalaRepository = escalaRepository;
+		this.gradeCache = gradeCache;
+		this.resumoMensal = resumoMensal;
+		this.simetria = simetria;
+		this.estabelecimentoCatalogo = estabelecimentoCatalogo;
+		this.eventos = eventos;
 	}
 	
 	public List<EscalaPlantaoDTO> listarPorData(LocalDate data){
@@ -39,8 +57,18 @@ public class PlantaoService {
 	@Transactional
 	public EscalaPlantaoDTO salvar(EscalaPlantaoDTO dto) {
 		Escala persiste = null;
+		gradeCache.invalidar(dto.data());
+		resumoMensal.registrar(dto.data());
+		simetria.atualizar(dto.data());
+		eventos.publicar(dto.data());
 		if (dto.id() > 0) {
 			persiste = escalaRepository.findById(dto.id()).orElse(null);
+			if (persiste != null) {
+				gradeCache.invalidar(persiste.getData());
+				resumoMensal.registrar(persiste.getData());
+				simetria.atualizar(persiste.getData());
+				eventos.publicar(persiste.getData());
+			}
 		}
 		
 		if (persiste == null) {
@@ -98,7 +126,11 @@ public class PlantaoService {
 	}
 	
 	public int arquivarPlantao(LocalDate date) {
-		return escalaRepository.arquivarItensPorData(date); 
+		int arquivados = escalaRepository.arquivarItensPorData(date);
+		gradeCache.invalidar(date);
+		simetria.atualizar(date);
+		eventos.publicar(date);
+		return arquivados;
 	}
 	
 	public boolean existeArquivo(LocalDate data) {
@@ -145,31 +177,19 @@ public class PlantaoService {
 	}
 	
 	private EscalaItemPlantaoDTO mapperItemToPlantao(EscalaItem item) {
+		EstabelecimentoResponseDTO estabelecimento = estabelecimentoCatalogo.obterSemIcone(item.getEstabelecimento().getId());
 		return new EscalaItemPlantaoDTO(
 				item.getId(),
-				mapperEstabelecimentoToDto(item.getEstabelecimento()),
-				item.getEstabelecimento().getId(),
+				estabelecimento,
+				estabelecimento.id(),
 				item.getArquivado(),
 				item.isReagendado(),
 				item.getHora(),
-				item.getEstabelecimento().getCor(),
-				item.getEstabelecimento().getIcone()
+				estabelecimento.cor(),
+				estabelecimentoCatalogo.urlIcone(estabelecimento.id())
 		);
 	}
 	
-	private EstabelecimentoResponseDTO mapperEstabelecimentoToDto(Estabelecimento estabelecimento) {
-		return new EstabelecimentoResponseDTO(
-				estabelecimento.getId(), 
-				estabelecimento.getNome(), 
-				estabelecimento.getCor(), 
-				estabelecimento.getSigla(), 
-				estabelecimento.getIcone(), 
-				estabelecimento.isPlantao(), 
-				estabelecimento.isAtivo(), 
-				estabelecimento.getDataCriacao(), 
-				estabelecimento.getDataAtualizacao());
-	}
-	
 	private Escala mapperPlantaoToEscala(EscalaPlantaoDTO dto) {
 		Escala retorno = new Escala();
 		retorno.setData(dto.data());
@@ -1,24 +1,33 @@
 package br.com.anestesiaflow.publicview.escala;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import br.com.anestesiaflow.escala.dto.EscalaSemanaDTO;
+import br.com.anestesiaflow.escala.service.EscalaEventos;
 import br.com.anestesiaflow.escala.service.EscalaService;
+import br.com.anestesiaflow.escala.service.EscalaVersoes;
 import br.com.anestesiaflow.medico.dto.MedicoResponseDTO;
 import br.com.anestesiaflow.medico.service.MedicoService;
 import br.com.anestesiaflow.publicview.BasePublicController;
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/escala")
@@ -26,11 +35,16 @@ public class EscalaViewController implements BasePublicController {
     
 	private final MedicoService medicoService;
 	private final EscalaService escalaService;
+	private final EscalaVersoes versoes;
+	private final EscalaEventos eventos;
 	private final Map<String, Object> filtrosMedico = new HashMap<>();
 	
-	public EscalaViewController(MedicoService medicoService, EscalaService escalaService) {
+	public EscalaViewController(MedicoService medicoService, EscalaService escalaService, EscalaVersoes versoes,
+			EscalaEventos eventos) {
 		this.medicoService = medicoService;
 		this.escalaService = escalaService;
+		this.versoes = versoes;
+		this.eventos = eventos;
 		filtrosMedico.put("especialidades", Arrays.asList(1));
 	}
 	
@@ -41,8 +55,25 @@ public class EscalaViewController implements BasePublicController {
     
     @GetMapping("/escalassemanais")
     public ResponseEntity<List<EscalaSemanaDTO>> escalas(@RequestParam int medicoId, 
-    				@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data){
-    	return ResponseEntity.ok(escalaService.listarSemanasMedicos(medicoId, data));
+    				@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data, WebRequest request){
+    	// A listagem traz todas as semanas a partir da semana da data
+    	LocalDate segunda = data.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    	String etag = versoes.etag("semanas-" + medicoId + "-" + segunda, versoes.versaoDesde(segunda));
+    	if (request.checkNotModified(etag)) {
+    		return null;
+    	}
+    	return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+    			.body(escalaService.listarSemanasMedicos(medicoId, data));
+    }
+
+    /**
+     * Avisos (SSE) de alteração da escala na data: sudoku e plantão recarregam ao receber
+     * o evento "alteracao" em vez de consultar em intervalos.
+     */
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter eventos(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+    		HttpServletRequest request) {
+    	return eventos.assinar(data, request.getRemoteAddr());
     }
 
     private Map<String, Object> normalizarFiltros(MultiValueMap<String, String> filtros) {
@@ -1,13 +1,19 @@
 package br.com.anestesiaflow.publicview.estabelecimento;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import br.com.anestesiaflow.estabelecimento.dto.EstabelecimentoIconeDTO;
 import br.com.anestesiaflow.estabelecimento.dto.EstabelecimentoResponseDTO;
 import br.com.anestesiaflow.estabelecimento.service.EstabelecimentoService;
 import br.com.anestesiaflow.publicview.BasePublicController;
@@ -28,5 +34,29 @@ public class EstabelecimentoViewController implements BasePublicController {
         
         return ResponseEntity.ok(estService.listarTodos());
     }
-	
+    
+    /**
+     * Ícone do estabelecimento (PNG). O navegador revalida pelo ETag e recebe 304 enquanto o ícone
+     * não muda, sem baixar os bytes de novo. Pelo endereço das grades (com a versão atual em v) a
+     * imagem pode ficar guardada sem revalidar: um ícone novo tem outro endereço.
+     */
+    @GetMapping("/{id}/icone")
+    public ResponseEntity<byte[]> icone(@PathVariable int id, @RequestParam(required = false) String v,
+    		WebRequest request) {
+    	EstabelecimentoIconeDTO icone = estService.buscarIcone(id);
+    	if (icone == null) {
+    		return ResponseEntity.notFound().build();
+    	}
+    	if (request.checkNotModified(icone.etag())) {
+    		return null;
+    	}
+    	boolean versaoAtual = v != null && icone.etag().equals("\"" + v + "\"");
+    	return ResponseEntity.ok()
+    			.eTag(icone.etag())
+    			.cacheControl(versaoAtual
+    					? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+    					: CacheControl.noCache().cachePublic())
+    			.contentType(MediaType.IMAGE_PNG)
+    			.body(icone.icone());
+    }
 }
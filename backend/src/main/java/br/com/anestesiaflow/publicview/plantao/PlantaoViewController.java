@@ -4,12 +4,15 @@ import java.time.LocalDate;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import br.com.anestesiaflow.escala.service.EscalaVersoes;
 import br.com.anestesiaflow.plantao.dto.EscalaPlantaoDTO;
 import br.com.anestesiaflow.plantao.service.PlantaoService;
 import br.com.anestesiaflow.publicview.BasePublicController;
@@ -21,21 +24,34 @@ public class PlantaoViewController implements BasePublicController {
 	@Autowired
 	private PlantaoService plantaoService;
 	
+	@Autowired
+	private EscalaVersoes versoes;
+	
 	@GetMapping("/plantoes")
 	public ResponseEntity<List<LocalDate>> listarPlantoes(@Validated 
-				@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+				@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data, WebRequest request) {
 		LocalDate inicio = LocalDate.of(data.getYear(), data.getMonth(), 1);
 	    LocalDate fim = inicio.withDayOfMonth(inicio.lengthOfMonth());
 	    
+	    String etag = versoes.etag("plantoes-" + inicio, versoes.versao(inicio, fim));
+	    if (request.checkNotModified(etag)) {
+	    	return null;
+	    }
+	    
 	    List<LocalDate> datas = plantaoService.datasPlantao(inicio, fim);
 	                                        
-	    return ResponseEntity.ok(datas);
+	    return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(datas);
 	}
 	
 	@GetMapping("/listar")
 	public ResponseEntity<List<EscalaPlantaoDTO>> listarDia(@Validated 
-			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
-		return ResponseEntity.ok(plantaoService.listarPorData(data));
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data, WebRequest request) {
+		String etag = versoes.etag("plantao-" + data, versoes.versao(data, data));
+		if (request.checkNotModified(etag)) {
+			return null;
+		}
+		return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+				.body(plantaoService.listarPorData(data));
 	}
 	
 }
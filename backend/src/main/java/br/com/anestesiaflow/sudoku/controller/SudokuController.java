@@ -77,7 +77,7 @@ public class SudokuController {
 	@PreAuthorize("@auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).SUDOKU_ARQUIVAR)")
 	@PostMapping("/arquivar")
 	public ResponseEntity<Integer> arquivar(@Validated @RequestBody LocalDate dataEscala) {
-		return ResponseEntity.ok(escalaRepository.arquivarItensPorData(dataEscala));
+		return ResponseEntity.ok(escalaService.arquivarPorData(dataEscala));
 	}
 	
 	@PreAuthorize("@auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).SUDOKU_ACESSAR)")
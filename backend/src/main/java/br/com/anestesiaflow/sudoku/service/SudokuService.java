@@ -1,13 +1,10 @@
 package br.com.anestesiaflow.sudoku.service;
 
 import java.time.LocalDate;
-import java.time.LocalTime;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 import org.springframework.stereotype.Service;
 
@@ -16,6 +13,10 @@ import br.com.anestesiaflow.escala.dto.EscalaResponseDTO;
 import br.com.anestesiaflow.escala.entidade.Escala;
 import br.com.anestesiaflow.escala.entidade.EscalaItem;
 import br.com.anestesiaflow.escala.repository.EscalaRepository;
+import br.com.anestesiaflow.escala.service.EscalaGradeCache;
+import br.com.anestesiaflow.escala.service.EscalaGradeDiaria;
+import br.com.anestesiaflow.estabelecimento.dto.EstabelecimentoResponseDTO;
+import br.com.anestesiaflow.estabelecimento.service.EstabelecimentoCatalogo;
 import br.com.anestesiaflow.medico.service.MedicoService;
 
 @Service
@@ -23,49 +24,26 @@ public class SudokuService {
 
 	private final EscalaRepository escalaRepository;
 	private final MedicoService medicoService;
+	private final EscalaGradeDiaria gradeDiaria;
+	private final EscalaGradeCache gradeCache;
+	private final EstabelecimentoCatalogo estabelecimentoCatalogo;
 	private final Map<String, Object> filtrosMedico = new HashMap<>();
 	
-	public SudokuService(EscalaRepository escalaRepository, MedicoService medicoService) {
+	public SudokuService(EscalaRepository escalaRepository, MedicoService medicoService, EscalaGradeDiaria gradeDiaria,
+			EscalaGradeCache gradeCache, EstabelecimentoCatalogo estabelecimentoCatalogo) {
 		this.escalaRepository = escalaRepository;
 		this.medicoService = medicoService;
+		this.gradeDiaria = gradeDiaria;
+		this.gradeCache = gradeCache;
+		this.estabelecimentoCatalogo = estabelecimentoCatalogo;
 		filtrosMedico.put("ativo", true);
 		filtrosMedico.put("especialidades", Arrays.asList(1));
 	}
 	
 	public List<EscalaResponseDTO> listarPorData(LocalDate data){
-		List<Escala> escalas = escalaRepository.findByData(data, null);
-		
-		return medicoService.listar(filtrosMedico).stream().map(medico -> {
-			
-			Optional<Escala> escalaPlantao = escalas.stream().
-					filter(escala -> escala.isPlantao() && escala.getMedico().getId().equals(medico.id())).
-					findFirst();
-			
-			Optional<Escala> escalaNPlantao = escalas.stream().
-					filter(escala -> !escala.isPlantao() && escala.getMedico().getId().equals(medico.id())).
-					findFirst();
-			
-			if (!escalaPlantao.isPresent() && escalaNPlantao.isPresent()) {
-				return mapperToDto(escalaNPlantao.get(), false);
-			}
-			
-			if (escalaPlantao.isPresent() && !escalaNPlantao.isPresent()) {
-				return mapperToDto(escalaPlantao.get(), false);
-			} 
-			
-			if (escalaPlantao.isPresent() && escalaNPlantao.isPresent()) {
-				return mapperToDtoMerge(escalaNPlantao.get(), escalaPlantao.get());
-			}
-				
-			return new EscalaResponseDTO(
-						null,
-						medico.id(),
-						medico.sigla(),
-						data,
-						false,
-						new ArrayList<>());
-		}).toList();
-		
+		return gradeCache.buscar(data, null, true, () ->
+				gradeDiaria.montar(data, escalaRepository.findByData(data, null),
+						medicoService.listar(filtrosMedico), true));
 	}
 	
 	public List<EscalaResponseDTO> listarPorDataNorutno(LocalDate data){
@@ -96,36 +74,15 @@ public class SudokuService {
 							.map(this::mapperToDto).toList());
 	}
 	
-	private EscalaResponseDTO mapperToDtoMerge(Escala escala, Escala escalaPlantao) {
-		List<EscalaItem> itensMerge = new ArrayList<>();
-		escala.getItens().stream()
-				.filter(item -> !item.isReagendado())
-				.forEach(item -> itensMerge.add(item));
-		escalaPlantao.getItens().stream()
-			.filter(item -> {
-				LocalTime inicio = LocalTime.of(7, 0);
-		        LocalTime fim = LocalTime.of(19, 0);
-		        boolean estaNoIntervalo = !item.getHora().isBefore(inicio) && !item.getHora().isAfter(fim);
-				return !item.isReagendado() && estaNoIntervalo;
-			}).forEach(item -> itensMerge.add(item));
-		return new EscalaResponseDTO(
-					escala.getId(), 
-					escala.getMedico().getId(),
-					escala.getMedico().getSigla(),
-					escala.getData(),
-					escala.isPlantao(),
-					itensMerge.stream().map(this::mapperToDto).toList()
-					);
-	}
-	
 	private EscalaItemResponseDTO mapperToDto(EscalaItem escalaItem) {	
+		EstabelecimentoResponseDTO estabelecimento = estabelecimentoCatalogo.obter(escalaItem.getEstabelecimento().getId());
 		return new EscalaItemResponseDTO(
 				escalaItem.getId(),
-				escalaItem.getEstabelecimento().getId(),
-				escalaItem.getEstabelecimento().getSigla(),
+				estabelecimento.id(),
+				estabelecimento.sigla(),
 				escalaItem.getHora(),
-				escalaItem.getEstabelecimento().getCor(),
-				escalaItem.getEstabelecimento().getIcone(),
+				estabelecimento.cor(),
+				estabelecimentoCatalogo.urlIcone(estabelecimento.id()),
 				escalaItem.getArquivado(),
 				escalaItem.isReagendado(),
 				escalaItem.getEscala().isPlantao()
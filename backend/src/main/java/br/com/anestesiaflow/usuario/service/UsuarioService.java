@@ -5,6 +5,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import br.com.anestesiaflow.entidades.Usuario;
 import br.com.anestesiaflow.auth.dto.LoginResponseDTO;
+import br.com.anestesiaflow.auth.security.UsuarioPrincipalCache;
 import br.com.anestesiaflow.exception.BusinessException;
 import br.com.anestesiaflow.medico.model.Medico;
 import br.com.anestesiaflow.usuario.dto.UsuarioRequestDTO;
@@ -19,11 +20,14 @@ public class UsuarioService {
 	private final UsuarioRepository usuarioRepository;
 	private final PasswordEncoder passwordEncoder;
 	private final EntityManager entityManager;
+	private final UsuarioPrincipalCache principalCache;
 	
-	public UsuarioService(UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder, EntityManager entityManager) {
+	public UsuarioService(UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder, EntityManager entityManager,
+			UsuarioPrincipalCache principalCache) {
 		this.usuarioRepository = usuarioRepository;
 		this.passwordEncoder = passwordEncoder;
 		this.entityManager = entityManager;
+		this.principalCache = principalCache;
 	}
 	
 	public List<UsuarioResponseDTO> listarTodos() {
@@ -62,6 +66,7 @@ public class UsuarioService {
 
 	    // 4. Salva (O JPA gerencia o update e a dataAlteracao via @LastModifiedDate)
 	    Usuario atualizado = usuarioRepository.save(usuario);
+	    principalCache.remover(id);
 	    
 	    return mapperToResponseDTO(atualizado);
 	}	
@@ -78,6 +83,7 @@ public class UsuarioService {
 		}
 		
 	    usuarioRepository.deleteById(id);
+	    principalCache.remover(id);
 	}
 	
 	public UsuarioResponseDTO findByLogin(String login) {
@@ -0,0 +1,111 @@
+-- Esquema inicial, equivalente às entidades JPA. Bancos que já existiam antes das migrações
+-- ficam marcados nesta versão (spring.flyway.baseline-on-migrate) e este script não roda neles.
+CREATE TABLE IF NOT EXISTS medico (
+    id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    datacriacao timestamp(6) NOT NULL,
+    dataatualizacao timestamp(6),
+    nome varchar(60),
+    sigla varchar(3),
+    dataassociacao date,
+    especialidades varchar(255),
+    ativo boolean NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS estabelecimento (
+    id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    datacriacao timestamp(6) NOT NULL,
+    dataatualizacao timestamp(6),
+    nome varchar(60),
+    cor varchar(7),
+    icone bytea,
+    sigla varchar(5),
+    plantao boolean DEFAULT false NOT NULL,
+    ativo boolean NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS usuario (
+    id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    datacriacao timestamp(6) NOT NULL,
+    dataatualizacao timestamp(6),
+    nome varchar(60),
+    login varchar(60) UNIQUE,
+    senha varchar(255),
+    ativo boolean NOT NULL,
+    medicoid integer REFERENCES medico (id)
+);
+
+CREATE TABLE IF NOT EXISTS usuariopermissao (
+    usuarioid integer NOT NULL REFERENCES usuario (id),
+    permissoes varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS escala (
+    id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    datacriacao timestamp(6) NOT NULL,
+    dataatualizacao timestamp(6),
+    medicoid integer NOT NULL REFERENCES medico (id),
+    data date NOT NULL,
+    plantao boolean DEFAULT false NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS escalaitem (
+    id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    datacriacao timestamp(6) NOT NULL,
+    dataatualizacao timestamp(6),
+    escalaid integer NOT NULL REFERENCES escala (id),
+    estabelecimentoid integer REFERENCES estabelecimento (id),
+    hora time(6) NOT NULL,
+    arquivado timestamp(6),
+    reagendado boolean NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS paciente (
+    id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    datacriacao timestamp(6) NOT NULL,
+    dataatualizacao timestamp(6),
+    nome varchar(255),
+    ativo boolean NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS pacienteprocedimento (
+    id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    datacriacao timestamp(6) NOT NULL,
+    dataatualizacao timestamp(6),
+    pacienteid integer NOT NULL REFERENCES paciente (id),
+    dataprocedimento date,
+    procedimento varchar(255),
+    cirurgiaoid integer REFERENCES medico (id),
+    medicoid integer REFERENCES medico (id),
+    estabelecimentoid integer REFERENCES estabelecimento (id),
+    pago boolean NOT NULL,
+    valorprevisto float(53) NOT NULL,
+    valorefetivo float(53) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS procedimento (
+    id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    datacriacao timestamp(6) NOT NULL,
+    dataatualizacao timestamp(6),
+    descricao varchar(255),
+    ativo boolean NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS notificacaomensagem (
+    id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    datacriacao timestamp(6) NOT NULL,
+    dataatualizacao timestamp(6),
+    mensagem varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS notificacaodispositivo (
+    id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    datacriacao timestamp(6) NOT NULL,
+    dataatualizacao timestamp(6),
+    token varchar(255) UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS config (
+    id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    chave varchar(255) NOT NULL,
+    valor text
+);
@@ -0,0 +1,21 @@
+-- Busca de pacientes por nome sem diferenciar acentos e maiúsculas, com índice de trigramas
+CREATE EXTENSION IF NOT EXISTS unaccent;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- unaccent() é STABLE; com o dicionário fixo a expressão pode ser usada em índice
+CREATE OR REPLACE FUNCTION normalizar_nome(nome text)
+RETURNS text
+LANGUAGE sql
+IMMUTABLE PARALLEL SAFE STRICT
+AS $$
+    SELECT lower(regexp_replace(btrim(public.unaccent('public.unaccent'::regdictionary, nome)), '\s+', ' ', 'g'))
+$$;
+
+DO $$
+BEGIN
+    IF to_regclass('paciente') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_paciente_nome_trgm
+            ON paciente USING gin (normalizar_nome(nome) gin_trgm_ops);
+    END IF;
+END
+$$;
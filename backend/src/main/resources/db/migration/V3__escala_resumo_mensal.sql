@@ -0,0 +1,29 @@
+-- Quantidade de itens de escala por mês, médico, estabelecimento e tipo (escala ou plantão).
+-- Mantida pela aplicação a cada gravação de escala; os relatórios anuais leem daqui.
+CREATE TABLE IF NOT EXISTS escalaresumomensal (
+    ano integer NOT NULL,
+    mes integer NOT NULL,
+    medicoid integer NOT NULL,
+    estabelecimentoid integer NOT NULL,
+    plantao boolean NOT NULL,
+    total integer NOT NULL,
+    CONSTRAINT pk_escalaresumomensal PRIMARY KEY (ano, medicoid, estabelecimentoid, mes, plantao)
+);
+
+CREATE INDEX IF NOT EXISTS idx_escalaresumomensal_estabelecimento
+    ON escalaresumomensal (ano, estabelecimentoid);
+
+-- Carga inicial a partir do histórico, quando as tabelas de escala já existem
+DO $$
+BEGIN
+    IF to_regclass('escala') IS NOT NULL AND to_regclass('escalaitem') IS NOT NULL THEN
+        INSERT INTO escalaresumomensal (ano, mes, medicoid, estabelecimentoid, plantao, total)
+        SELECT EXTRACT(YEAR FROM e.data), EXTRACT(MONTH FROM e.data), e.medicoid, ei.estabelecimentoid,
+               e.plantao, COUNT(*)
+        FROM escala e
+        JOIN escalaitem ei ON ei.escalaid = e.id
+        GROUP BY 1, 2, e.medicoid, ei.estabelecimentoid, e.plantao
+        ON CONFLICT DO NOTHING;
+    END IF;
+END
+$$;
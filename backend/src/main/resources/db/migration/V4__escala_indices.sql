@@ -0,0 +1,12 @@
+-- Índices para os filtros por médico e período, por dia e para os itens em ordem de hora
+DO $$
+BEGIN
+    IF to_regclass('escala') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_escala_medico_data_plantao ON escala (medicoid, data, plantao);
+        CREATE INDEX IF NOT EXISTS idx_escala_data_plantao ON escala (data, plantao);
+    END IF;
+    IF to_regclass('escalaitem') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_escalaitem_escala_hora ON escalaitem (escalaid, hora);
+    END IF;
+END
+$$;
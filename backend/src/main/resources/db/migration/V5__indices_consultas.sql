@@ -0,0 +1,53 @@
+-- Índices das consultas mais usadas, para não depender do que existir em cada banco
+
+-- Uma escala por médico, dia e tipo (findByMedico_IdAndDataAndPlantao e a importação em lote).
+-- Se o banco já tiver duplicidades, fica o índice comum de V4 e um aviso para corrigir os dados.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM escala GROUP BY medicoid, data, plantao HAVING COUNT(*) > 1) THEN
+        RAISE WARNING 'escala possui registros duplicados por (medicoid, data, plantao); índice único não criado';
+    ELSE
+        CREATE UNIQUE INDEX IF NOT EXISTS uk_escala_medico_data_plantao ON escala (medicoid, data, plantao);
+        DROP INDEX IF EXISTS idx_escala_medico_data_plantao;
+    END IF;
+END
+$$;
+
+-- Token do dispositivo é a chave do cadastro de notificações; repetidos só geram envio em dobro.
+-- A restrição única pode já existir com outro nome (UNIQUE da baseline ou a criada pelo Hibernate):
+-- nesse caso só renomeia, para o índice ter o mesmo nome em todos os bancos.
+DO $$
+DECLARE
+    existente text;
+BEGIN
+    SELECT c.relname INTO existente
+    FROM pg_index i
+    JOIN pg_class c ON c.oid = i.indexrelid
+    JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = i.indkey[0]
+    WHERE i.indrelid = 'notificacaodispositivo'::regclass
+      AND i.indisunique
+      AND i.indnatts = 1
+      AND a.attname = 'token'
+    ORDER BY c.relname = 'uk_notificacaodispositivo_token' DESC
+    LIMIT 1;
+
+    IF existente IS NULL THEN
+        DELETE FROM notificacaodispositivo d
+        USING notificacaodispositivo mais_novo
+        WHERE d.token = mais_novo.token
+          AND d.id < mais_novo.id;
+        CREATE UNIQUE INDEX uk_notificacaodispositivo_token ON notificacaodispositivo (token);
+    ELSIF existente <> 'uk_notificacaodispositivo_token' THEN
+        EXECUTE format('ALTER INDEX %I RENAME TO uk_notificacaodispositivo_token', existente);
+    END IF;
+END
+$$;
+
+CREATE INDEX IF NOT EXISTS idx_pacienteprocedimento_paciente_data
+    ON pacienteprocedimento (pacienteid, dataprocedimento);
+CREATE INDEX IF NOT EXISTS idx_pacienteprocedimento_data
+    ON pacienteprocedimento (dataprocedimento);
+CREATE INDEX IF NOT EXISTS idx_escalaitem_estabelecimento
+    ON escalaitem (estabelecimentoid);
+CREATE INDEX IF NOT EXISTS idx_config_chave
+    ON config (chave);
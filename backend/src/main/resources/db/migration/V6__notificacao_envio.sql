@@ -0,0 +1,18 @@
+-- Fila de saída (outbox) das notificações push. Gravada na mesma transação de quem pede o envio;
+-- o despachante da aplicação lê daqui, envia em lotes de 500 tokens e reagenda as falhas.
+-- tokens nulo = todos os dispositivos registrados no momento do primeiro envio.
+CREATE TABLE IF NOT EXISTS notificacaoenvio (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    datacriacao timestamp(6) NOT NULL DEFAULT now(),
+    titulo varchar(255) NOT NULL,
+    corpo text NOT NULL,
+    tokens text[],
+    situacao varchar(10) NOT NULL DEFAULT 'PENDENTE',
+    tentativas integer NOT NULL DEFAULT 0,
+    proximatentativa timestamp(6) NOT NULL DEFAULT now(),
+    ultimoerro varchar(1000),
+    dataconclusao timestamp(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_notificacaoenvio_pendente
+    ON notificacaoenvio (proximatentativa) WHERE situacao = 'PENDENTE';
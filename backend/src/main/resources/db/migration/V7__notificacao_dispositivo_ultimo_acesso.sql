@@ -0,0 +1,10 @@
+-- Último registro do token pelo app. O registro vira um upsert que só atualiza esta coluna,
+-- e os tokens recusados pelo FCM são apagados pelo despachante.
+ALTER TABLE notificacaodispositivo ADD COLUMN IF NOT EXISTS ultimoacesso timestamp(6);
+
+UPDATE notificacaodispositivo
+SET ultimoacesso = COALESCE(dataatualizacao, datacriacao)
+WHERE ultimoacesso IS NULL;
+
+ALTER TABLE notificacaodispositivo ALTER COLUMN ultimoacesso SET DEFAULT now();
+ALTER TABLE notificacaodispositivo ALTER COLUMN ultimoacesso SET NOT NULL;
@@ -0,0 +1,104 @@
+package br.com.anestesiaflow.auth.permission;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import br.com.anestesiaflow.auth.security.UsuarioAutenticacao;
+import br.com.anestesiaflow.entidades.Usuario;
+
+/**
+ * Custo de uma requisição a um endpoint com {@code @PreAuthorize("@auth.has(...) or @auth.has(...)")}:
+ * antes o SecurityFilter montava um token novo com a lista de authorities e o has() comparava os
+ * nomes; agora a {@link UsuarioAutenticacao} vem pronta do cache e o has() é um teste no EnumSet.
+ * O usuário tem todas as permissões menos a primeira da expressão, então os dois has() são avaliados.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SecurityServiceBenchmark {
+
+	// Mesma expressão do NotificacaoController
+	private static final String EXPRESSAO =
+			"@auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).SUDOKU_NOTIFICAR) " +
+			"or @auth.has(T(br.com.anestesiaflow.auth.permission.Permissoes).PLANTAO_NOTIFICAR)";
+
+	private Expression expressao;
+	private StandardEvaluationContext contexto;
+	private Usuario usuario;
+	private EnumSet<Permissoes> permissoes;
+	private UsuarioAutenticacao autenticacao;
+	private Authentication tokenComAuthorities;
+
+	@Setup
+	public void preparar() {
+		// O Spring Security guarda a expressão já compilada por método; aqui também
+		expressao = new SpelExpressionParser().parseExpression(EXPRESSAO);
+		SecurityService securityService = new SecurityService();
+		contexto = new StandardEvaluationContext();
+		contexto.setBeanResolver((context, nome) -> securityService);
+
+		usuario = new Usuario();
+		usuario.setLogin("medico");
+		permissoes = EnumSet.complementOf(EnumSet.of(Permissoes.SUDOKU_NOTIFICAR));
+		autenticacao = new UsuarioAutenticacao(usuario, permissoes);
+		tokenComAuthorities = new UsernamePasswordAuthenticationToken(usuario, null, autenticacao.getAuthorities());
+	}
+
+	@TearDown
+	public void limpar() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Benchmark
+	public Boolean antesTokenPorRequisicao() {
+		List<GrantedAuthority> authorities = Arrays.stream(Permissoes.values())
+				.filter(permissoes::contains)
+				.<GrantedAuthority>map(permissao -> new SimpleGrantedAuthority(permissao.name()))
+				.toList();
+		return avaliar(new UsernamePasswordAuthenticationToken(usuario, null, authorities));
+	}
+
+	@Benchmark
+	public Boolean depoisAutenticacaoEmCache() {
+		return avaliar(autenticacao);
+	}
+
+	/**
+	 * Só a checagem, sem SpEL nem montagem do token: comparação de nomes contra o EnumSet.
+	 */
+	@Benchmark
+	public boolean hasPorNome() {
+		return SecurityService.possui(tokenComAuthorities, Permissoes.SUDOKU_NOTIFICAR)
+				|| SecurityService.possui(tokenComAuthorities, Permissoes.PLANTAO_NOTIFICAR);
+	}
+
+	@Benchmark
+	public boolean hasEnumSet() {
+		return SecurityService.possui(autenticacao, Permissoes.SUDOKU_NOTIFICAR)
+				|| SecurityService.possui(autenticacao, Permissoes.PLANTAO_NOTIFICAR);
+	}
+
+	private Boolean avaliar(Authentication authentication) {
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+		return expressao.getValue(contexto, Boolean.class);
+	}
+}
@@ -0,0 +1,55 @@
+package br.com.anestesiaflow.auth.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+/**
+ * Verificação do JWT a cada requisição: montando algoritmo e verificador na hora (como era),
+ * com o verificador compartilhado e com o cache de tokens já verificados do {@link TokenService}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TokenServiceBenchmark {
+
+	private static final String SEGREDO = "chave-benchmark";
+
+	private TokenService tokenService;
+	private JWTVerifier verifier;
+	private String token;
+
+	@Setup
+	public void preparar() {
+		tokenService = new TokenService(SEGREDO, 1000);
+		verifier = JWT.require(Algorithm.HMAC256(SEGREDO)).withIssuer("anestesiaflow").build();
+		token = tokenService.generateToken("medico@anestesiaflow");
+		tokenService.decodeToken(token);
+	}
+
+	@Benchmark
+	public DecodedJWT verificadorPorChamada() {
+		return JWT.require(Algorithm.HMAC256(SEGREDO)).withIssuer("anestesiaflow").build().verify(token);
+	}
+
+	@Benchmark
+	public DecodedJWT verificadorCompartilhado() {
+		return verifier.verify(token);
+	}
+
+	@Benchmark
+	public DecodedJWT tokenEmCache() {
+		return tokenService.decodeToken(token);
+	}
+}
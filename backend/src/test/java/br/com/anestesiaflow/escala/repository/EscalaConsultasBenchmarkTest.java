@@ -0,0 +1,191 @@
+package br.com.anestesiaflow.escala.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Consultas de escala sobre cinco anos de escalas sintéticas no Postgres embarcado, antes e depois
+ * dos índices de V4. Cada consulta é o SQL equivalente ao método do repositório; os planos e as
+ * medianas do EXPLAIN ANALYZE vão para o log. Roda com mvn -Pbenchmark test.
+ */
+@Tag("benchmark")
+class EscalaConsultasBenchmarkTest {
+
+	private static final Logger log = LoggerFactory.getLogger(EscalaConsultasBenchmarkTest.class);
+
+	private static final int MEDICOS = 100;
+	private static final int EXECUCOES = 7;
+	private static final Pattern TEMPO_EXECUCAO = Pattern.compile("Execution Time: ([\\d.]+) ms");
+
+	private static final Map<String, String> CONSULTAS = new LinkedHashMap<>();
+
+	static {
+		CONSULTAS.put("findAllAnosEscalas", """
+				WITH RECURSIVE anos AS (
+				    SELECT CAST(EXTRACT(YEAR FROM MIN(e.data)) AS integer) AS ano
+				    FROM escala e
+				    UNION ALL
+				    SELECT (SELECT CAST(EXTRACT(YEAR FROM MIN(e.data)) AS integer)
+				            FROM escala e
+				            WHERE e.data >= make_date(a.ano + 1, 1, 1))
+				    FROM anos a
+				    WHERE a.ano IS NOT NULL
+				)
+				SELECT ano FROM anos WHERE ano IS NOT NULL ORDER BY ano DESC
+				""");
+		CONSULTAS.put("findByMedico_IdAndDataBetweenOrderByDataAsc", """
+				SELECT e.*, i.*
+				FROM escala e
+				JOIN medico m ON m.id = e.medicoid
+				LEFT JOIN escalaitem i ON i.escalaid = e.id
+				WHERE e.medicoid = 17 AND e.data BETWEEN DATE '2024-03-01' AND DATE '2024-03-31'
+				ORDER BY e.data
+				""");
+		CONSULTAS.put("findByDataAndPlantaoOrderByMedicoDataAssociacaoAscItensHoraAsc", """
+				SELECT e.*, m.*, i.*
+				FROM escala e
+				JOIN medico m ON m.id = e.medicoid
+				LEFT JOIN escalaitem i ON i.escalaid = e.id
+				WHERE e.data = DATE '2024-03-12' AND e.plantao = false
+				ORDER BY m.dataassociacao, i.hora
+				""");
+		CONSULTAS.put("findDiasPlantaoDiaSemana", """
+				SELECT DISTINCT e.data
+				FROM escala e
+				JOIN escalaitem i ON i.escalaid = e.id
+				WHERE e.data BETWEEN DATE '2024-03-01' AND DATE '2024-03-31'
+				  AND e.plantao = true
+				  AND i.hora >= TIME '07:00' AND i.hora <= TIME '18:00'
+				""");
+		CONSULTAS.put("countConsultasArquivadas", """
+				SELECT COUNT(i.id)
+				FROM escala e
+				JOIN escalaitem i ON i.escalaid = e.id
+				WHERE e.data = DATE '2024-03-12' AND i.arquivado IS NOT NULL
+				""");
+	}
+
+	private static EmbeddedPostgres postgres;
+	private static DataSource dataSource;
+	private static JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	static void iniciar() throws IOException {
+		postgres = EmbeddedPostgres.start();
+		dataSource = postgres.getPostgresDatabase();
+		Flyway.configure().dataSource(dataSource).target("3").load().migrate();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+
+		jdbcTemplate.update("""
+				INSERT INTO medico (datacriacao, nome, sigla, dataassociacao, ativo)
+				SELECT now(), 'MEDICO ' || i, to_char(i, 'FM000'), DATE '2015-01-01' + i, true
+				FROM generate_series(1, ?) AS i
+				""", MEDICOS);
+		// Consultório de todos os médicos nos dias úteis e um plantão por dia, de 2021 a 2025
+		jdbcTemplate.update("""
+				INSERT INTO escala (datacriacao, medicoid, data, plantao)
+				SELECT now(), m.id, d::date, false
+				FROM medico m
+				CROSS JOIN generate_series(DATE '2021-01-01', DATE '2025-12-31', interval '1 day') AS d
+				WHERE EXTRACT(ISODOW FROM d) < 6
+				""");
+		jdbcTemplate.update("""
+				INSERT INTO escala (datacriacao, medicoid, data, plantao)
+				SELECT now(), 1 + (d::date - DATE '2021-01-01') % ?, d::date, true
+				FROM generate_series(DATE '2021-01-01', DATE '2025-12-31', interval '1 day') AS d
+				""", MEDICOS);
+		jdbcTemplate.update("""
+				INSERT INTO escalaitem (datacriacao, escalaid, hora, arquivado, reagendado)
+				SELECT now(), e.id,
+				       TIME '07:00' + h * CASE WHEN e.plantao THEN interval '6 hours' ELSE interval '2 hours' END,
+				       CASE WHEN (e.id + h) % 50 = 0 THEN now() END,
+				       false
+				FROM escala e
+				CROSS JOIN generate_series(0, 3) AS h
+				""");
+	}
+
+	@AfterAll
+	static void finalizar() throws IOException {
+		postgres.close();
+	}
+
+	@Test
+	void indicesDeV4TiramAsConsultasDaLeituraDaTabelaInteira() {
+		jdbcTemplate.execute("ANALYZE");
+		Map<String, List<String>> antes = explicarTodas();
+
+		Flyway.configure().dataSource(dataSource).target("4").load().migrate();
+		jdbcTemplate.execute("ANALYZE");
+		Map<String, List<String>> depois = explicarTodas();
+
+		long escalas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM escala", Long.class);
+		long itens = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM escalaitem", Long.class);
+		CONSULTAS.keySet().forEach(metodo -> log.info("{} ({} escalas, {} itens): antes de V4 {} ms, depois {} ms"
+				+ "\n-- antes\n{}\n-- depois\n{}", metodo, escalas, itens, mediana(antes.get(metodo)),
+				mediana(depois.get(metodo)), plano(antes.get(metodo)), plano(depois.get(metodo))));
+
+		assertEquals(List.of(2025, 2024, 2023, 2022, 2021),
+				jdbcTemplate.queryForList(CONSULTAS.get("findAllAnosEscalas"), Integer.class));
+		CONSULTAS.keySet().forEach(metodo -> {
+			assertTrue(plano(antes.get(metodo)).contains("Seq Scan on escala e"), metodo);
+			assertFalse(plano(depois.get(metodo)).contains("Seq Scan on escala e"), metodo);
+		});
+	}
+
+	private static Map<String, List<String>> explicarTodas() {
+		Map<String, List<String>> planos = new LinkedHashMap<>();
+		CONSULTAS.forEach((metodo, sql) -> planos.put(metodo, explicar(sql)));
+		return planos;
+	}
+
+	/**
+	 * Roda o EXPLAIN ANALYZE algumas vezes; cada item da lista é o plano de uma execução.
+	 */
+	private static List<String> explicar(String sql) {
+		List<String> planos = new ArrayList<>();
+		for (int i = 0; i < EXECUCOES; i++) {
+			planos.add(String.join("\n", jdbcTemplate.queryForList("EXPLAIN (ANALYZE, BUFFERS) " + sql, String.class)));
+		}
+		return planos;
+	}
+
+	private static String plano(List<String> planos) {
+		return planos.get(planos.size() - 1);
+	}
+
+	private static double mediana(List<String> planos) {
+		List<Double> tempos = new ArrayList<>();
+		for (String plano : planos) {
+			Matcher matcher = TEMPO_EXECUCAO.matcher(plano);
+			if (matcher.find()) {
+				tempos.add(Double.parseDouble(matcher.group(1)));
+			}
+		}
+		Collections.sort(tempos);
+		return tempos.get(tempos.size() / 2);
+	}
+}
@@ -0,0 +1,86 @@
+package br.com.anestesiaflow.escala.service;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import br.com.anestesiaflow.exception.BusinessException;
+
+/**
+ * Limite de conexões SSE por cliente. Heartbeat de 1 segundo: depois que a conexão é encerrada o
+ * próximo envio falha e libera a vaga do cliente.
+ */
+class EscalaEventosTest {
+
+	private static final LocalDate DATA = LocalDate.of(2025, 3, 12);
+
+	private EscalaEventos eventos;
+
+	@BeforeEach
+	void iniciar() {
+		eventos = new EscalaEventos(new EscalaVersoes(), 100, 2, 8, 1, 30);
+	}
+
+	@AfterEach
+	void finalizar() {
+		eventos.destroy();
+	}
+
+	@Test
+	void limitaConexoesDoMesmoCliente() {
+		eventos.assinar(DATA, "10.0.0.1");
+		eventos.assinar(DATA.plusDays(1), "10.0.0.1");
+
+		assertThrows(BusinessException.class, () -> eventos.assinar(DATA, "10.0.0.1"));
+		assertNotNull(eventos.assinar(DATA, "10.0.0.2"));
+	}
+
+	@Test
+	void recusaPeloTotalNaoPrendeAVagaDoCliente() throws InterruptedException {
+		eventos.destroy();
+		eventos = new EscalaEventos(new EscalaVersoes(), 2, 2, 8, 1, 30);
+		SseEmitter primeira = eventos.assinar(DATA, "10.0.0.1");
+		SseEmitter segunda = eventos.assinar(DATA, "10.0.0.1");
+
+		assertThrows(BusinessException.class, () -> eventos.assinar(DATA, "10.0.0.2"));
+		assertThrows(BusinessException.class, () -> eventos.assinar(DATA, "10.0.0.2"));
+
+		// Se as recusas tivessem contado, o cliente já estaria no limite dele
+		primeira.complete();
+		segunda.complete();
+		aguardarAssinatura("10.0.0.2");
+		aguardarAssinatura("10.0.0.2");
+	}
+
+	@Test
+	void conexaoEncerradaLiberaOCliente() throws InterruptedException {
+		SseEmitter primeira = eventos.assinar(DATA, "10.0.0.1");
+		eventos.assinar(DATA, "10.0.0.1");
+
+		primeira.complete();
+
+		aguardarAssinatura("10.0.0.1");
+	}
+
+	private void aguardarAssinatura(String cliente) throws InterruptedException {
+		long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (true) {
+			try {
+				assertNotNull(eventos.assinar(DATA, cliente));
+				return;
+			} catch (BusinessException e) {
+				if (System.nanoTime() > limite) {
+					throw e;
+				}
+				Thread.sleep(100);
+			}
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package br.com.anestesiaflow.escala.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import br.com.anestesiaflow.escala.dto.EscalaResponseDTO;
+
+/**
+ * Uma grade montada enquanto a data é invalidada (o commit de uma gravação chega no meio da
+ * consulta) não pode ficar no cache.
+ */
+class EscalaGradeCacheTest {
+
+	private static final LocalDate DATA = LocalDate.of(2025, 3, 12);
+
+	private EscalaVersoes versoes;
+	private EscalaGradeCache cache;
+	private AtomicInteger montagens;
+
+	@BeforeEach
+	void iniciar() {
+		versoes = new EscalaVersoes();
+		cache = new EscalaGradeCache(120, 300, versoes);
+		montagens = new AtomicInteger();
+	}
+
+	@Test
+	void guardaAGradeMontadaSemAlteracao() {
+		List<EscalaResponseDTO> primeira = cache.buscar(DATA, null, false, this::montar);
+		assertSame(primeira, cache.buscar(DATA, null, false, this::montar));
+		assertEquals(1, montagens.get());
+	}
+
+	@Test
+	void naoGuardaAGradeMontadaDuranteAInvalidacao() {
+		long antes = versoes.versao(DATA, DATA);
+		cache.buscar(DATA, null, false, () -> {
+			List<EscalaResponseDTO> antiga = montar();
+			cache.invalidar(DATA);
+			return antiga;
+		});
+		cache.buscar(DATA, null, false, this::montar);
+		assertEquals(2, montagens.get());
+		assertTrue(versoes.versao(DATA, DATA) > antes);
+	}
+
+	@Test
+	void invalidarOutraDataNaoDescartaAGrade() {
+		cache.buscar(DATA, null, false, () -> {
+			List<EscalaResponseDTO> grade = montar();
+			cache.invalidar(DATA.plusDays(1));
+			return grade;
+		});
+		cache.buscar(DATA, null, false, this::montar);
+		assertEquals(1, montagens.get());
+	}
+
+	private List<EscalaResponseDTO> montar() {
+		montagens.incrementAndGet();
+		return new ArrayList<>();
+	}
+}
@@ -0,0 +1,129 @@
+package br.com.anestesiaflow.escala.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import br.com.anestesiaflow.escala.dto.EscalaResponseDTO;
+import br.com.anestesiaflow.escala.entidade.Escala;
+import br.com.anestesiaflow.escala.entidade.EscalaItem;
+import br.com.anestesiaflow.estabelecimento.dto.EstabelecimentoResponseDTO;
+import br.com.anestesiaflow.estabelecimento.model.Estabelecimento;
+import br.com.anestesiaflow.estabelecimento.service.EstabelecimentoCatalogo;
+import br.com.anestesiaflow.medico.dto.MedicoResponseDTO;
+import br.com.anestesiaflow.medico.model.Medico;
+
+/**
+ * Montagem da grade do dia com 10 itens por médico (200 médicos = 2.000 itens). A grade
+ * indexada deve crescer na mesma proporção dos médicos; a varredura por médico (como era no
+ * sudoku) cresce com o quadrado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EscalaGradeDiariaBenchmark {
+
+	private static final int ITENS_POR_MEDICO = 10;
+	private static final int ESTABELECIMENTOS = 20;
+
+	@Param({ "50", "200", "800" })
+	public int medicos;
+
+	private final LocalDate data = LocalDate.of(2025, 3, 10);
+	private EscalaGradeDiaria gradeDiaria;
+	private List<Escala> escalas;
+	private List<MedicoResponseDTO> listaMedicos;
+
+	@Setup
+	public void preparar() {
+		Map<Integer, EstabelecimentoResponseDTO> porId = new HashMap<>();
+		List<Estabelecimento> estabelecimentos = new ArrayList<>();
+		for (int id = 1; id <= ESTABELECIMENTOS; id++) {
+			porId.put(id, new EstabelecimentoResponseDTO(id, "Estabelecimento " + id, "#000000", "E" + id,
+					null, id % 2 == 0, true, null, null));
+			Estabelecimento estabelecimento = new Estabelecimento();
+			estabelecimento.setId(id);
+			estabelecimentos.add(estabelecimento);
+		}
+		gradeDiaria = new EscalaGradeDiaria(new EstabelecimentoCatalogo(null) {
+			@Override
+			public Optional<EstabelecimentoResponseDTO> buscar(Integer id) {
+				return Optional.ofNullable(porId.get(id));
+			}
+
+			@Override
+			public String urlIcone(Integer id) {
+				return "/api/public/estabelecimento/" + id + "/icone?v=0";
+			}
+		});
+
+		escalas = new ArrayList<>();
+		listaMedicos = new ArrayList<>();
+		for (int id = 1; id <= medicos; id++) {
+			Medico medico = new Medico();
+			medico.setId(id);
+			medico.setSigla("M" + id);
+			listaMedicos.add(new MedicoResponseDTO(id, "Médico " + id, "M" + id, null, List.of(), null, true,
+					null, null));
+
+			// Metade dos itens na escala normal e metade no plantão
+			Escala normal = escala(medico, false);
+			Escala plantao = escala(medico, true);
+			for (int i = 0; i < ITENS_POR_MEDICO; i++) {
+				Escala escala = i % 2 == 0 ? normal : plantao;
+				EscalaItem item = new EscalaItem();
+				item.setEscala(escala);
+				item.setEstabelecimento(estabelecimentos.get((id + i) % ESTABELECIMENTOS));
+				item.setHora(LocalTime.of(6 + i, 0));
+				escala.getItens().add(item);
+			}
+			escalas.add(normal);
+			escalas.add(plantao);
+		}
+	}
+
+	private Escala escala(Medico medico, boolean plantao) {
+		Escala escala = new Escala();
+		escala.setId(escalas.size() + 1);
+		escala.setMedico(medico);
+		escala.setData(data);
+		escala.setPlantao(plantao);
+		return escala;
+	}
+
+	@Benchmark
+	public List<EscalaResponseDTO> gradeIndexada() {
+		return gradeDiaria.montar(data, escalas, listaMedicos, true);
+	}
+
+	/**
+	 * Só a busca das escalas de cada médico como era feita antes, duas varreduras por médico.
+	 */
+	@Benchmark
+	public int varreduraPorMedico() {
+		int encontradas = 0;
+		for (MedicoResponseDTO medico : listaMedicos) {
+			encontradas += escalas.stream()
+					.filter(escala -> escala.getMedico().getId() == medico.id() && !escala.isPlantao())
+					.findFirst().isPresent() ? 1 : 0;
+			encontradas += escalas.stream()
+					.filter(escala -> escala.getMedico().getId() == medico.id() && escala.isPlantao())
+					.findFirst().isPresent() ? 1 : 0;
+		}
+		return encontradas;
+	}
+}
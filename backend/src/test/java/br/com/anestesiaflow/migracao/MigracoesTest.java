@@ -0,0 +1,114 @@
+package br.com.anestesiaflow.migracao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Roda as migrações em um Postgres local embarcado: banco vazio e banco criado antes das
+ * migrações (marcado na baseline).
+ */
+class MigracoesTest {
+
+	private static EmbeddedPostgres postgres;
+
+	@BeforeAll
+	static void iniciar() throws IOException {
+		postgres = EmbeddedPostgres.start();
+	}
+
+	@AfterAll
+	static void finalizar() throws IOException {
+		postgres.close();
+	}
+
+	@Test
+	void migraBancoVazio() throws SQLException {
+		DataSource dataSource = novoBanco("vazio");
+		MigrateResult resultado = flyway(dataSource).migrate();
+
+		assertTrue(resultado.success);
+		assertTrue(existeIndice(dataSource, "uk_escala_medico_data_plantao"));
+		assertTrue(existeIndice(dataSource, "uk_notificacaodispositivo_token"));
+		assertTrue(existeIndice(dataSource, "idx_paciente_nome_trgm"));
+		assertTrue(existeIndice(dataSource, "idx_escalaitem_escala_hora"));
+
+		// Rodar de novo não tem nada pendente
+		assertEquals(0, flyway(dataSource).migrate().migrationsExecuted);
+	}
+
+	@Test
+	void migraBancoExistenteAPartirDaBaseline() throws SQLException {
+		DataSource dataSource = novoBanco("existente");
+		// Simula o banco criado pelo Hibernate antes das migrações: as tabelas, sem o histórico
+		// do Flyway e sem a restrição única do token, que já tem valores repetidos
+		Flyway.configure().dataSource(dataSource).target("1").load().migrate();
+		executar(dataSource, """
+				DROP TABLE flyway_schema_history;
+				ALTER TABLE notificacaodispositivo DROP CONSTRAINT notificacaodispositivo_token_key;
+				INSERT INTO notificacaodispositivo (datacriacao, token) VALUES (now(), 'abc'), (now(), 'abc');
+				""");
+
+		MigrateResult resultado = flyway(dataSource).migrate();
+
+		assertTrue(resultado.success);
+		assertEquals("1", flyway(dataSource).info().applied()[0].getVersion().getVersion());
+		assertTrue(existeIndice(dataSource, "uk_notificacaodispositivo_token"));
+		assertEquals(1, contar(dataSource, "SELECT COUNT(*) FROM notificacaodispositivo"));
+	}
+
+	private Flyway flyway(DataSource dataSource) {
+		return Flyway.configure()
+				.dataSource(dataSource)
+				.baselineOnMigrate(true)
+				.baselineVersion("1")
+				.load();
+	}
+
+	private DataSource novoBanco(String nome) throws SQLException {
+		executar(postgres.getPostgresDatabase(), "CREATE DATABASE " + nome);
+		return postgres.getDatabase("postgres", nome);
+	}
+
+	private boolean existeIndice(DataSource dataSource, String indice) throws SQLException {
+		try (Connection conexao = dataSource.getConnection();
+				PreparedStatement ps = conexao.prepareStatement("SELECT to_regclass(?) IS NOT NULL")) {
+			ps.setString(1, indice);
+			try (ResultSet rs = ps.executeQuery()) {
+				rs.next();
+				return rs.getBoolean(1);
+			}
+		}
+	}
+
+	private long contar(DataSource dataSource, String sql) throws SQLException {
+		try (Connection conexao = dataSource.getConnection();
+				Statement st = conexao.createStatement();
+				ResultSet rs = st.executeQuery(sql)) {
+			rs.next();
+			return rs.getLong(1);
+		}
+	}
+
+	private void executar(DataSource dataSource, String sql) throws SQLException {
+		try (Connection conexao = dataSource.getConnection(); Statement st = conexao.createStatement()) {
+			st.execute(sql);
+		}
+	}
+}
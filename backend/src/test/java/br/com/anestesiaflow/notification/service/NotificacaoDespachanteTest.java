@@ -0,0 +1,254 @@
+package br.com.anestesiaflow.notification.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.sql.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import br.com.anestesiaflow.notification.repository.NotificacaoDispositivoRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Despacho da fila de notificações com o canal fake e a tabela notificacaoenvio em um Postgres
+ * embarcado. O cadastro de dispositivos é simulado.
+ */
+class NotificacaoDespachanteTest {
+
+	private static final int MAXIMO_TENTATIVAS = 3;
+	private static final long ESPERA_BASE_SEGUNDOS = 30;
+
+	private static EmbeddedPostgres postgres;
+	private static JdbcTemplate jdbcTemplate;
+
+	private NotificacaoDispositivoRepository repositoryDispositivo;
+	private NotificacaoCanalFake canal;
+	private NotificacaoDespachante despachante;
+
+	@BeforeAll
+	static void iniciar() throws IOException {
+		postgres = EmbeddedPostgres.start();
+		Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+		jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+	}
+
+	@AfterAll
+	static void finalizar() throws IOException {
+		postgres.close();
+	}
+
+	@AfterEach
+	void limpar() {
+		despachante.destroy();
+		jdbcTemplate.update("DELETE FROM notificacaoenvio");
+	}
+
+	@Test
+	void enviaEmLotesDe500() throws Exception {
+		preparar(tokens("ok-", 1203), Map.of());
+		long id = enfileirar();
+
+		despachante.despacharPendentes();
+
+		assertEquals(3, canal.chamadas());
+		assertEquals(NotificacaoCanal.MAXIMO_TOKENS, canal.maiorLote());
+		assertEquals("ENVIADA", situacao(id));
+		assertNull(tokensPendentes(id));
+		assertEquals(1203, despachante.metricas().tokensEnviados());
+		assertEquals(0, despachante.metricas().pendentes());
+	}
+
+	@Test
+	void reagendaSoOsTokensDoLoteComErro() throws Exception {
+		List<String> tokens = tokens("ok-", 999);
+		tokens.add(700, "lote-erro-1");
+		preparar(tokens, Map.of("lote-erro-", NotificacaoCanalFake.ERRO_LOTE));
+		long id = enfileirar();
+
+		despachante.despacharPendentes();
+
+		assertEquals("PENDENTE", situacao(id));
+		assertEquals(tokens.subList(500, 1000), tokensPendentes(id));
+		assertEquals(1, tentativas(id));
+		assertEsperaEntre(id, ESPERA_BASE_SEGUNDOS);
+		assertEquals(500, despachante.metricas().tokensEnviados());
+		assertEquals(1, despachante.metricas().lotesComErro());
+		assertEquals(1, despachante.metricas().reagendadas());
+	}
+
+	@Test
+	void esperaDobraACadaTentativaAteDescartar() throws Exception {
+		preparar(List.of("lote-erro-1"), Map.of("lote-erro-", NotificacaoCanalFake.ERRO_LOTE));
+		long id = enfileirar();
+
+		despachante.despacharPendentes();
+		assertEsperaEntre(id, ESPERA_BASE_SEGUNDOS);
+
+		vencer(id);
+		despachante.despacharPendentes();
+		assertEquals(2, tentativas(id));
+		assertEsperaEntre(id, ESPERA_BASE_SEGUNDOS * 2);
+
+		// Ainda não venceu: nada é enviado
+		despachante.despacharPendentes();
+		assertEquals(2, canal.chamadas());
+
+		vencer(id);
+		despachante.despacharPendentes();
+		assertEquals(MAXIMO_TENTATIVAS, tentativas(id));
+		assertEquals("FALHA", situacao(id));
+		assertTrue(jdbcTemplate.queryForObject(
+				"SELECT ultimoerro FROM notificacaoenvio WHERE id = ?", String.class, id).contains("simulado"));
+		assertEquals(1, despachante.metricas().descartadas());
+		assertEquals(0, despachante.metricas().pendentes());
+	}
+
+	@Test
+	void semDispositivosConcluiSemEnviar() throws Exception {
+		preparar(List.of(), Map.of());
+		long id = enfileirar();
+
+		despachante.despacharPendentes();
+
+		assertEquals(0, canal.chamadas());
+		assertEquals("ENVIADA", situacao(id));
+	}
+
+	@Test
+	void classificaRecusasERemoveTokensMortosDeUmaVez() throws Exception {
+		List<String> tokens = tokens("ok-", 590);
+		tokens.add(10, "morto-1");
+		tokens.add(20, "invalido-1");
+		tokens.add(30, "instavel-1");
+		tokens.add(40, "cota-1");
+		tokens.add(50, "auth-1");
+		tokens.add(550, "morto-2");
+		tokens.add(560, "remetente-1");
+		preparar(tokens, Map.of(
+				"morto-", "UNREGISTERED",
+				"remetente-", "SENDER_ID_MISMATCH",
+				"invalido-", "INVALID_ARGUMENT",
+				"instavel-", "UNAVAILABLE",
+				"cota-", "QUOTA_EXCEEDED",
+				"auth-", "THIRD_PARTY_AUTH_ERROR"));
+		long id = enfileirar();
+
+		despachante.despacharPendentes();
+
+		// Um único delete com os tokens mortos dos dois lotes
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<Collection<String>> removidos = ArgumentCaptor.forClass(Collection.class);
+		verify(repositoryDispositivo).deleteByTokenIn(removidos.capture());
+		assertEquals(Set.of("morto-1", "invalido-1", "morto-2", "remetente-1"), Set.copyOf(removidos.getValue()));
+
+		// Só as falhas passageiras voltam para a fila; o erro de autenticação é descartado
+		assertEquals("PENDENTE", situacao(id));
+		assertEquals(Set.of("instavel-1", "cota-1"), Set.copyOf(tokensPendentes(id)));
+		assertEquals(590, despachante.metricas().tokensEnviados());
+		assertEquals(7, despachante.metricas().tokensRecusados());
+		assertEquals(4, despachante.metricas().tokensRemovidos());
+		assertEquals(0, despachante.metricas().lotesComErro());
+	}
+
+	@Test
+	void argumentoInvalidoEmTodoOLoteNaoRemoveTokens() throws Exception {
+		// Nenhum token recebeu a mensagem: o problema pode ser a própria mensagem
+		preparar(tokens("invalido-", 3), Map.of("invalido-", "INVALID_ARGUMENT"));
+		long id = enfileirar();
+
+		despachante.despacharPendentes();
+
+		verify(repositoryDispositivo, never()).deleteByTokenIn(anyCollection());
+		assertEquals("ENVIADA", situacao(id));
+		assertEquals(3, despachante.metricas().tokensRecusados());
+	}
+
+	@Test
+	void reenvioDeFalhaPassageiraUsaSoOsTokensPendentes() throws Exception {
+		preparar(List.of("ok-1", "instavel-1", "morto-1"), Map.of(
+				"instavel-", "UNAVAILABLE",
+				"morto-", "UNREGISTERED"));
+		long id = enfileirar();
+
+		despachante.despacharPendentes();
+		assertEquals(List.of("instavel-1"), tokensPendentes(id));
+
+		vencer(id);
+		despachante.despacharPendentes();
+
+		// A segunda tentativa não consulta o cadastro de novo, vai só para o token pendente
+		verify(repositoryDispositivo).findAllTokens();
+		assertEquals(2, canal.chamadas());
+		assertEquals(List.of("instavel-1"), tokensPendentes(id));
+		assertEquals(2, tentativas(id));
+	}
+
+	private void preparar(List<String> tokens, Map<String, String> falhas) {
+		repositoryDispositivo = mock(NotificacaoDispositivoRepository.class);
+		when(repositoryDispositivo.findAllTokens()).thenReturn(tokens);
+		when(repositoryDispositivo.deleteByTokenIn(anyCollection())).thenAnswer(chamada ->
+				chamada.<Collection<?>>getArgument(0).size());
+		canal = new NotificacaoCanalFake(0, falhas);
+		despachante = new NotificacaoDespachante(new NotificacaoFila(jdbcTemplate), canal, repositoryDispositivo,
+				4, MAXIMO_TENTATIVAS, 1, ESPERA_BASE_SEGUNDOS, 30, 5, 30);
+	}
+
+	private static List<String> tokens(String prefixo, int quantidade) {
+		return new ArrayList<>(IntStream.range(0, quantidade).mapToObj(i -> prefixo + i).toList());
+	}
+
+	private long enfileirar() {
+		new NotificacaoFila(jdbcTemplate).enfileirar("Atualização de Escala", "Escala alterada");
+		return jdbcTemplate.queryForObject("SELECT MAX(id) FROM notificacaoenvio", Long.class);
+	}
+
+	private String situacao(long id) {
+		return jdbcTemplate.queryForObject("SELECT situacao FROM notificacaoenvio WHERE id = ?", String.class, id);
+	}
+
+	private int tentativas(long id) {
+		return jdbcTemplate.queryForObject("SELECT tentativas FROM notificacaoenvio WHERE id = ?", Integer.class, id);
+	}
+
+	private List<String> tokensPendentes(long id) {
+		return jdbcTemplate.queryForObject("SELECT tokens FROM notificacaoenvio WHERE id = ?", (rs, rowNum) -> {
+			Array tokens = rs.getArray(1);
+			return tokens == null ? null : List.of((String[]) tokens.getArray());
+		}, id);
+	}
+
+	private void vencer(long id) {
+		jdbcTemplate.update("UPDATE notificacaoenvio SET proximatentativa = now() WHERE id = ?", id);
+	}
+
+	/**
+	 * A próxima tentativa fica entre a espera e a espera mais 20% de variação.
+	 */
+	private void assertEsperaEntre(long id, long espera) {
+		double segundos = jdbcTemplate.queryForObject(
+				"SELECT EXTRACT(EPOCH FROM proximatentativa - now()) FROM notificacaoenvio WHERE id = ?",
+				Double.class, id);
+		assertTrue(segundos > espera - 5 && segundos <= espera * 1.2 + 1,
+				"espera de " + segundos + "s, esperado ~" + espera + "s");
+	}
+}
@@ -0,0 +1,144 @@
+package br.com.anestesiaflow.paciente.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import br.com.anestesiaflow.paciente.dto.PacienteSemelhanteDTO;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Busca por nome em 100 mil pacientes no Postgres embarcado: o LIKE com curinga no início sobre
+ * lower(nome) (como era) contra o índice de trigramas de normalizar_nome(nome). Os planos e tempos
+ * do EXPLAIN ANALYZE vão para o log. Roda com mvn -Pbenchmark test.
+ */
+@Tag("benchmark")
+class PacienteNomeBuscaBenchmarkTest {
+
+	private static final Logger log = LoggerFactory.getLogger(PacienteNomeBuscaBenchmarkTest.class);
+
+	private static final int PACIENTES = 100_000;
+	private static final int EXECUCOES = 7;
+	private static final Pattern TEMPO_EXECUCAO = Pattern.compile("Execution Time: ([\\d.]+) ms");
+
+	private static EmbeddedPostgres postgres;
+	private static JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	static void iniciar() throws IOException {
+		postgres = EmbeddedPostgres.start();
+		DataSource dataSource = postgres.getPostgresDatabase();
+		Flyway.configure().dataSource(dataSource).load().migrate();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+
+		// Nomes combinados de listas fixas; só alguns poucos têm o sobrenome procurado
+		jdbcTemplate.update("""
+				INSERT INTO paciente (datacriacao, nome, ativo)
+				SELECT now(),
+				       (ARRAY['MARIA','JOSÉ','ANA','JOÃO','ANTÔNIO','FRANCISCA','CARLOS','PAULO',
+				              'LUCAS','LUÍZA','MÁRCIA','PEDRO','RAIMUNDA','SEBASTIÃO','TEREZA'])[1 + i % 15]
+				       || ' ' || (ARRAY['DA','DE','DOS',''])[1 + i % 4]
+				       || ' ' || (ARRAY['SILVA','SANTOS','OLIVEIRA','SOUZA','RODRIGUES','FERREIRA','ALVES',
+				              'PEREIRA','LIMA','GOMES','COSTA','RIBEIRO','MARTINS','CARVALHO','ARAÚJO',
+				              'MELO','BARBOSA','ROCHA','DIAS','NASCIMENTO','CONCEIÇÃO'])[1 + (i / 15) % 21]
+				       || ' ' || (ARRAY['BATISTA','FREITAS','MOREIRA','CAVALCANTI','TEIXEIRA','CORREIA',
+				              'MENDES','NUNES','MOURA','CARDOSO','LOPES','VIEIRA','MONTEIRO'])[1 + (i / 7) % 13]
+				       || ' ' || i,
+				       i % 10 <> 0
+				FROM generate_series(1, ?) AS i
+				""", PACIENTES - 10);
+		jdbcTemplate.update("""
+				INSERT INTO paciente (datacriacao, nome, ativo)
+				SELECT now(), 'HELENA ALBUQUERQUE ' || i, true FROM generate_series(1, 10) AS i
+				""");
+		jdbcTemplate.execute("ANALYZE paciente");
+	}
+
+	@AfterAll
+	static void finalizar() throws IOException {
+		postgres.close();
+	}
+
+	@Test
+	void indiceDeTrigramasEvitaALeituraDaTabelaInteira() {
+		List<String> antes = explicar("SELECT id FROM paciente WHERE lower(nome) LIKE '%albuquerque%'");
+		List<String> depois = explicar("SELECT id FROM paciente WHERE normalizar_nome(nome) LIKE '%albuquerque%'");
+		List<String> semelhantes = explicar("SELECT id FROM paciente WHERE normalizar_nome(nome) % 'helena albukerque'");
+
+		double tempoAntes = mediana(antes);
+		double tempoDepois = mediana(depois);
+		log.info("LIKE em lower(nome), {} pacientes: {} ms\n{}", PACIENTES, tempoAntes, plano(antes));
+		log.info("LIKE em normalizar_nome(nome), {} pacientes: {} ms\n{}", PACIENTES, tempoDepois, plano(depois));
+		log.info("Similaridade em normalizar_nome(nome), {} pacientes: {} ms\n{}", PACIENTES, mediana(semelhantes),
+				plano(semelhantes));
+
+		assertTrue(plano(antes).contains("Seq Scan"));
+		assertTrue(plano(depois).contains("idx_paciente_nome_trgm"));
+		assertTrue(plano(semelhantes).contains("idx_paciente_nome_trgm"));
+		assertTrue(tempoDepois < tempoAntes);
+	}
+
+	@Test
+	void buscaSemelhantesPeloRepositorio() {
+		PacienteNomeRepository repositorio = new PacienteNomeRepository(new NamedParameterJdbcTemplate(jdbcTemplate));
+
+		List<Double> tempos = new ArrayList<>();
+		List<PacienteSemelhanteDTO> encontrados = List.of();
+		for (int i = 0; i < EXECUCOES; i++) {
+			long inicio = System.nanoTime();
+			encontrados = repositorio.buscarSemelhantes("Helena Albukerque", null, 20);
+			tempos.add((System.nanoTime() - inicio) / 1_000_000.0);
+		}
+		Collections.sort(tempos);
+		log.info("buscarSemelhantes em {} pacientes: mediana de {} ms ({} encontrados)", PACIENTES,
+				tempos.get(tempos.size() / 2), encontrados.size());
+
+		assertFalse(encontrados.isEmpty());
+		assertTrue(encontrados.get(0).nome().startsWith("HELENA ALBUQUERQUE"));
+	}
+
+	/**
+	 * Roda o EXPLAIN ANALYZE algumas vezes; cada item da lista é o plano de uma execução.
+	 */
+	private static List<String> explicar(String sql) {
+		List<String> planos = new ArrayList<>();
+		for (int i = 0; i < EXECUCOES; i++) {
+			planos.add(String.join("\n", jdbcTemplate.queryForList("EXPLAIN (ANALYZE, BUFFERS) " + sql, String.class)));
+		}
+		return planos;
+	}
+
+	private static String plano(List<String> planos) {
+		return planos.get(planos.size() - 1);
+	}
+
+	private static double mediana(List<String> planos) {
+		List<Double> tempos = new ArrayList<>();
+		for (String plano : planos) {
+			Matcher matcher = TEMPO_EXECUCAO.matcher(plano);
+			if (matcher.find()) {
+				tempos.add(Double.parseDouble(matcher.group(1)));
+			}
+		}
+		Collections.sort(tempos);
+		return tempos.get(tempos.size() / 2);
+	}
+}
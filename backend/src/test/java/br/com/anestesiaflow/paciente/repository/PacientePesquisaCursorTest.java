@@ -0,0 +1,80 @@
+package br.com.anestesiaflow.paciente.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Paginação por cursor da pesquisa de pacientes, com pacientes sem nome no meio: percorrendo de
+ * um em um, cada paciente aparece uma única vez.
+ */
+class PacientePesquisaCursorTest {
+
+	private static EmbeddedPostgres postgres;
+	private static NamedParameterJdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	static void iniciar() throws IOException {
+		postgres = EmbeddedPostgres.start();
+		DataSource dataSource = postgres.getPostgresDatabase();
+		Flyway.configure().dataSource(dataSource).load().migrate();
+		new JdbcTemplate(dataSource).update("""
+				INSERT INTO paciente (datacriacao, nome, ativo) VALUES
+				    (now(), 'MARIA', true), (now(), NULL, true), (now(), 'ANA', true),
+				    (now(), NULL, true), (now(), '', true), (now(), 'ANA', true)
+				""");
+		jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+	}
+
+	@AfterAll
+	static void finalizar() throws IOException {
+		postgres.close();
+	}
+
+	@Test
+	void percorrePassandoPelosPacientesSemNome() {
+		List<Integer> todos = pagina(null, null, 100);
+
+		List<Integer> percorridos = new ArrayList<>();
+		String cursorNome = null;
+		Integer cursorId = null;
+		List<Integer> pagina;
+		while (!(pagina = pagina(cursorNome, cursorId, 1)).isEmpty()) {
+			cursorId = pagina.get(0);
+			cursorNome = jdbcTemplate.queryForObject("SELECT COALESCE(nome, '') FROM paciente WHERE id = :id",
+					Map.of("id", cursorId), String.class);
+			percorridos.add(cursorId);
+		}
+
+		assertEquals(6, todos.size());
+		assertEquals(todos, percorridos);
+	}
+
+	private List<Integer> pagina(String cursorNome, Integer cursorId, int limite) {
+		Map<String, Object> parametros = new HashMap<>();
+		parametros.put("ativo", null);
+		parametros.put("nomeLike", null);
+		parametros.put("pago", null);
+		parametros.put("dataProcInicio", null);
+		parametros.put("dataProcFim", null);
+		parametros.put("cirurgiaoId", null);
+		parametros.put("usarFiltroPeriodo", false);
+		parametros.put("aplicarFiltroProcedimento", false);
+		parametros.put("cursorNome", cursorNome);
+		parametros.put("cursorId", cursorId);
+		parametros.put("limite", limite);
+		return jdbcTemplate.query(PacienteRepository.PESQUISA_PACIENTES + "LIMIT CAST(:limite AS integer)",
+				parametros, (linha, numero) -> linha.getInt("id"));
+	}
+}
@@ -0,0 +1,111 @@
+package br.com.anestesiaflow.paciente.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.cloud.vision.v1.ImageAnnotatorClient;
+
+import br.com.anestesiaflow.exception.BusinessException;
+import br.com.anestesiaflow.framework.utils.ImageAnnotatorFakeStub;
+
+/**
+ * Agrupamento do OCR com o stub local do Vision: os contadores do stub mostram quantas chamadas
+ * foram feitas e com quantas imagens.
+ */
+class PacienteOcrLoteTest {
+
+	private ImageAnnotatorFakeStub stub;
+	private ImageAnnotatorClient client;
+	private PacienteOcrLote lote;
+
+	@BeforeEach
+	void iniciar() {
+		stub = new ImageAnnotatorFakeStub("TEXTO PADRAO", 0);
+		client = ImageAnnotatorClient.create(stub);
+	}
+
+	@AfterEach
+	void finalizar() {
+		lote.destroy();
+		client.close();
+	}
+
+	@Test
+	void enviaQuandoOLoteEnche() throws Exception {
+		// Espera longa: se o envio dependesse dela o teste estouraria o tempo
+		lote = new PacienteOcrLote(client, 4, TimeUnit.MINUTES.toMillis(10), 2);
+
+		List<CompletableFuture<String>> resultados = enviar("imagem 1", "imagem 2", "imagem 3", "imagem 4");
+
+		for (int i = 0; i < resultados.size(); i++) {
+			assertEquals("imagem " + (i + 1), resultados.get(i).get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, stub.chamadas());
+		assertEquals(4, stub.imagens());
+		assertEquals(4, stub.maiorLote());
+	}
+
+	@Test
+	void enviaLoteIncompletoAposAEspera() throws Exception {
+		lote = new PacienteOcrLote(client, 16, 300, 2);
+
+		List<CompletableFuture<String>> resultados = enviar("imagem 1", "imagem 2", "imagem 3");
+
+		assertFalse(resultados.get(0).isDone());
+		for (CompletableFuture<String> resultado : resultados) {
+			resultado.get(5, TimeUnit.SECONDS);
+		}
+		assertEquals(1, stub.chamadas());
+		assertEquals(3, stub.maiorLote());
+	}
+
+	@Test
+	void loteCheioNaoPassaDoTamanhoConfigurado() throws Exception {
+		lote = new PacienteOcrLote(client, 2, TimeUnit.MINUTES.toMillis(10), 2);
+
+		List<CompletableFuture<String>> resultados = enviar("a", "b", "c", "d", "e", "f");
+
+		for (CompletableFuture<String> resultado : resultados) {
+			resultado.get(5, TimeUnit.SECONDS);
+		}
+		assertEquals(3, stub.chamadas());
+		assertEquals(6, stub.imagens());
+		assertEquals(2, stub.maiorLote());
+	}
+
+	@Test
+	void erroEmUmaImagemNaoDerrubaAsOutras() throws Exception {
+		lote = new PacienteOcrLote(client, 3, TimeUnit.MINUTES.toMillis(10), 2);
+
+		List<CompletableFuture<String>> resultados = enviar("imagem 1",
+				ImageAnnotatorFakeStub.MARCADOR_ERRO + " imagem 2", "imagem 3");
+
+		assertEquals("imagem 1", resultados.get(0).get(5, TimeUnit.SECONDS));
+		ExecutionException erro = assertThrows(ExecutionException.class,
+				() -> resultados.get(1).get(5, TimeUnit.SECONDS));
+		assertInstanceOf(BusinessException.class, erro.getCause());
+		assertEquals("imagem 3", resultados.get(2).get(5, TimeUnit.SECONDS));
+		assertEquals(1, stub.chamadas());
+	}
+
+	private List<CompletableFuture<String>> enviar(String... textos) {
+		List<CompletableFuture<String>> resultados = new ArrayList<>();
+		for (String texto : textos) {
+			resultados.add(lote.extrairTexto(texto.getBytes(StandardCharsets.UTF_8)));
+		}
+		return resultados;
+	}
+}
@@ -0,0 +1,47 @@
+package br.com.anestesiaflow.paciente.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import br.com.anestesiaflow.paciente.dto.PacienteImagemDTO;
+
+/**
+ * Tempo do {@link PacienteOcrParser} para cada texto do corpus em src/test/resources/ocr.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PacienteOcrParserBenchmark {
+
+	@Param({
+		"agenda-centro-cirurgico.txt",
+		"etiqueta-nome-cirurgiao.txt",
+		"etiqueta-vita-med.txt",
+		"etiqueta-medico.txt",
+		"receituario-sem-paciente.txt"
+	})
+	public String arquivo;
+
+	private PacienteOcrParser parser;
+	private String texto;
+
+	@Setup
+	public void preparar() {
+		parser = PacienteOcrParserTest.novoParser();
+		texto = PacienteOcrParserTest.ler(arquivo);
+	}
+
+	@Benchmark
+	public List<PacienteImagemDTO> processar() {
+		return parser.processar(texto);
+	}
+}
@@ -0,0 +1,85 @@
+package br.com.anestesiaflow.paciente.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.anestesiaflow.paciente.dto.PacienteImagemDTO;
+
+/**
+ * Parser sobre o corpus de textos do OCR em src/test/resources/ocr.
+ */
+class PacienteOcrParserTest {
+
+	static final List<String> CORPUS = List.of(
+			"agenda-centro-cirurgico.txt",
+			"etiqueta-nome-cirurgiao.txt",
+			"etiqueta-vita-med.txt",
+			"etiqueta-medico.txt",
+			"receituario-sem-paciente.txt");
+
+	private final PacienteOcrParser parser = novoParser();
+
+	static PacienteOcrParser novoParser() {
+		return new PacienteOcrParser(List.of(new PacienteOcrLayoutAgenda(), new PacienteOcrLayoutEtiqueta()));
+	}
+
+	static String ler(String arquivo) {
+		try (InputStream entrada = PacienteOcrParserTest.class.getResourceAsStream("/ocr/" + arquivo)) {
+			if (entrada == null) {
+				throw new IllegalStateException("Arquivo do corpus não encontrado: " + arquivo);
+			}
+			return new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Test
+	void agendaTrazTodosOsPacientesDaSala() {
+		List<PacienteImagemDTO> pacientes = parser.processar(ler("agenda-centro-cirurgico.txt"));
+
+		assertEquals(List.of("MARIA APARECIDA SOUZA", "JOSE ROBERTO ALVES", "ANA PAULA FERREIRA"),
+				pacientes.stream().map(PacienteImagemDTO::nome).toList());
+		assertEquals(List.of("DR CARLOS EDUARDO LIMA", "DR CARLOS EDUARDO LIMA", "DR MARCOS ANTONIO REIS"),
+				pacientes.stream().map(PacienteImagemDTO::cirurgiao).toList());
+	}
+
+	@Test
+	void etiquetaComNomeECirurgiao() {
+		List<PacienteImagemDTO> pacientes = parser.processar(ler("etiqueta-nome-cirurgiao.txt"));
+
+		assertEquals(1, pacientes.size());
+		assertEquals("Joana da Silva Pereira", pacientes.get(0).nome());
+		assertEquals("Fernando Tavares", pacientes.get(0).cirurgiao());
+	}
+
+	@Test
+	void etiquetaSemRotuloUsaASegundaLinha() {
+		List<PacienteImagemDTO> pacientes = parser.processar(ler("etiqueta-vita-med.txt"));
+
+		assertEquals(1, pacientes.size());
+		assertEquals("ANTONIO CARLOS MENDES", pacientes.get(0).nome());
+		assertEquals("RICARDO NUNES", pacientes.get(0).cirurgiao());
+	}
+
+	@Test
+	void etiquetaComMedico() {
+		List<PacienteImagemDTO> pacientes = parser.processar(ler("etiqueta-medico.txt"));
+
+		assertEquals(1, pacientes.size());
+		assertEquals("Helena Martins Costa", pacientes.get(0).nome());
+		assertEquals("Paula Ribeiro", pacientes.get(0).cirurgiao());
+	}
+
+	@Test
+	void documentoSemPacienteNaoTrazNada() {
+		assertTrue(parser.processar(ler("receituario-sem-paciente.txt")).isEmpty());
+	}
+}
@@ -0,0 +1,58 @@
+package br.com.anestesiaflow.publicview.escala;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.filter.ForwardedHeaderFilter;
+
+import br.com.anestesiaflow.escala.service.EscalaEventos;
+import br.com.anestesiaflow.escala.service.EscalaVersoes;
+import br.com.anestesiaflow.exception.GlobalExceptionHandler;
+
+/**
+ * Limite de SSE por cliente atrás do proxy: todas as conexões chegam do mesmo endereço, o cliente
+ * vem do X-Forwarded-For (server.forward-headers-strategy=framework registra o mesmo filtro).
+ */
+class EscalaViewControllerTest {
+
+	private EscalaEventos eventos;
+	private MockMvc mvc;
+
+	@BeforeEach
+	void iniciar() {
+		EscalaVersoes versoes = new EscalaVersoes();
+		eventos = new EscalaEventos(versoes, 100, 1, 8, 25, 30);
+		mvc = MockMvcBuilders.standaloneSetup(new EscalaViewController(null, null, versoes, eventos))
+				.addFilters(new ForwardedHeaderFilter())
+				.setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+	}
+
+	@AfterEach
+	void finalizar() {
+		eventos.destroy();
+	}
+
+	@Test
+	void limitaPorEnderecoEncaminhado() throws Exception {
+		mvc.perform(assinar("203.0.113.1")).andExpect(request().asyncStarted());
+		mvc.perform(assinar("203.0.113.2")).andExpect(request().asyncStarted());
+		mvc.perform(assinar("203.0.113.1")).andExpect(status().isUnprocessableEntity());
+	}
+
+	private MockHttpServletRequestBuilder assinar(String cliente) {
+		return get("/escala/eventos").param("data", "2025-03-12")
+				.header("X-Forwarded-For", cliente)
+				.with(requisicao -> {
+					requisicao.setRemoteAddr("10.0.0.1");
+					return requisicao;
+				});
+	}
+}
@@ -8,6 +8,7 @@ import { getIntervalosEscala } from '@/types/escalaHelper';
 import { DateUtils } from '@/utils/DateUtils';
 import clsx from 'clsx';
 import { IconeSirenePlantao } from '@/utils/IconeSirene';
+import { IconeUtils } from '@/utils/IconeUtils';
 import { processarHoras } from "@/utils/PlantoesUtils";
 
 interface AppEscalaSemanalProps<T extends FieldValues> {
@@ -185,7 +186,7 @@ export const AppEscalaSemanal = <T extends FieldValues>({ control, onAgendar }:
                           
         const almoco = hora === "11:00" || hora === "12:00"
         if (alocacao) {
-            const iconeBase64 = formatarIcone(alocacao.icone);
+            const iconeBase64 = alocacao.iconeUrl ? IconeUtils.src(alocacao) : formatarIcone(alocacao.icone);
             return (
                 <div className={`flex items-center justify-center mx-auto sm:w-full sm:h-[28px] h-[24px] sm:min-w-[28px] min-w-[24px] 
                     ${bloqueado ? 'cursor-not-allowed' : ''} ${almoco ? 'bg-red-100' : 'bg-white'}`}>
@@ -354,9 +355,9 @@ export const AppEscalaSemanal = <T extends FieldValues>({ control, onAgendar }:
                                             className="w-[28px] h-[28px] rounded-full border border-white shadow-inner flex items-center justify-center overflow-hidden"
                                             style={{ backgroundColor: itemOriginal.cor?.startsWith('#') ? itemOriginal.cor : `#${itemOriginal.cor}` }}
                                             >
-                                            {itemOriginal.icone ? (
+                                            {IconeUtils.src(itemOriginal) ? (
                                                 <img 
-                                                src={String(itemOriginal.icone).startsWith('data:') ? (itemOriginal.icone as string) : `data:image/png;base64,${itemOriginal.icone}`}
+                                                src={IconeUtils.src(itemOriginal)}
                                                 className="object-contain"
                                                 alt={""}
                                                 />
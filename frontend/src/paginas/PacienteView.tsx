@@ -818,7 +818,16 @@ export const PacienteView = () => {
                 { key: "procedimentoTexto", value: textAreaProcedimento }
             ];
 
-            await server.api.upload('/paciente/decode', uploadParams as any, file, 'file');
+            let job = await server.api.upload('/paciente/decode', uploadParams as any, file, 'file');
+            while (job.status === 'PENDENTE' || job.status === 'PROCESSANDO') {
+                await new Promise(resolve => setTimeout(resolve, 1500));
+                job = await server.api.postCustomizada<any>('/paciente', '/decode/status', { id: job.id });
+            }
+
+            if (job.status === 'ERRO') {
+                showError("Importação de paciente", job.mensagem || "Não foi possível processar a imagem.");
+                return;
+            }
 
             if (loadData) {
                await loadData();
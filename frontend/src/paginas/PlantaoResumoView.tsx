@@ -9,6 +9,7 @@ import { Calendar } from "primereact/calendar";
 import { useEffect, useMemo, useState } from "react";
 import { useNavigate } from "react-router-dom";
 import { processarHoras } from "@/utils/PlantoesUtils";
+import { IconeUtils } from "@/utils/IconeUtils";
 
 interface EscalaPlantao extends Escala {
     medico: Medico | undefined;
@@ -283,9 +284,9 @@ addLocale('pt-BR', {
                                                 className="w-8 h-8 rounded-full border border-slate-100 flex items-center justify-center overflow-hidden shrink-0"
                                                 style={{ backgroundColor: escalaItem.item.cor?.startsWith('#') ? escalaItem.item.cor : `#${escalaItem.item.cor}` }}
                                             >
-                                                {escalaItem.item.icone ? (
+                                                {IconeUtils.src(escalaItem.item) ? (
                                                     <img 
-                                                        src={String(escalaItem.item.icone).startsWith('data:') ? (escalaItem.item.icone as string) : `data:image/png;base64,${escalaItem.item.icone}`}
+                                                        src={IconeUtils.src(escalaItem.item)}
                                                         className="w-full h-full object-cover"
                                                     />
                                                 ) : <span className="text-white font-bold text-[10px]">{linha.medico?.sigla}</span>}
@@ -15,6 +15,7 @@ import { confirmDialog } from "primereact/confirmdialog";
 import { Recurso } from "@/permissoes/recurso";
 import { useAuthStore } from "@/permissoes/authStore";
 import { IconeSirenePlantao } from "@/utils/IconeSirene";
+import { IconeUtils } from "@/utils/IconeUtils";
 import { processarHoras } from "@/utils/PlantoesUtils";
 import { DialogoLancamento, type TimeInterval } from "@/componentes/sudoku/DialogoLancamto";
 
@@ -617,9 +618,9 @@ export const PlantaoView = () => {
                                               className="w-[28px] h-[28px] rounded-full border border-white shadow-inner flex items-center justify-center overflow-hidden"
                                               style={{ backgroundColor: item.cor?.startsWith('#') ? item.cor : `#${item.cor}` }}
                                             >
-                                              {item.icone ? (
+                                              {IconeUtils.src(item) ? (
                                                 <img 
-                                                  src={String(item.icone).startsWith('data:') ? (item.icone as string) : `data:image/png;base64,${item.icone}`}
+                                                  src={IconeUtils.src(item)}
                                                   className="object-contain"
                                                   alt={item.estabelecimento?.nome}
                                                 />
@@ -15,6 +15,7 @@
     import jsPDF from 'jspdf';
     import autoTable from 'jspdf-autotable';
     import { IconeSirenePlantao } from "@/utils/IconeSirene";
+    import { IconeUtils } from "@/utils/IconeUtils";
 import { AppCardsPlantaoNoturno } from "@/componentes/plantao/AppCardsPlantaoNorurno";
 
     addLocale('pt-BR', {
@@ -54,9 +55,9 @@ import { AppCardsPlantaoNoturno } from "@/componentes/plantao/AppCardsPlantaoNor
             style={{ backgroundColor: bgColor }}
             className="sm:w-[28px] sm:h-[28px] w-[24px] h-[24px] rounded-full border border-white shadow-sm flex items-center justify-center overflow-hidden"
             >
-            {alocacao.icone && (
+            {IconeUtils.src(alocacao) && (
                 <img 
-                src={alocacao.icone.startsWith('data:') ? alocacao.icone : `data:image/png;base64,${alocacao.icone}`} 
+                src={IconeUtils.src(alocacao)} 
                 className="object-contain w-full h-full"
                 alt="ícone" 
                 />
@@ -175,14 +176,12 @@ import { AppCardsPlantaoNoturno } from "@/componentes/plantao/AppCardsPlantaoNor
         
             const imagensCache = new Map<number, string>();
             const itensComImagem = escalas.flatMap(e => e.itens || [])
-                .filter(i => i.estabelecimentoId && i.icone);
+                .filter(i => i.estabelecimentoId && IconeUtils.src(i));
         
+            // O jsPDF precisa dos bytes: baixa cada ícone uma vez
             for (const item of itensComImagem) {
                 if (!imagensCache.has(item.estabelecimentoId || 0)) {
-                    const src = item.icone.startsWith('data:') 
-                        ? item.icone 
-                        : `data:image/png;base64,${item.icone}`;
-                    imagensCache.set(item.estabelecimentoId || 0, src);
+                    imagensCache.set(item.estabelecimentoId || 0, await IconeUtils.dataUrl(item));
                 }
             }
         
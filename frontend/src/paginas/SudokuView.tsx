@@ -23,6 +23,7 @@ import { useAuthStore } from '@/permissoes/authStore';
 import { Recurso } from '@/permissoes/recurso';
 import { confirmDialog } from 'primereact/confirmdialog';
 import { IconeSirenePlantao } from '@/utils/IconeSirene';
+import { IconeUtils } from '@/utils/IconeUtils';
 import { AppCardsPlantaoNoturno } from '@/componentes/plantao/AppCardsPlantaoNorurno';
 import { DialogoLancamento } from '@/componentes/sudoku/DialogoLancamto';
 
@@ -108,9 +109,9 @@ const DraggableItem = ({ alocacao, medicoId, horaOriginal, isPaintingMode, bloqu
       className="w-[28px] h-[28px] rounded-full border border-white shadow-sm flex items-center
                  justify-center overflow-hidden active:cursor-grabbing">
       {/* {alocacao.icone && !alocacao.plantao ? ( */}
-      {alocacao.icone && (
+      {IconeUtils.src(alocacao) && (
         <img 
-          src={alocacao.icone.startsWith('data:') ? alocacao.icone : `data:image/png;base64,${alocacao.icone}`} 
+          src={IconeUtils.src(alocacao)} 
           className="object-contain w-full h-full pointer-events-none" 
         />
       // ) : (
@@ -430,6 +431,7 @@ export const SudokuView = () => {
         hora: horaDestNorm,
         cor: clinica.cor,
         icone: clinica.icone,
+        iconeUrl: clinica.iconeUrl,
         arquivado: null,
         reagendado: false,
         plantao: ativaPlantao
@@ -500,6 +502,7 @@ export const SudokuView = () => {
             hora: horaNormalizada,
             cor: activePaintingClinica.cor,
             icone: activePaintingClinica.icone,
+            iconeUrl: activePaintingClinica.iconeUrl,
             arquivado: null,
             reagendado: false,
             plantao: ativaPlantao
@@ -526,6 +529,7 @@ export const SudokuView = () => {
           hora: horaNormalizada,
           cor: activePaintingClinica.cor,
           icone: activePaintingClinica.icone,
+          iconeUrl: activePaintingClinica.iconeUrl,
           arquivado: null,
           reagendado: false,
           plantao: ativaPlantao
@@ -570,7 +574,8 @@ export const SudokuView = () => {
             setActivePaintingClinica({
                 id: itemAlocado.estabelecimentoId,
                 cor: itemAlocado.cor,
-                icone: itemAlocado.icone
+                icone: itemAlocado.icone,
+                iconeUrl: itemAlocado.iconeUrl
             } as Estabelecimento);
             
             setIsDraggingWithinGrid(true);
@@ -1052,9 +1057,9 @@ export const SudokuView = () => {
                 pointerEvents: 'none' // Crucial para não travar o drop
               }}
             >
-              {activeDragData.icone ? (
+              {IconeUtils.src(activeDragData) ? (
                 <img 
-                  src={activeDragData.icone.startsWith('data:') ? activeDragData.icone : `data:image/png;base64,${activeDragData.icone}`} 
+                  src={IconeUtils.src(activeDragData)} 
                   className="w-full h-full object-contain" 
                 />
               ) : (
@@ -15,6 +15,7 @@ export const escalaItemSchema = z.object({
         }),
     cor: z.string().nullable().optional(),
     icone: z.any().optional(),
+    iconeUrl: z.string().nullable().optional(),
     arquivado: z.union([z.date(), z.string()]).nullable().optional(), 
     reagendado: z.boolean().nullable().optional().default(false),
     plantao: z.boolean().default(false),
@@ -19,6 +19,8 @@ export const estabelecimentoSchema = baseEntitySchema.extend({
       // ou você pode converter aqui se necessário.
       return val; 
     }),
+  // Só nos itens das grades de escala, que trazem o endereço do ícone em vez dos bytes
+  iconeUrl: z.string().nullable().optional(),
 }).superRefine((data, ctx) => {
     const hasColor = !!data.cor && data.cor.trim() !== "";
     const hasIcon = !!data.icone && (Array.isArray(data.icone) ? data.icone.length > 0 : data.icone.length > 0);
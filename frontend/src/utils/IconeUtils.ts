@@ -0,0 +1,48 @@
+import httpClient from '@/api/client';
+
+type ComIcone = { iconeUrl?: string | null; icone?: any } | null | undefined;
+
+/**
+ * Classe utilitária para exibir os ícones dos estabelecimentos.
+ */
+export class IconeUtils {
+
+    /**
+     * Monta o src da imagem do ícone. As grades de escala trazem só o endereço do ícone (iconeUrl),
+     * servido pela API com ETag; o cadastro de estabelecimentos ainda traz o ícone em base64.
+     * @param item O item da grade ou o estabelecimento.
+     * @returns O src da imagem ou uma string vazia se não houver ícone.
+     */
+    public static src(item: ComIcone): string {
+        if (!item) {
+            return '';
+        }
+        if (item.iconeUrl) {
+            const base = new URL(httpClient.defaults.baseURL || '/', window.location.origin);
+            return new URL(item.iconeUrl, base).toString();
+        }
+        if (typeof item.icone === 'string' && item.icone.length > 0) {
+            return item.icone.startsWith('data:') ? item.icone : `data:image/png;base64,${item.icone}`;
+        }
+        return '';
+    }
+
+    /**
+     * O ícone como data URL, para quem precisa dos bytes (ex.: jsPDF).
+     * @param item O item da grade ou o estabelecimento.
+     * @returns O data URL ou uma string vazia se não houver ícone.
+     */
+    public static async dataUrl(item: ComIcone): Promise<string> {
+        const src = this.src(item);
+        if (!src || src.startsWith('data:')) {
+            return src;
+        }
+        const resposta = await httpClient.get<Blob>(src, { responseType: 'blob' });
+        return new Promise((resolve, reject) => {
+            const leitor = new FileReader();
+            leitor.onload = () => resolve(leitor.result as string);
+            leitor.onerror = () => reject(leitor.error);
+            leitor.readAsDataURL(resposta.data);
+        });
+    }
+}
@@ -1,10 +1,35 @@
-import { defineConfig } from 'vite'
+import { defineConfig, type Plugin } from 'vite'
 import react from '@vitejs/plugin-react'
 import path from 'path'
+import fs from 'fs'
+import zlib from 'zlib'
+
+// Grava .gz e .br ao lado dos arquivos do build; o backend entrega a versão comprimida
+// conforme o Accept-Encoding, sem comprimir a cada requisição
+function precomprimir(): Plugin {
+  return {
+    name: 'precomprimir',
+    apply: 'build',
+    writeBundle(options, bundle) {
+      const dir = options.dir ?? path.resolve(__dirname, 'dist')
+      for (const arquivo of Object.keys(bundle)) {
+        if (!/\.(js|css|html|svg|json)$/.test(arquivo)) continue
+        const caminho = path.join(dir, arquivo)
+        const conteudo = fs.readFileSync(caminho)
+        if (conteudo.length < 1024) continue
+        fs.writeFileSync(`${caminho}.gz`, zlib.gzipSync(conteudo, { level: 9 }))
+        fs.writeFileSync(`${caminho}.br`, zlib.brotliCompressSync(conteudo, {
+          params: { [zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY },
+        }))
+      }
+    },
+  }
+}
 
 export default defineConfig({
   plugins: [
-    react()
+    react(),
+    precomprimir()
   ],
   resolve: {
     alias: {
@@ -14,10 +39,11 @@ export default defineConfig({
   build: {
     rollupOptions: {
       output: {
-        entryFileNames: `assets/[name].js`,
-        chunkFileNames: `assets/[name].js`,
-        assetFileNames: `assets/[name].[ext]`,
+        // Hash no nome: o backend serve /assets com cache imutável
+        entryFileNames: `assets/[name]-[hash].js`,
+        chunkFileNames: `assets/[name]-[hash].js`,
+        assetFileNames: `assets/[name]-[hash].[ext]`,
       },
     },
   },
-})
\ No newline at end of file
+})